@@ -1,11 +1,19 @@
 #!/bin/bash
 set -e
 
+REDIS_HOST=${SPRING_REDIS_HOST:-redis}
+REDIS_PORT=${SPRING_REDIS_PORT:-6379}
+
 echo "Esperando a que Redis esté disponible..."
-until redis-cli -h redis -p 6379 ping | grep PONG; do
+until (echo > "/dev/tcp/$REDIS_HOST/$REDIS_PORT") 2>/dev/null; do
   echo "Redis no está listo, esperando..."
   sleep 2
 done
 echo "Redis está disponible, iniciando la aplicación..."
 
-exec java -jar app.jar
+# Usa el archivo AppCDS generado al construir la imagen si está presente
+if [ -f application.jsa ]; then
+  JAVA_OPTS="-XX:SharedArchiveFile=application.jsa $JAVA_OPTS"
+fi
+
+exec java $JAVA_OPTS -jar app.jar
@@ -0,0 +1,78 @@
+#!/bin/bash
+# Compara el tiempo de inicio y la memoria residente (RSS) del build JVM y del ejecutable nativo.
+#
+# Requisitos:
+#   - PostgreSQL y Redis en ejecución:   docker-compose up -d postgres redis
+#   - El JAR y el ejecutable nativo:     mvn -Pnative -DskipTests package   (requiere GraalVM 21)
+#
+# Uso: scripts/compare-startup.sh [ejecuciones]
+#
+# El tiempo de inicio se mide desde que se lanza el proceso hasta que /actuator/health/readiness
+# responde UP, es decir incluyendo el precalentamiento. La RSS se lee de /proc en ese momento (Linux).
+set -euo pipefail
+
+RUNS=${1:-3}
+PORT=${PORT:-8090}
+JAR=${JAR:-target/challenge-0.0.1-SNAPSHOT.jar}
+NATIVE=${NATIVE:-target/challenge}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+
+export SPRING_R2DBC_URL=${SPRING_R2DBC_URL:-r2dbc:postgresql://localhost:5432/tenpochallenge}
+export SPRING_LIQUIBASE_URL=${SPRING_LIQUIBASE_URL:-jdbc:postgresql://localhost:5432/tenpochallenge}
+export SPRING_REDIS_HOST=${SPRING_REDIS_HOST:-localhost}
+export SERVER_PORT=$PORT
+
+for file in "$JAR" "$NATIVE"; do
+  if [ ! -f "$file" ]; then
+    echo "No se encontró $file, compila con: mvn -Pnative -DskipTests package" >&2
+    exit 1
+  fi
+done
+
+now_millis() {
+  date +%s%3N
+}
+
+# Inicia la aplicación, espera a que esté lista e imprime "<milisegundos> <RSS en MB>"
+measure() {
+  local log
+  log=$(mktemp)
+  local start
+  start=$(now_millis)
+  "$@" > "$log" 2>&1 &
+  local pid=$!
+
+  until curl -sf "http://localhost:$PORT/actuator/health/readiness" | grep -q '"UP"'; do
+    if ! kill -0 "$pid" 2>/dev/null || [ $(( $(now_millis) - start )) -gt $(( TIMEOUT_SECONDS * 1000 )) ]; then
+      echo "La aplicación no estuvo lista, revisa $log" >&2
+      kill "$pid" 2>/dev/null || true
+      exit 1
+    fi
+    sleep 0.02
+  done
+  local elapsed=$(( $(now_millis) - start ))
+  local rss_kb
+  rss_kb=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  rm -f "$log"
+  echo "$elapsed $(( rss_kb / 1024 ))"
+}
+
+report() {
+  local name=$1
+  shift
+  local total_millis=0
+  local total_rss=0
+  for run in $(seq 1 "$RUNS"); do
+    read -r millis rss < <(measure "$@")
+    printf "%-8s ejecución %d: %6d ms hasta readiness, RSS %5d MB\n" "$name" "$run" "$millis" "$rss"
+    total_millis=$(( total_millis + millis ))
+    total_rss=$(( total_rss + rss ))
+  done
+  printf "%-8s promedio:    %6d ms hasta readiness, RSS %5d MB\n\n" "$name" $(( total_millis / RUNS )) $(( total_rss / RUNS ))
+}
+
+report "JVM" java -jar "$JAR"
+report "Nativo" "$NATIVE"
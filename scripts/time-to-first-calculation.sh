@@ -0,0 +1,57 @@
+#!/bin/bash
+# Mide el tiempo desde que se lanza la aplicación hasta la primera respuesta exitosa de /calculation,
+# para detectar regresiones en el inicio.
+#
+# Requisitos: PostgreSQL y Redis en ejecución (docker-compose up -d postgres redis).
+#
+# Uso: scripts/time-to-first-calculation.sh [comando para iniciar la aplicación...]
+#
+# Sin argumentos inicia target/challenge-0.0.1-SNAPSHOT.jar. Ejemplos:
+#   scripts/time-to-first-calculation.sh java -XX:SharedArchiveFile=application.jsa -jar app.jar
+#   scripts/time-to-first-calculation.sh docker run --rm --network tenpo-challenge_app_network -p 8080:8080 challenge
+#
+# Imprime el resultado en milisegundos en la última línea, en el formato "time-to-first-calculation-ms=<valor>".
+set -euo pipefail
+
+PORT=${PORT:-8080}
+URL=${URL:-http://localhost:$PORT/calculation/?number1=5&number2=5}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+
+export SPRING_R2DBC_URL=${SPRING_R2DBC_URL:-r2dbc:postgresql://localhost:5432/tenpochallenge}
+export SPRING_LIQUIBASE_URL=${SPRING_LIQUIBASE_URL:-jdbc:postgresql://localhost:5432/tenpochallenge}
+export SPRING_REDIS_HOST=${SPRING_REDIS_HOST:-localhost}
+export SERVER_PORT=$PORT
+
+if [ $# -eq 0 ]; then
+  set -- java -jar target/challenge-0.0.1-SNAPSHOT.jar
+fi
+
+now_millis() {
+  date +%s%3N
+}
+
+log=$(mktemp)
+start=$(now_millis)
+"$@" > "$log" 2>&1 &
+pid=$!
+trap 'kill "$pid" 2>/dev/null || true; wait "$pid" 2>/dev/null || true' EXIT
+
+while true; do
+  # Mientras el servidor no acepte conexiones curl devuelve 000; se reintenta sin consumir el límite de solicitudes
+  status=$(curl -s -o /dev/null -w '%{http_code}' "$URL" || true)
+  if [ "$status" = "200" ]; then
+    break
+  fi
+  if [ "$status" = "429" ]; then
+    echo "Límite de solicitudes excedido antes de la primera respuesta exitosa" >&2
+    exit 1
+  fi
+  if ! kill -0 "$pid" 2>/dev/null || [ $(( $(now_millis) - start )) -gt $(( TIMEOUT_SECONDS * 1000 )) ]; then
+    echo "La aplicación no respondió a /calculation, revisa $log" >&2
+    exit 1
+  fi
+  sleep 0.02
+done
+
+rm -f "$log"
+echo "time-to-first-calculation-ms=$(( $(now_millis) - start ))"
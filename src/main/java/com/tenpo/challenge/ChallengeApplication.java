@@ -1,18 +1,26 @@
 package com.tenpo.challenge;
 
+import com.tenpo.challenge.service.WarmupService;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main class for the Tenpo Challenge application.
  * This class is responsible for bootstrapping the Spring Boot application.
  * It contains the main method which serves as the entry point for the application.
+ * Scheduling is enabled for the maintenance jobs of the application.
+ * The instance is warmed up once the server has started and before it reports itself ready,
+ * since the readiness state only changes to accepting traffic after the application runners complete.
  *
  * @author bbeltran
  * @version 1.0
  * @since 2023-10-05
  */
 @SpringBootApplication
+@EnableScheduling
 public class ChallengeApplication {
 
 	/**
@@ -24,4 +32,15 @@ public class ChallengeApplication {
 		SpringApplication.run(ChallengeApplication.class, args);
 	}
 
+	/**
+	 * Runs the warm-up of the instance as part of the startup.
+	 *
+	 * @param warmupService the service that warms up the instance.
+	 * @return an ApplicationRunner that waits for the warm-up to finish.
+	 */
+	@Bean
+	public ApplicationRunner warmupRunner(WarmupService warmupService) {
+		return args -> warmupService.warmUp().block();
+	}
+
 }
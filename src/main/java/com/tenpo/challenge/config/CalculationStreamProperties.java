@@ -0,0 +1,35 @@
+package com.tenpo.challenge.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the streaming calculation channel.
+ * Each WebSocket connection reads a bounded number of messages ahead of the results it has sent,
+ * and takes one token per pair from a bucket of its own with these limits, so high-frequency clients
+ * pay the rate limit check of the shared buckets once, when they connect.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "calculation.stream")
+public class CalculationStreamProperties {
+
+    /** Maximum number of pairs of a message. */
+    private int maxItemsPerMessage = 1000;
+    /** Maximum size of a message. */
+    private int maxMessageBytes = 65536;
+    /** Number of messages of a connection calculated ahead of the results sent back. */
+    private int maxInFlight = 16;
+    /** Limits of the bucket of each connection, in pairs. */
+    private List<RateLimitProperties.Limit> limits = new ArrayList<>(List.of(
+            new RateLimitProperties.Limit(1000, Duration.ofSeconds(1), RateLimitProperties.RefillType.GREEDY)));
+}
@@ -0,0 +1,85 @@
+package com.tenpo.challenge.config;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Redis serializer of Double values as their fixed 8-byte IEEE 754 representation, big-endian.
+ * Values written as JSON text by the previous serializer are still read, so cached values survive
+ * the change: text is told apart because its bytes are all digits, signs, dots or exponents, which
+ * the binary form of any percentage never is, since its first byte is not one of them.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+public class DoubleRedisSerializer implements RedisSerializer<Double> {
+
+    private static final int SIZE = Double.BYTES;
+
+    /**
+     * Serializes a Double into 8 bytes.
+     *
+     * @param value the value to serialize.
+     * @return the serialized bytes, or null for a null value.
+     */
+    @Override
+    public byte[] serialize(Double value) {
+        if (value == null) {
+            return null;
+        }
+        long bits = Double.doubleToRawLongBits(value);
+        byte[] bytes = new byte[SIZE];
+        for (int i = SIZE - 1; i >= 0; i--) {
+            bytes[i] = (byte) bits;
+            bits >>>= 8;
+        }
+        return bytes;
+    }
+
+    /**
+     * Deserializes a Double from its 8-byte form, or from JSON text written by the previous serializer.
+     *
+     * @param bytes the serialized bytes.
+     * @return the value, or null for null or empty bytes.
+     */
+    @Override
+    public Double deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length != SIZE || isText(bytes)) {
+            return parseText(bytes);
+        }
+        long bits = 0;
+        for (int i = 0; i < SIZE; i++) {
+            bits = (bits << 8) | (bytes[i] & 0xff);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return Double.class;
+    }
+
+    private static boolean isText(byte[] bytes) {
+        for (byte b : bytes) {
+            if (!((b >= '0' && b <= '9') || b == '.' || b == '-' || b == '+' || b == 'e' || b == 'E')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Double parseText(byte[] bytes) {
+        String text = new String(bytes, StandardCharsets.US_ASCII);
+        try {
+            return Double.valueOf(text);
+        } catch (NumberFormatException e) {
+            throw new SerializationException("Cannot deserialize Double from: " + text, e);
+        }
+    }
+}
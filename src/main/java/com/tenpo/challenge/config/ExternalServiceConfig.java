@@ -0,0 +1,77 @@
+package com.tenpo.challenge.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Configuration of the client of the external service.
+ * This class defines the connection pool, the HTTP client and the WebClient used to fetch the dynamic
+ * percentage, with the connect and read timeouts of the external service settings.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Configuration
+@EnableConfigurationProperties(ExternalServiceProperties.class)
+public class ExternalServiceConfig {
+
+    /**
+     * Creates the connection pool of the external service client.
+     *
+     * @param properties the external service settings.
+     * @return a ConnectionProvider disposed on shutdown.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider externalServiceConnectionProvider(ExternalServiceProperties properties) {
+        ExternalServiceProperties.Pool pool = properties.getPool();
+        return ConnectionProvider.builder("external-service")
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictInBackground())
+                .build();
+    }
+
+    /**
+     * Creates the HTTP client of the external service on top of the connection pool.
+     * The read timeout is applied per request as the longest pause between reads of the response,
+     * so idle pooled connections are not closed by it.
+     *
+     * @param connectionProvider the connection pool of the external service client.
+     * @param properties the external service settings.
+     * @return an HttpClient for the external service.
+     */
+    @Bean
+    public HttpClient externalServiceHttpClient(ConnectionProvider connectionProvider,
+                                                ExternalServiceProperties properties) {
+        return HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout());
+    }
+
+    /**
+     * Creates the WebClient of the external service.
+     *
+     * @param builder the WebClient builder of the application.
+     * @param httpClient the HTTP client of the external service.
+     * @param properties the external service settings.
+     * @return a WebClient for the external service.
+     */
+    @Bean
+    public WebClient externalServiceWebClient(WebClient.Builder builder, HttpClient httpClient,
+                                              ExternalServiceProperties properties) {
+        return builder.clone()
+                .baseUrl(properties.getUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.tenpo.challenge.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the client of the external service that provides the dynamic percentage.
+ * Calls go through a bounded connection pool with connect and read timeouts. Failed calls are retried
+ * with jittered exponential backoff, repeated failures open a circuit breaker that fails calls right away
+ * for a while, and a slow call may be hedged with a second one once it takes longer than usual.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "external.service")
+public class ExternalServiceProperties {
+
+    private String url = "https://dummy.api.com/api/v1";
+    private String percentagePath = "/percentage";
+    /** Percentage returned without calling the external service; unset to call it. */
+    private Double mockPercentage;
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    /** Maximum time to wait for the response once the request is sent. */
+    private Duration readTimeout = Duration.ofSeconds(2);
+    private Pool pool = new Pool();
+    private Retry retry = new Retry();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Hedging hedging = new Hedging();
+
+    /**
+     * Connection pool of the client.
+     */
+    @Getter
+    @Setter
+    public static class Pool {
+
+        private int maxConnections = 50;
+        /** Maximum number of requests waiting for a free connection. */
+        private int pendingAcquireMaxCount = 100;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(1);
+        /** Idle time after which a connection is closed, below the idle timeout of the external service. */
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        /** How often idle and expired connections are evicted in the background. */
+        private Duration evictInBackground = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Retries of a failed call, with exponential backoff.
+     */
+    @Getter
+    @Setter
+    public static class Retry {
+
+        private int maxRetries = 3;
+        private Duration initialBackoff = Duration.ofMillis(100);
+        private Duration maxBackoff = Duration.ofSeconds(1);
+        /** Fraction of each backoff that is randomized, between 0 and 1. */
+        private double jitter = 0.5;
+    }
+
+    /**
+     * Circuit breaker that fails calls right away while the external service keeps failing.
+     */
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+
+        private boolean enabled = true;
+        /** Number of consecutive failed calls that opens the circuit. */
+        private int failureThreshold = 5;
+        /** How long the circuit stays open before a trial call is let through. */
+        private Duration openDuration = Duration.ofSeconds(10);
+    }
+
+    /**
+     * Hedged requests: a second call is sent when the first one is slower than the given percentile
+     * of the recent calls, and the first response wins.
+     */
+    @Getter
+    @Setter
+    public static class Hedging {
+
+        private boolean enabled = false;
+        private double percentile = 0.95;
+        /** Lowest delay before a hedged call, also used until enough calls have been measured. */
+        private Duration minDelay = Duration.ofMillis(50);
+        /** Number of recent call latencies the percentile is computed from. */
+        private int window = 100;
+    }
+}
@@ -0,0 +1,65 @@
+package com.tenpo.challenge.config;
+
+import com.tenpo.challenge.dto.CallLogPage;
+import com.tenpo.challenge.dto.CallLogPipelineStats;
+import com.tenpo.challenge.dto.CallLogRollup;
+import com.tenpo.challenge.dto.ErrorResponse;
+import com.tenpo.challenge.dto.LatencyPercentiles;
+import com.tenpo.challenge.model.CallLog;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Runtime hints for the native image of the application.
+ * Spring AOT already covers the configuration properties, the controllers and the R2DBC repositories,
+ * and Lettuce, R2DBC Postgres and Reactor Netty ship their own native-image metadata. These hints add
+ * what is reached by reflection or as a resource without Spring knowing about it: the Lombok accessors
+ * of the types serialized by Jackson outside of a controller, the fields of the call log entity, the
+ * cache classes Caffeine loads by name for the rate limit buckets and the Swagger UI static files.
+ * Bucket4j needs no hints, since its Lettuce proxy manager uses its own binary serialization.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfig.ApplicationRuntimeHints.class)
+public class NativeHintsConfig {
+
+    /**
+     * Registrar of the runtime hints of the application.
+     */
+    static class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+
+        /**
+         * Caffeine cache and node classes for a cache bounded in size with a variable expiry per entry,
+         * as built by the rate limiter services.
+         */
+        private static final String[] CAFFEINE_CLASSES = {
+                "com.github.benmanes.caffeine.cache.SSMSA",
+                "com.github.benmanes.caffeine.cache.PSWMS"
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                    CallLog.class, ErrorResponse.class, CallLogPage.class, CallLogPipelineStats.class,
+                    CallLogRollup.class, LatencyPercentiles.class);
+            hints.reflection().registerType(CallLog.class, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+            for (String caffeineClass : CAFFEINE_CLASSES) {
+                hints.reflection().registerType(TypeReference.of(caffeineClass),
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS);
+            }
+
+            hints.resources().registerPattern("META-INF/resources/webjars/swagger-ui/**");
+            hints.resources().registerPattern("META-INF/maven/org.webjars/swagger-ui/pom.properties");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.tenpo.challenge.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Caching settings of the dynamic percentage.
+ * The percentage is cached in Redis for the cache duration, and each instance serves an in-memory
+ * copy of it. When the Redis entry is missing, the refresh lock lets a single instance fetch the
+ * percentage from the provider while the others wait for it or keep serving their previous copy.
+ * In stale mode, a last-known-good copy outlives the cached percentage, so an expired or missing
+ * percentage is served stale right away while it is fetched in the background.
+ * Every fetched percentage is announced on a Redis channel, so the other instances update their copy
+ * right away instead of on their next refresh.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "percentage")
+public class PercentageProperties {
+
+    private Duration cacheDuration = Duration.ofMinutes(30);
+    private NearCache nearCache = new NearCache();
+    private Lock lock = new Lock();
+    private Stale stale = new Stale();
+    private Invalidation invalidation = new Invalidation();
+
+    /**
+     * In-memory copy of the percentage kept by each instance.
+     */
+    @Getter
+    @Setter
+    public static class NearCache {
+
+        /** Age after which the copy is refreshed in the background. */
+        private Duration refreshInterval = Duration.ofMinutes(1);
+        /** Minimum time between background refreshes triggered by reads of an outdated copy. */
+        private Duration refreshRetryInterval = Duration.ofSeconds(5);
+        /** Age after which the copy is no longer served and reads wait for a reload. */
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Redis lock that lets a single instance fetch the percentage on a cache miss.
+     */
+    @Getter
+    @Setter
+    public static class Lock {
+
+        private boolean enabled = true;
+        /** How long the lock is held at most, in case its holder dies before releasing it. */
+        private Duration ttl = Duration.ofSeconds(5);
+        /** How long the other instances wait for the holder to cache the percentage. */
+        private Duration wait = Duration.ofSeconds(2);
+        /** How often the other instances look for the cached percentage while waiting. */
+        private Duration pollInterval = Duration.ofMillis(100);
+    }
+
+    /**
+     * Stale-while-revalidate settings: how long an outdated percentage may still be served.
+     */
+    @Getter
+    @Setter
+    public static class Stale {
+
+        private boolean enabled = true;
+        /** Age after which a percentage is no longer served, even stale, and reads wait for the provider. */
+        private Duration maxStaleness = Duration.ofHours(24);
+    }
+
+    /**
+     * Propagation of percentage changes between instances through Redis pub/sub.
+     */
+    @Getter
+    @Setter
+    public static class Invalidation {
+
+        private boolean enabled = true;
+        /** Channel every fetched percentage is published on. */
+        private String channel = "dynamic-percentage:updates";
+        /**
+         * Also listens to the keyspace notifications of the percentage key, so writes made outside the
+         * application and expirations are noticed too. Needs notify-keyspace-events to include Kg$x.
+         */
+        private boolean keyspaceEvents = false;
+        /** Backoff between attempts to subscribe again after the subscription is lost. */
+        private Duration resubscribeMinBackoff = Duration.ofSeconds(1);
+        private Duration resubscribeMaxBackoff = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,170 @@
+package com.tenpo.challenge.config;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConfigurationBuilder;
+import io.github.bucket4j.Refill;
+import io.github.bucket4j.local.LocalBucketBuilder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compiled rate limit policy.
+ * Holds the bucket configuration of the paths matching a pattern, and the one applied locally
+ * while the shared buckets are unavailable. The id of the policy is derived from its pattern and limits,
+ * so it is the same in every instance and changes when the limits change.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+public final class RateLimitPolicy {
+
+    private final String path;
+    private final String id;
+    private final boolean exempt;
+    private final BucketConfiguration configuration;
+    private final BucketConfiguration fallbackConfiguration;
+    private final long capacity;
+    private final Duration longestRefillPeriod;
+
+    private RateLimitPolicy(String path, String id, boolean exempt,
+                            BucketConfiguration configuration, BucketConfiguration fallbackConfiguration) {
+        this.path = path;
+        this.id = id;
+        this.exempt = exempt;
+        this.configuration = configuration;
+        this.fallbackConfiguration = fallbackConfiguration;
+        this.capacity = configuration == null ? 0 : Arrays.stream(configuration.getBandwidths())
+                .mapToLong(Bandwidth::getCapacity).min().orElse(0);
+        this.longestRefillPeriod = Duration.ofNanos(Stream.of(configuration, fallbackConfiguration)
+                .filter(Objects::nonNull)
+                .flatMap(bucketConfiguration -> Arrays.stream(bucketConfiguration.getBandwidths()))
+                .mapToLong(Bandwidth::getRefillPeriodNanos)
+                .max().orElse(0));
+    }
+
+    /**
+     * Compiles a policy of the table.
+     * The fallback limits default to the limits of the policy.
+     *
+     * @param policy the policy as configured.
+     * @return the compiled policy.
+     * @throws IllegalArgumentException if the policy has no path, or neither limits nor exemption.
+     */
+    public static RateLimitPolicy of(RateLimitProperties.Policy policy) {
+        if (policy.getPath() == null || policy.getPath().isBlank()) {
+            throw new IllegalArgumentException("Rate limit policy without path");
+        }
+        if (policy.isExempt()) {
+            return new RateLimitPolicy(policy.getPath(), policy.getPath(), true, null, null);
+        }
+        if (policy.getLimits().isEmpty()) {
+            throw new IllegalArgumentException("Rate limit policy without limits: " + policy.getPath());
+        }
+        List<RateLimitProperties.Limit> fallbackLimits = policy.getFallbackLimits().isEmpty()
+                ? policy.getLimits() : policy.getFallbackLimits();
+        String id = policy.getPath() + "#" + Integer.toHexString(describe(policy.getLimits()).hashCode());
+        return new RateLimitPolicy(policy.getPath(), id, false,
+                toConfiguration(policy.getLimits()), toConfiguration(fallbackLimits));
+    }
+
+    private static BucketConfiguration toConfiguration(List<RateLimitProperties.Limit> limits) {
+        ConfigurationBuilder builder = BucketConfiguration.builder();
+        for (RateLimitProperties.Limit limit : limits) {
+            Refill refill = limit.getRefill() == RateLimitProperties.RefillType.INTERVALLY
+                    ? Refill.intervally(limit.getCapacity(), limit.getPeriod())
+                    : Refill.greedy(limit.getCapacity(), limit.getPeriod());
+            builder.addLimit(Bandwidth.classic(limit.getCapacity(), refill));
+        }
+        return builder.build();
+    }
+
+    private static Bucket localBucket(BucketConfiguration configuration) {
+        LocalBucketBuilder builder = Bucket.builder();
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            builder.addLimit(bandwidth);
+        }
+        return builder.build();
+    }
+
+    private static String describe(List<RateLimitProperties.Limit> limits) {
+        return limits.stream()
+                .map(limit -> limit.getCapacity() + "/" + limit.getPeriod() + "/" + limit.getRefill())
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Returns the key of the bucket of a client under this policy.
+     *
+     * @param clientKey the key resolved from the request.
+     * @return the bucket key.
+     */
+    public String bucketKey(String clientKey) {
+        return id + ":" + clientKey;
+    }
+
+    /**
+     * Creates an in-memory bucket with the limits of this policy.
+     *
+     * @return a new local bucket.
+     */
+    public Bucket newBucket() {
+        return localBucket(configuration);
+    }
+
+    /**
+     * Creates an in-memory bucket with the fallback limits of this policy.
+     *
+     * @return a new local fallback bucket.
+     */
+    public Bucket newFallbackBucket() {
+        return localBucket(fallbackConfiguration);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean isExempt() {
+        return exempt;
+    }
+
+    public BucketConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public BucketConfiguration getFallbackConfiguration() {
+        return fallbackConfiguration;
+    }
+
+    /**
+     * Returns the capacity of the most restrictive limit, reported to clients as their request quota.
+     *
+     * @return the smallest capacity of the limits, or 0 if the policy is exempt.
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the longest refill period of the limits and fallback limits of this policy, which is how long
+     * an unused bucket of this policy takes to be full again. A bucket discarded earlier would come back
+     * full and loosen the limit.
+     *
+     * @return the longest refill period, or zero if the policy is exempt.
+     */
+    public Duration getLongestRefillPeriod() {
+        return longestRefillPeriod;
+    }
+}
@@ -0,0 +1,112 @@
+package com.tenpo.challenge.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matcher of request paths against the rate limit policy table.
+ * The path patterns of all the policies are compiled into a single trie of path segments,
+ * so matching a request walks its path once and its cost does not depend on the number of policies.
+ * Literal segments take precedence over {@code *}, which takes precedence over {@code **}.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+public final class RateLimitPolicyMatcher {
+
+    private static final String ANY_SEGMENT = "*";
+    private static final String ANY_SEGMENTS = "**";
+
+    private final Node root = new Node();
+    private final RateLimitPolicy defaultPolicy;
+
+    /**
+     * Compiles the policies into a matcher.
+     * When two policies have the same pattern, the last one wins.
+     *
+     * @param policies the policies of the table.
+     * @param defaultPolicy the policy of the paths not matched by any other policy.
+     * @throws IllegalArgumentException if a pattern has {@code **} before its last segment.
+     */
+    public RateLimitPolicyMatcher(List<RateLimitPolicy> policies, RateLimitPolicy defaultPolicy) {
+        this.defaultPolicy = defaultPolicy;
+        for (RateLimitPolicy policy : policies) {
+            add(policy);
+        }
+    }
+
+    private void add(RateLimitPolicy policy) {
+        String[] segments = segments(policy.getPath());
+        Node node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (ANY_SEGMENTS.equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' must be the last segment: " + policy.getPath());
+                }
+                node.anySegments = policy;
+                return;
+            }
+            node = ANY_SEGMENT.equals(segment)
+                    ? (node.anySegment != null ? node.anySegment : (node.anySegment = new Node()))
+                    : node.children.computeIfAbsent(segment, ignored -> new Node());
+        }
+        node.policy = policy;
+    }
+
+    /**
+     * Returns the policy of a request path.
+     *
+     * @param path the path of the request.
+     * @return the most specific matching policy, or the default policy.
+     */
+    public RateLimitPolicy match(String path) {
+        RateLimitPolicy policy = match(root, segments(path), 0);
+        return policy != null ? policy : defaultPolicy;
+    }
+
+    private static RateLimitPolicy match(Node node, String[] segments, int index) {
+        if (index == segments.length) {
+            return node.policy != null ? node.policy : node.anySegments;
+        }
+        Node child = node.children.get(segments[index]);
+        if (child != null) {
+            RateLimitPolicy policy = match(child, segments, index + 1);
+            if (policy != null) {
+                return policy;
+            }
+        }
+        if (node.anySegment != null) {
+            RateLimitPolicy policy = match(node.anySegment, segments, index + 1);
+            if (policy != null) {
+                return policy;
+            }
+        }
+        return node.anySegments;
+    }
+
+    private static String[] segments(String path) {
+        int start = 0;
+        while (start < path.length() && path.charAt(start) == '/') {
+            start++;
+        }
+        int end = path.length();
+        while (end > start && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        return start == end ? new String[0] : path.substring(start, end).split("/");
+    }
+
+    /**
+     * Node of the trie: one path segment.
+     */
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+        private Node anySegment;
+        private RateLimitPolicy policy;
+        private RateLimitPolicy anySegments;
+    }
+}
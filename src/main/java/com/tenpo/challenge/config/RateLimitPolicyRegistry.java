@@ -0,0 +1,118 @@
+package com.tenpo.challenge.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registry of the rate limit policy table.
+ * The table is compiled into a RateLimitPolicyMatcher from the application configuration at startup.
+ * If rate-limit.policy-file is set, the policies of that file replace the configured ones, and the file
+ * is reloaded whenever it changes, without a restart. A file that cannot be read or compiled is
+ * ignored and the current table is kept.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Component
+public class RateLimitPolicyRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitPolicyRegistry.class);
+
+    private final RateLimitPolicy defaultPolicy;
+    private final Path policyFile;
+    private volatile RateLimitPolicyMatcher matcher;
+    private long policyFileModified;
+
+    /**
+     * Constructs a new RateLimitPolicyRegistry from the configured policies.
+     *
+     * @param properties the rate limit policy table of the application.
+     * @param fallbackCapacity the number of requests per period allowed by the default policy
+     *                         while the shared buckets are unavailable.
+     */
+    public RateLimitPolicyRegistry(RateLimitProperties properties,
+                                   @Value("${rate-limit.redis.fallback-capacity:3}") long fallbackCapacity) {
+        RateLimitProperties.Policy defaults = new RateLimitProperties.Policy();
+        defaults.setPath("/**");
+        defaults.setLimits(List.of(new RateLimitProperties.Limit(properties.getCapacity(), properties.getPeriod(),
+                RateLimitProperties.RefillType.GREEDY)));
+        defaults.setFallbackLimits(List.of(new RateLimitProperties.Limit(fallbackCapacity, properties.getPeriod(),
+                RateLimitProperties.RefillType.GREEDY)));
+        this.defaultPolicy = RateLimitPolicy.of(defaults);
+        this.policyFile = properties.getPolicyFile() == null || properties.getPolicyFile().isBlank()
+                ? null : Path.of(properties.getPolicyFile());
+        this.matcher = compile(properties.getPolicies());
+        reloadIfChanged();
+    }
+
+    /**
+     * Returns the policy of a request path.
+     *
+     * @param path the path of the request.
+     * @return the matching policy, or the default policy.
+     */
+    public RateLimitPolicy match(String path) {
+        return matcher.match(path);
+    }
+
+    /**
+     * Reloads the policies from the policy file if it has changed since it was last read.
+     *
+     * @return true if a new table was loaded.
+     */
+    public synchronized boolean reloadIfChanged() {
+        if (policyFile == null || !Files.isRegularFile(policyFile)) {
+            return false;
+        }
+        try {
+            long modified = Files.getLastModifiedTime(policyFile).toMillis();
+            if (modified == policyFileModified) {
+                return false;
+            }
+            policyFileModified = modified;
+            List<RateLimitProperties.Policy> policies = readPolicies(policyFile);
+            matcher = compile(policies);
+            logger.info("Loaded {} rate limit policies from {}", policies.size(), policyFile);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not load rate limit policies from {}, keeping the current ones: {}",
+                    policyFile, e.getMessage());
+            return false;
+        }
+    }
+
+    private RateLimitPolicyMatcher compile(List<RateLimitProperties.Policy> policies) {
+        List<RateLimitPolicy> compiled = new ArrayList<>(policies.size());
+        for (RateLimitProperties.Policy policy : policies) {
+            compiled.add(RateLimitPolicy.of(policy));
+        }
+        return new RateLimitPolicyMatcher(compiled, defaultPolicy);
+    }
+
+    private static List<RateLimitProperties.Policy> readPolicies(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        PropertySourceLoader loader = name.endsWith(".yml") || name.endsWith(".yaml")
+                ? new YamlPropertySourceLoader() : new PropertiesPropertySourceLoader();
+        List<PropertySource<?>> sources = loader.load(name, new FileSystemResource(file));
+        return new Binder(ConfigurationPropertySources.from(sources))
+                .bind("rate-limit.policies", Bindable.listOf(RateLimitProperties.Policy.class))
+                .orElse(List.of());
+    }
+}
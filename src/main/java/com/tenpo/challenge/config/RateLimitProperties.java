@@ -0,0 +1,75 @@
+package com.tenpo.challenge.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limit policy table of the application.
+ * Each policy maps a path pattern to one or more limits, or exempts the matching paths from
+ * rate limiting. Paths not matched by any policy get the default limit of rate-limit.capacity
+ * requests per rate-limit.period. Path patterns are made of literal segments, {@code *} for exactly
+ * one segment, and a trailing {@code **} for any number of segments.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private long capacity = 3;
+    private Duration period = Duration.ofMinutes(1);
+    private List<Policy> policies = new ArrayList<>();
+    private String policyFile;
+
+    /**
+     * Rate limit policy of the paths matching a pattern.
+     */
+    @Getter
+    @Setter
+    public static class Policy {
+
+        private String path;
+        private boolean exempt;
+        private List<Limit> limits = new ArrayList<>();
+        private List<Limit> fallbackLimits = new ArrayList<>();
+    }
+
+    /**
+     * Limit of a policy: capacity tokens refilled every period.
+     */
+    @Getter
+    @Setter
+    public static class Limit {
+
+        private long capacity;
+        private Duration period;
+        private RefillType refill = RefillType.GREEDY;
+
+        public Limit() {
+        }
+
+        public Limit(long capacity, Duration period, RefillType refill) {
+            this.capacity = capacity;
+            this.period = period;
+            this.refill = refill;
+        }
+    }
+
+    /**
+     * How the tokens of a limit are refilled.
+     */
+    public enum RefillType {
+        /** Tokens are refilled gradually during the period. */
+        GREEDY,
+        /** All the tokens are refilled at once at the end of the period. */
+        INTERVALLY
+    }
+}
@@ -1,36 +1,46 @@
 package com.tenpo.challenge.config;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
+import com.tenpo.challenge.filter.RateLimitKeyResolver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.time.Duration;
+import java.util.List;
 
 /**
  * Rate limiting configuration for the application.
- * This class defines a bean for a Bucket from Bucket4j that limits
- * the number of allowed requests per minute.
+ * This class enables the rate limit policy table, which maps paths to their limits
+ * (3 requests per minute by default), and defines the resolver that decides
+ * which bucket a request takes its token from.
  *
  * @author bbeltran
  * @version 1.0
  * @since 2023-10-05
  */
 @Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class RateLimitingConfig {
 
     /**
-     * Creates a Bucket configured to allow 3 requests per minute.
+     * Creates the resolver of the rate limit key, unless another resolver is declared.
      *
-     * @return a Bucket configured with rate limits.
+     * @param key the kind of key: global, ip or api-key.
+     * @param apiKeyHeader the name of the header carrying the API key.
+     * @param apiKeys the API keys that get a bucket of their own; other requests are limited by IP.
+     * @return the RateLimitKeyResolver used by the rate limiting filter.
      */
     @Bean
-    public Bucket bucket() {
-        Refill refill = Refill.greedy(3, Duration.ofMinutes(1)); // 3 peticiones por minuto
-        Bandwidth limit = Bandwidth.classic(3, refill);
-        return Bucket.builder()
-                .addLimit(limit)
-                .build();
+    @ConditionalOnMissingBean
+    public RateLimitKeyResolver rateLimitKeyResolver(@Value("${rate-limit.key:global}") String key,
+                                                     @Value("${rate-limit.api-key-header:X-API-Key}") String apiKeyHeader,
+                                                     @Value("${rate-limit.api-keys:}") List<String> apiKeys) {
+        return switch (key) {
+            case "global" -> RateLimitKeyResolver.global();
+            case "ip" -> RateLimitKeyResolver.ip();
+            case "api-key" -> RateLimitKeyResolver.apiKey(apiKeyHeader, apiKeys);
+            default -> throw new IllegalArgumentException("Unknown rate-limit.key: " + key);
+        };
     }
-}
\ No newline at end of file
+}
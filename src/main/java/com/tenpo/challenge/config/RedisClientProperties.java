@@ -0,0 +1,50 @@
+package com.tenpo.challenge.config;
+
+import io.lettuce.core.ClientOptions;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the Lettuce client behind the Redis templates of the application.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "redis.client")
+public class RedisClientProperties {
+
+    /** Maximum time a command waits for its reply before it fails. */
+    private Duration commandTimeout = Duration.ofMillis(500);
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    private boolean autoReconnect = true;
+    /** What happens to commands issued while disconnected: queued until reconnected, or rejected. */
+    private ClientOptions.DisconnectedBehavior disconnectedBehavior = ClientOptions.DisconnectedBehavior.DEFAULT;
+    /** Whether the shared connection is checked with a PING each time it is handed out. */
+    private boolean validateConnection = false;
+    /**
+     * Whether the Redis server tracks the percentage key for this instance (RESP3 client tracking), so the
+     * in-memory copy is reloaded on any change of the key without keyspace notifications.
+     */
+    private boolean clientSideCaching = false;
+    private CommandLatency commandLatency = new CommandLatency();
+
+    /**
+     * Latency histograms of the Redis commands.
+     */
+    @Getter
+    @Setter
+    public static class CommandLatency {
+
+        private boolean enabled = true;
+        /** Maximum number of command types tracked separately. */
+        private int maxCommands = 64;
+        /** Highest latency in microseconds that can be recorded; longer ones are clamped. */
+        private long highestTrackableMicros = 10_000_000;
+    }
+}
@@ -0,0 +1,58 @@
+package com.tenpo.challenge.config;
+
+import com.tenpo.challenge.dto.LatencyPercentiles;
+import com.tenpo.challenge.service.LatencyStatsService;
+import com.tenpo.challenge.service.impl.LatencyStatsServiceImpl;
+import io.lettuce.core.metrics.CommandLatencyRecorder;
+import io.lettuce.core.protocol.ProtocolKeyword;
+import reactor.core.publisher.Flux;
+
+import java.net.SocketAddress;
+
+/**
+ * Recorder of the latency of the Redis commands sent by the Lettuce client.
+ * The completion latency of each command is recorded per command type into the same
+ * HdrHistogram-based statistics used for the endpoints, so recording stays wait-free for the I/O threads.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+public class RedisCommandLatencyRecorder implements CommandLatencyRecorder {
+
+    private final LatencyStatsService stats;
+
+    /**
+     * Constructs a new RedisCommandLatencyRecorder.
+     *
+     * @param maxCommands the maximum number of command types tracked separately.
+     * @param highestTrackableMicros the highest latency in microseconds that can be recorded.
+     */
+    public RedisCommandLatencyRecorder(int maxCommands, long highestTrackableMicros) {
+        this.stats = new LatencyStatsServiceImpl(maxCommands, highestTrackableMicros);
+    }
+
+    /**
+     * Records the latency of a completed command.
+     *
+     * @param local the local address of the connection.
+     * @param remote the address of the Redis server.
+     * @param commandType the type of the command.
+     * @param firstResponseLatency the time until the first reply byte, in nanoseconds.
+     * @param completionLatency the time until the command completed, in nanoseconds.
+     */
+    @Override
+    public void recordCommandLatency(SocketAddress local, SocketAddress remote, ProtocolKeyword commandType,
+                                     long firstResponseLatency, long completionLatency) {
+        stats.record(commandType.toString(), completionLatency / 1000);
+    }
+
+    /**
+     * Retrieves the latency percentiles of each command type, in microseconds.
+     *
+     * @return a Flux<LatencyPercentiles> with one element per command type.
+     */
+    public Flux<LatencyPercentiles> getLatencyStats() {
+        return stats.getLatencyStats();
+    }
+}
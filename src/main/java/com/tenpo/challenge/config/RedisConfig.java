@@ -1,11 +1,22 @@
 package com.tenpo.challenge.config;
 
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientOptionsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
-import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -16,13 +27,17 @@ import reactor.core.publisher.Mono;
 /**
  * Redis configuration for the application.
  * This class defines a bean for a ReactiveRedisTemplate that uses
- * specific serializers for keys and values.
+ * specific serializers for keys and values, and the Redis client used
+ * by the distributed rate limiter. It also enables the caching settings of the dynamic percentage,
+ * and tunes the Lettuce client behind the templates: command and connect timeouts, reconnection,
+ * connection validation and a latency histogram of the Redis commands.
  *
  * @author bbeltran
  * @version 1.0
  * @since 2023-10-05
  */
 @Configuration
+@EnableConfigurationProperties({PercentageProperties.class, RedisClientProperties.class})
 public class RedisConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(RedisConfig.class);
@@ -34,6 +49,7 @@ public class RedisConfig {
 
     /**
      * Creates a ReactiveRedisTemplate configured with serializers for keys and values.
+     * Values are stored in their 8-byte binary form instead of JSON text.
      *
      * @param factory the reactive Redis connection factory.
      * @return a configured ReactiveRedisTemplate.
@@ -42,12 +58,105 @@ public class RedisConfig {
     public ReactiveRedisTemplate<String, Double> reactiveRedisTemplate(
             ReactiveRedisConnectionFactory factory) {
         StringRedisSerializer keySerializer = new StringRedisSerializer();
-        Jackson2JsonRedisSerializer<Double> valueSerializer =
-                new Jackson2JsonRedisSerializer<>(Double.class);
+        DoubleRedisSerializer valueSerializer = new DoubleRedisSerializer();
         RedisSerializationContext.RedisSerializationContextBuilder<String, Double> builder =
                 RedisSerializationContext.newSerializationContext(keySerializer);
         RedisSerializationContext<String, Double> context =
                 builder.value(valueSerializer).build();
         return new ReactiveRedisTemplate<>(factory, context);
     }
+
+    /**
+     * Creates the Redis client used to share the rate limit bucket between instances.
+     * Commands are rejected while disconnected instead of being queued, so the rate limiter
+     * can switch to its local fallback right away.
+     *
+     * @return a RedisClient for the distributed rate limiter.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "rate-limit.mode", havingValue = "redis")
+    public RedisClient rateLimitRedisClient() {
+        RedisClient client = RedisClient.create();
+        client.setOptions(ClientOptions.builder()
+                .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                .build());
+        return client;
+    }
+
+    /**
+     * Applies the command timeout of the Redis client settings to the connection factory.
+     *
+     * @param properties the Redis client settings.
+     * @return a customizer of the Lettuce client configuration.
+     */
+    @Bean
+    public LettuceClientConfigurationBuilderCustomizer lettuceClientConfigurationCustomizer(
+            RedisClientProperties properties) {
+        return builder -> builder.commandTimeout(properties.getCommandTimeout());
+    }
+
+    /**
+     * Applies the connect timeout and the reconnection behavior of the Redis client settings.
+     * Commands time out on the client even when they are queued while disconnected.
+     *
+     * @param properties the Redis client settings.
+     * @return a customizer of the Lettuce client options.
+     */
+    @Bean
+    public LettuceClientOptionsBuilderCustomizer lettuceClientOptionsCustomizer(RedisClientProperties properties) {
+        return builder -> builder
+                .autoReconnect(properties.isAutoReconnect())
+                .disconnectedBehavior(properties.getDisconnectedBehavior())
+                .socketOptions(SocketOptions.builder().connectTimeout(properties.getConnectTimeout()).build())
+                .timeoutOptions(TimeoutOptions.enabled(properties.getCommandTimeout()));
+    }
+
+    /**
+     * Creates the recorder of the latency of the Redis commands.
+     *
+     * @param properties the Redis client settings.
+     * @return a RedisCommandLatencyRecorder.
+     */
+    @Bean
+    public RedisCommandLatencyRecorder redisCommandLatencyRecorder(RedisClientProperties properties) {
+        RedisClientProperties.CommandLatency latency = properties.getCommandLatency();
+        return new RedisCommandLatencyRecorder(latency.getMaxCommands(), latency.getHighestTrackableMicros());
+    }
+
+    /**
+     * Installs the command latency recorder in the resources of the Lettuce client, if enabled.
+     *
+     * @param properties the Redis client settings.
+     * @param recorder the recorder of the latency of the Redis commands.
+     * @return a customizer of the Lettuce client resources.
+     */
+    @Bean
+    public ClientResourcesBuilderCustomizer lettuceClientResourcesCustomizer(RedisClientProperties properties,
+                                                                          RedisCommandLatencyRecorder recorder) {
+        return builder -> {
+            if (properties.getCommandLatency().isEnabled()) {
+                builder.commandLatencyRecorder(recorder);
+            }
+        };
+    }
+
+    /**
+     * Applies the connection validation setting to the connection factory, which has no customizer for it.
+     *
+     * @param environment the environment the setting is read from.
+     * @return a post processor of the Lettuce connection factory.
+     */
+    @Bean
+    public static BeanPostProcessor lettuceConnectionValidationPostProcessor(Environment environment) {
+        boolean validateConnection = environment.getProperty("redis.client.validate-connection", Boolean.class, false);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof LettuceConnectionFactory factory) {
+                    factory.setValidateConnection(validateConnection);
+                }
+                return bean;
+            }
+        };
+    }
 }
@@ -0,0 +1,63 @@
+package com.tenpo.challenge.config;
+
+import com.tenpo.challenge.controller.CalculationWebSocketHandler;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.reactive.socket.server.WebSocketService;
+import org.springframework.web.reactive.socket.server.support.HandshakeWebSocketService;
+import org.springframework.web.reactive.socket.server.upgrade.ReactorNettyRequestUpgradeStrategy;
+import reactor.netty.http.server.WebsocketServerSpec;
+
+import java.util.Map;
+
+/**
+ * WebSocket configuration for the application.
+ * This class maps the streaming calculation channel and caps the size of the messages the server
+ * accepts, which also bounds the fragmented messages joined back into one.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Configuration
+@EnableConfigurationProperties(CalculationStreamProperties.class)
+public class WebSocketConfig implements WebFluxConfigurer {
+
+    private final CalculationStreamProperties properties;
+
+    /**
+     * Constructs a new WebSocketConfig with the specified CalculationStreamProperties.
+     *
+     * @param properties the settings of the streaming calculation channel.
+     */
+    public WebSocketConfig(CalculationStreamProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Maps the streaming calculation channel ahead of the annotated controllers.
+     *
+     * @param handler the handler of the streaming calculation channel.
+     * @return the HandlerMapping of the WebSocket endpoints.
+     */
+    @Bean
+    public HandlerMapping webSocketHandlerMapping(CalculationWebSocketHandler handler) {
+        return new SimpleUrlHandlerMapping(Map.of(CalculationWebSocketHandler.PATH, handler), Ordered.HIGHEST_PRECEDENCE);
+    }
+
+    /**
+     * Creates the service that upgrades the requests of the WebSocket endpoints.
+     *
+     * @return the WebSocketService used by the WebSocket handler adapter.
+     */
+    @Override
+    public WebSocketService getWebSocketService() {
+        return new HandshakeWebSocketService(new ReactorNettyRequestUpgradeStrategy(() -> WebsocketServerSpec.builder()
+                .maxFramePayloadLength(properties.getMaxMessageBytes())));
+    }
+}
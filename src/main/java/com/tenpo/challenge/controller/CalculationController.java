@@ -1,16 +1,40 @@
 package com.tenpo.challenge.controller;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenpo.challenge.dto.CalculationBatch;
+import com.tenpo.challenge.exception.InvalidBatchException;
+import com.tenpo.challenge.exception.RateLimitExceededException;
+import com.tenpo.challenge.filter.CallLoggingFilter;
+import com.tenpo.challenge.filter.RateLimitQuota;
 import com.tenpo.challenge.service.CalculationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
 /**
  * Calculation controller for the application.
  * This class handles HTTP requests for calculations.
+ * Batch calculations read all the pairs of the request into primitive arrays, are charged one rate limit
+ * token per pair and produce a single call log with the item count. The results are written back in the
+ * order of the pairs, a bounded number per buffer, as a JSON array or as NDJSON like the request.
  *
  * @author bbeltran
  * @version 1.0
@@ -20,10 +44,29 @@ import reactor.core.publisher.Mono;
 @RequestMapping("/calculation")
 public class CalculationController {
 
+    private static final int RESULTS_PER_BUFFER = 1024;
+    private static final CalculationBatch EMPTY_BATCH = new CalculationBatch(new double[0], new double[0], 0);
+
     private final CalculationService calculationService;
+    private final JsonFactory jsonFactory;
+    private final int maxItems;
+    private final int maxBytes;
 
-    public CalculationController(CalculationService calculationService) {
+    /**
+     * Constructs a new CalculationController.
+     *
+     * @param calculationService the service used to perform the calculations.
+     * @param objectMapper the application mapper whose factory parses the batches.
+     * @param maxItems the maximum number of pairs of a batch.
+     * @param maxBytes the maximum size of the body of a batch.
+     */
+    public CalculationController(CalculationService calculationService, ObjectMapper objectMapper,
+                                 @Value("${calculation.batch.max-items:10000}") int maxItems,
+                                 @Value("${calculation.batch.max-bytes:1048576}") int maxBytes) {
         this.calculationService = calculationService;
+        this.jsonFactory = objectMapper.getFactory();
+        this.maxItems = maxItems;
+        this.maxBytes = maxBytes;
     }
 
     /**
@@ -39,4 +82,94 @@ public class CalculationController {
                 .map(ResponseEntity::ok)
                 .onErrorResume(Mono::error);
     }
+
+    /**
+     * Handles POST requests to perform a batch of calculations.
+     *
+     * @param body the pairs of numbers, as a JSON array or as NDJSON.
+     * @param exchange the server web exchange.
+     * @return a Mono containing the results in the order of the pairs.
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<DataBuffer>>> calculateBatch(@RequestBody(required = false) Flux<DataBuffer> body,
+                                                                 ServerWebExchange exchange) {
+        boolean ndjson = MediaType.APPLICATION_NDJSON.isCompatibleWith(exchange.getRequest().getHeaders().getContentType());
+        DataBufferFactory bufferFactory = exchange.getResponse().bufferFactory();
+        return DataBufferUtils.join(body == null ? Flux.empty() : body, maxBytes)
+                .onErrorMap(DataBufferLimitException.class,
+                        e -> new InvalidBatchException("Batch exceeds " + maxBytes + " bytes"))
+                .map(this::readBatch)
+                .defaultIfEmpty(EMPTY_BATCH)
+                .flatMap(batch -> {
+                    exchange.getAttributes().put(CallLoggingFilter.ITEM_COUNT_ATTRIBUTE, batch.size());
+                    return chargeItems(exchange, batch.size()).then(Mono.defer(() -> calculationService.calculate(batch)));
+                })
+                .map(results -> ResponseEntity.ok()
+                        .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                        .body(encode(results, ndjson, bufferFactory)));
+    }
+
+    /**
+     * Reads the pairs of a batch from the body of the request.
+     *
+     * @param buffer the body of the request, released once read.
+     * @return the batch.
+     */
+    private CalculationBatch readBatch(DataBuffer buffer) {
+        try (JsonParser parser = jsonFactory.createParser(buffer.asInputStream(true))) {
+            return CalculationBatch.read(parser, maxItems);
+        } catch (IOException e) {
+            throw new InvalidBatchException("Invalid batch: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Takes the rate limit tokens of the items of a batch beyond the one taken for the request.
+     *
+     * @param exchange the server web exchange.
+     * @param items the number of items of the batch.
+     * @return a Mono<Void> that fails with RateLimitExceededException if the tokens are not available.
+     */
+    private static Mono<Void> chargeItems(ServerWebExchange exchange, int items) {
+        RateLimitQuota quota = RateLimitQuota.of(exchange);
+        if (quota == null) {
+            return Mono.empty();
+        }
+        return quota.tryConsume(items - 1L)
+                .flatMap(consumed -> consumed ? Mono.<Void>empty()
+                        : Mono.error(new RateLimitExceededException("Rate limit exceeded for a batch of " + items + " items")));
+    }
+
+    /**
+     * Encodes the results of a batch as a JSON array or as NDJSON, a bounded number of results per buffer.
+     *
+     * @param results the results of the batch.
+     * @param ndjson whether to write one result per line instead of an array.
+     * @param bufferFactory the factory of the response buffers.
+     * @return a Flux of the encoded buffers.
+     */
+    private static Flux<DataBuffer> encode(double[] results, boolean ndjson, DataBufferFactory bufferFactory) {
+        int buffers = Math.max(1, (results.length + RESULTS_PER_BUFFER - 1) / RESULTS_PER_BUFFER);
+        return Flux.range(0, buffers).map(index -> {
+            int from = index * RESULTS_PER_BUFFER;
+            int to = Math.min(results.length, from + RESULTS_PER_BUFFER);
+            StringBuilder builder = new StringBuilder((to - from) * 24 + 2);
+            if (!ndjson && index == 0) {
+                builder.append('[');
+            }
+            for (int i = from; i < to; i++) {
+                if (!ndjson && i > 0) {
+                    builder.append(',');
+                }
+                CalculationBatch.appendResult(builder, results[i]);
+                if (ndjson) {
+                    builder.append('\n');
+                }
+            }
+            if (!ndjson && index == buffers - 1) {
+                builder.append(']');
+            }
+            return bufferFactory.wrap(builder.toString().getBytes(StandardCharsets.US_ASCII));
+        });
+    }
 }
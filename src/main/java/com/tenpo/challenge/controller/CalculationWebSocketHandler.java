@@ -0,0 +1,253 @@
+package com.tenpo.challenge.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tenpo.challenge.config.CalculationStreamProperties;
+import com.tenpo.challenge.config.RateLimitPolicy;
+import com.tenpo.challenge.config.RateLimitProperties;
+import com.tenpo.challenge.dto.CalculationBatch;
+import com.tenpo.challenge.dto.ErrorResponse;
+import com.tenpo.challenge.exception.InvalidBatchException;
+import com.tenpo.challenge.model.CallLog;
+import com.tenpo.challenge.service.CalculationService;
+import com.tenpo.challenge.service.CallLogService;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WebSocket handler of the streaming calculation channel.
+ * Clients open a connection to {@link #PATH} and send text messages with one pair of numbers, or with
+ * several pairs as a JSON array or one per line; each message gets one message back with its results,
+ * in the order the messages were sent, as a JSON array for an array and one result per line otherwise.
+ * Invalid and rejected messages get an error response instead, and the connection stays open.
+ * <p>
+ * The connection request goes through the web filters once, so it is rate limited like any other request,
+ * and the messages then take one token per pair from a bucket of the connection. A connection only reads
+ * a bounded number of messages ahead of the results it has written, so a client that sends faster than
+ * it reads is slowed down by the flow control of the connection instead of filling the server memory.
+ * The whole connection produces a single call log with the number of pairs calculated, once it closes.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Component
+public class CalculationWebSocketHandler implements WebSocketHandler {
+
+    public static final String PATH = "/calculation/stream";
+
+    private final CalculationService calculationService;
+    private final CallLogService callLogService;
+    private final JsonFactory jsonFactory;
+    private final ObjectWriter errorWriter;
+    private final RateLimitPolicy connectionPolicy;
+    private final int maxItemsPerMessage;
+    private final int maxInFlight;
+
+    /**
+     * Constructs a new CalculationWebSocketHandler.
+     *
+     * @param calculationService the service used to perform the calculations.
+     * @param callLogService the service used to log the connections.
+     * @param objectMapper the application mapper whose factory parses the messages.
+     * @param properties the settings of the streaming calculation channel.
+     */
+    public CalculationWebSocketHandler(CalculationService calculationService, CallLogService callLogService,
+                                       ObjectMapper objectMapper, CalculationStreamProperties properties) {
+        this.calculationService = calculationService;
+        this.callLogService = callLogService;
+        this.jsonFactory = objectMapper.getFactory();
+        this.errorWriter = objectMapper.writerFor(ErrorResponse.class);
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setPath(PATH);
+        policy.setLimits(properties.getLimits());
+        this.connectionPolicy = RateLimitPolicy.of(policy);
+        this.maxItemsPerMessage = properties.getMaxItemsPerMessage();
+        this.maxInFlight = properties.getMaxInFlight();
+    }
+
+    /**
+     * Handles a connection, answering every message with its results until the client closes it.
+     *
+     * @param session the WebSocket session of the connection.
+     * @return a Mono<Void> indicating the end of the connection.
+     */
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        long startNanos = System.nanoTime();
+        Bucket bucket = connectionPolicy.newBucket();
+        SessionStats stats = new SessionStats();
+        Flux<WebSocketMessage> replies = session.receive()
+                .map(this::read)
+                .flatMapSequential(message -> reply(message, bucket, stats), maxInFlight, 1)
+                .map(session::textMessage);
+        return session.send(replies)
+                .doOnError(stats::fail)
+                .doFinally(signal -> logSession(session, stats, startNanos));
+    }
+
+    /**
+     * Reads the pairs of a message. The message is read right away, since its payload is released
+     * once it has been handed over.
+     *
+     * @param message the message sent by the client.
+     * @return the pairs of the message, or the reason why they could not be read.
+     */
+    private Message read(WebSocketMessage message) {
+        DataBuffer payload = message.getPayload();
+        boolean array = isArray(payload);
+        try (JsonParser parser = jsonFactory.createParser(payload.asInputStream())) {
+            return new Message(CalculationBatch.read(parser, maxItemsPerMessage), array, null);
+        } catch (InvalidBatchException e) {
+            return new Message(null, array, e.getMessage());
+        } catch (IOException e) {
+            return new Message(null, array, "Invalid batch: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Calculates the results of a message, once the bucket of the connection has a token for each pair.
+     *
+     * @param message the pairs of the message.
+     * @param bucket the bucket of the connection.
+     * @param stats the counters of the connection.
+     * @return a Mono<String> containing the results or the error of the message.
+     */
+    private Mono<String> reply(Message message, Bucket bucket, SessionStats stats) {
+        stats.messages.incrementAndGet();
+        if (message.error() != null) {
+            stats.invalid.incrementAndGet();
+            return error("Lote inválido", message.error());
+        }
+        CalculationBatch batch = message.batch();
+        if (batch.size() == 0) {
+            return Mono.just(encode(new double[0], message.array()));
+        }
+        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(batch.size());
+        if (!probe.isConsumed()) {
+            stats.rejected.incrementAndGet();
+            return error("Límite de solicitudes excedido", "Rate limit exceeded, retry after "
+                    + TimeUnit.NANOSECONDS.toMillis(probe.getNanosToWaitForRefill()) + " ms");
+        }
+        stats.items.addAndGet(batch.size());
+        return calculationService.calculate(batch)
+                .map(results -> encode(results, message.array()))
+                .onErrorResume(e -> {
+                    stats.failed.incrementAndGet();
+                    return error("Error en el servidor", e.getMessage());
+                });
+    }
+
+    /**
+     * Encodes the error response of a message.
+     *
+     * @param message the message of the error.
+     * @param details the details of the error.
+     * @return a Mono<String> containing the error response as JSON.
+     */
+    private Mono<String> error(String message, String details) {
+        return Mono.fromCallable(() -> errorWriter.writeValueAsString(new ErrorResponse(message, details, PATH)));
+    }
+
+    /**
+     * Logs a closed connection as a single call, with the number of pairs calculated
+     * and the counters of its messages.
+     *
+     * @param session the WebSocket session of the connection.
+     * @param stats the counters of the connection.
+     * @param startNanos the time the connection was opened.
+     */
+    private void logSession(WebSocketSession session, SessionStats stats, long startNanos) {
+        CallLog callLog = new CallLog();
+        callLog.setEndpoint(PATH);
+        callLog.setParameters("session=" + session.getId());
+        callLog.setStatusCode(HttpStatus.SWITCHING_PROTOCOLS.value());
+        callLog.setDurationMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+        callLog.setItemCount((int) Math.min(stats.items.get(), Integer.MAX_VALUE));
+        callLog.setResponse("messages=" + stats.messages.get() + ", items=" + stats.items.get()
+                + ", rejected=" + stats.rejected.get() + ", invalid=" + stats.invalid.get()
+                + ", failed=" + stats.failed.get());
+        Throwable error = stats.error;
+        if (error != null) {
+            callLog.setError(error.getMessage());
+        }
+        callLogService.logCall(callLog).subscribe();
+    }
+
+    /**
+     * Encodes the results of a message as a JSON array, or one per line.
+     *
+     * @param results the results of the message.
+     * @param array whether the message was a JSON array.
+     * @return the encoded results.
+     */
+    private static String encode(double[] results, boolean array) {
+        StringBuilder builder = new StringBuilder(results.length * 24 + 2);
+        if (array) {
+            builder.append('[');
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (i > 0) {
+                builder.append(array ? ',' : '\n');
+            }
+            CalculationBatch.appendResult(builder, results[i]);
+        }
+        if (array) {
+            builder.append(']');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Indicates whether a message is a JSON array, from its first character other than whitespace.
+     *
+     * @param payload the payload of the message.
+     * @return true if the message starts with an array.
+     */
+    private static boolean isArray(DataBuffer payload) {
+        for (int i = payload.readPosition(); i < payload.writePosition(); i++) {
+            byte b = payload.getByte(i);
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                return b == '[';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pairs of a message, or the reason why they could not be read.
+     */
+    private record Message(CalculationBatch batch, boolean array, String error) {
+    }
+
+    /**
+     * Counters of a connection, logged when it closes.
+     */
+    private static final class SessionStats {
+
+        private final AtomicLong messages = new AtomicLong();
+        private final AtomicLong items = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong invalid = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile Throwable error;
+
+        private void fail(Throwable error) {
+            this.error = error;
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package com.tenpo.challenge.controller;
 
+import com.tenpo.challenge.config.RedisCommandLatencyRecorder;
+import com.tenpo.challenge.dto.CallLogPage;
+import com.tenpo.challenge.dto.CallLogPipelineStats;
+import com.tenpo.challenge.dto.CallLogRollup;
+import com.tenpo.challenge.dto.LatencyPercentiles;
 import com.tenpo.challenge.model.CallLog;
 import com.tenpo.challenge.service.CallLogService;
+import com.tenpo.challenge.service.LatencyStatsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -10,6 +18,8 @@ import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 /**
  * Call log controller for the application.
  * This class handles HTTP requests for call logs.
@@ -23,18 +33,26 @@ import reactor.core.publisher.Mono;
 public class CallLogController {
 
     private final CallLogService callLogService;
+    private final LatencyStatsService latencyStatsService;
+    private final RedisCommandLatencyRecorder redisCommandLatencyRecorder;
 
-    public CallLogController(CallLogService callLogService) {
+    public CallLogController(CallLogService callLogService, LatencyStatsService latencyStatsService,
+                             RedisCommandLatencyRecorder redisCommandLatencyRecorder) {
         this.callLogService = callLogService;
+        this.latencyStatsService = latencyStatsService;
+        this.redisCommandLatencyRecorder = redisCommandLatencyRecorder;
     }
 
     /**
      * Handles GET requests to retrieve call logs.
+     * Offset pagination only reaches the first call-log.page.max-offset rows.
      *
      * @param page the page number for pagination.
      * @param size the page size for pagination.
      * @return a Mono containing a Flux of CallLog wrapped in a ResponseEntity.
+     * @deprecated deep pages scan every row before them; use {@link #getCallLogPage} instead.
      */
+    @Deprecated
     @GetMapping("/")
     public Mono<ResponseEntity<Flux<CallLog>>> getCallLogs(@RequestParam(defaultValue = "0") int page,
                                                            @RequestParam(defaultValue = "10") int size) {
@@ -42,4 +60,110 @@ public class CallLogController {
                 .map(ResponseEntity::ok)
                 .onErrorResume(Mono::error);
     }
-}
\ No newline at end of file
+
+    /**
+     * Handles GET requests to retrieve call logs using keyset pagination.
+     *
+     * @param cursor the cursor returned with the previous page, omitted for the first page.
+     * @param size the page size.
+     * @return a Mono containing the page of call logs and the next cursor wrapped in a ResponseEntity.
+     */
+    @GetMapping("/page")
+    public Mono<ResponseEntity<CallLogPage>> getCallLogPage(@RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "10") int size) {
+        return callLogService.getCallLogPage(cursor, size)
+                .map(ResponseEntity::ok)
+                .onErrorResume(Mono::error);
+    }
+
+    /**
+     * Handles GET requests to search the call logs of a time range by their first number.
+     *
+     * @param minNumber1 the exclusive lower bound of the first number.
+     * @param since the inclusive start of the time range.
+     * @param size the maximum number of call logs to return.
+     * @return a Mono containing a Flux of CallLog wrapped in a ResponseEntity.
+     */
+    @GetMapping("/search")
+    public Mono<ResponseEntity<Flux<CallLog>>> searchCallLogs(
+            @RequestParam Double minNumber1,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(defaultValue = "100") int size) {
+        return Mono.just(callLogService.searchByNumber1(minNumber1, since, size))
+                .map(ResponseEntity::ok)
+                .onErrorResume(Mono::error);
+    }
+
+    /**
+     * Handles GET requests to export the call logs of a time range.
+     * Call logs are streamed as newline-delimited JSON or server-sent events while they are read,
+     * and the query is cancelled if the client disconnects.
+     *
+     * @param from the inclusive start of the range.
+     * @param to the exclusive end of the range.
+     * @return a Flux of CallLog streamed to the client.
+     */
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<CallLog> exportCallLogs(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return callLogService.exportCallLogs(from, to);
+    }
+
+    /**
+     * Handles GET requests to retrieve the per-minute call statistics of a time range.
+     * The statistics are read from the rollups, which are kept up to date as call logs are written,
+     * so the call_logs table is not scanned.
+     *
+     * @param from the inclusive start of the range.
+     * @param to the exclusive end of the range.
+     * @param endpoint the endpoint to restrict the statistics to, omitted for all endpoints.
+     * @return a Mono containing a Flux of CallLogRollup wrapped in a ResponseEntity.
+     */
+    @GetMapping("/stats")
+    public Mono<ResponseEntity<Flux<CallLogRollup>>> getCallStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String endpoint) {
+        return Mono.just(callLogService.getCallStats(from, to, endpoint))
+                .map(ResponseEntity::ok)
+                .onErrorResume(Mono::error);
+    }
+
+    /**
+     * Handles GET requests to retrieve the statistics of the call log pipeline.
+     *
+     * @return a Mono containing the queue depth and counters wrapped in a ResponseEntity.
+     */
+    @GetMapping("/pipeline")
+    public Mono<ResponseEntity<CallLogPipelineStats>> getPipelineStats() {
+        return callLogService.getPipelineStats()
+                .map(ResponseEntity::ok)
+                .onErrorResume(Mono::error);
+    }
+
+    /**
+     * Handles GET requests to retrieve the latency percentiles of each endpoint.
+     * Percentiles are computed from in-memory histograms, without querying the database.
+     *
+     * @return a Mono containing a Flux of LatencyPercentiles, in microseconds, wrapped in a ResponseEntity.
+     */
+    @GetMapping("/latency")
+    public Mono<ResponseEntity<Flux<LatencyPercentiles>>> getLatencyStats() {
+        return Mono.just(latencyStatsService.getLatencyStats())
+                .map(ResponseEntity::ok)
+                .onErrorResume(Mono::error);
+    }
+
+    /**
+     * Handles GET requests to retrieve the latency percentiles of each Redis command type.
+     *
+     * @return a Mono containing a Flux of LatencyPercentiles, in microseconds, wrapped in a ResponseEntity.
+     */
+    @GetMapping("/latency/redis")
+    public Mono<ResponseEntity<Flux<LatencyPercentiles>>> getRedisLatencyStats() {
+        return Mono.just(redisCommandLatencyRecorder.getLatencyStats())
+                .map(ResponseEntity::ok)
+                .onErrorResume(Mono::error);
+    }
+}
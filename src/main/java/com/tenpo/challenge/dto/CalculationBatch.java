@@ -0,0 +1,163 @@
+package com.tenpo.challenge.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.tenpo.challenge.exception.InvalidBatchException;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Batch calculation DTO for the application.
+ * This class holds the pairs of numbers of a batch calculation in primitive arrays, so a batch of
+ * any size is read and calculated without an object per pair. Batches are read from a JSON array
+ * of {@code {"number1": ..., "number2": ...}} objects, or from the same objects one per line (NDJSON).
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+public class CalculationBatch {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final double[] number1;
+    private final double[] number2;
+    private final int size;
+
+    public CalculationBatch(double[] number1, double[] number2, int size) {
+        this.number1 = number1;
+        this.number2 = number2;
+        this.size = size;
+    }
+
+    /**
+     * Reads a batch from a JSON array of pairs or from a sequence of pairs.
+     *
+     * @param parser the parser of the body of the request.
+     * @param maxItems the maximum number of pairs of a batch.
+     * @return the batch, empty if the body is empty.
+     * @throws IOException if the body is not valid JSON.
+     * @throws InvalidBatchException if a pair is malformed or the batch has more than maxItems pairs.
+     */
+    public static CalculationBatch read(JsonParser parser, int maxItems) throws IOException {
+        double[] number1 = new double[INITIAL_CAPACITY];
+        double[] number2 = new double[INITIAL_CAPACITY];
+        int size = 0;
+
+        JsonToken token = parser.nextToken();
+        boolean array = token == JsonToken.START_ARRAY;
+        if (array) {
+            token = parser.nextToken();
+        }
+        while (token != null && token != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                throw new InvalidBatchException("Item " + size + " is not an object");
+            }
+            if (size == maxItems) {
+                throw new InvalidBatchException("Batch exceeds " + maxItems + " items");
+            }
+            if (size == number1.length) {
+                number1 = Arrays.copyOf(number1, size * 2);
+                number2 = Arrays.copyOf(number2, size * 2);
+            }
+            readPair(parser, size, number1, number2);
+            size++;
+            token = parser.nextToken();
+        }
+        if (array ? token != JsonToken.END_ARRAY || parser.nextToken() != null : token != null) {
+            throw new InvalidBatchException("Batch is not a single array or a sequence of objects");
+        }
+        return new CalculationBatch(number1, number2, size);
+    }
+
+    /**
+     * Reads the pair at the current object of the parser into the given position of the arrays.
+     *
+     * @param parser the parser, positioned at the start of the object.
+     * @param index the position of the pair.
+     * @param number1 the first numbers of the batch.
+     * @param number2 the second numbers of the batch.
+     * @throws IOException if the object is not valid JSON.
+     */
+    private static void readPair(JsonParser parser, int index, double[] number1, double[] number2) throws IOException {
+        boolean hasNumber1 = false;
+        boolean hasNumber2 = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("number1".equals(field)) {
+                number1[index] = readNumber(parser, value, index, field);
+                hasNumber1 = true;
+            } else if ("number2".equals(field)) {
+                number2[index] = readNumber(parser, value, index, field);
+                hasNumber2 = true;
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (!hasNumber1 || !hasNumber2) {
+            throw new InvalidBatchException("Item " + index + " must have number1 and number2");
+        }
+    }
+
+    /**
+     * Reads the current value of the parser as a number.
+     *
+     * @param parser the parser, positioned at the value.
+     * @param value the token of the value.
+     * @param index the position of the pair.
+     * @param field the name of the field.
+     * @return the number.
+     * @throws IOException if the value is not valid JSON.
+     */
+    private static double readNumber(JsonParser parser, JsonToken value, int index, String field) throws IOException {
+        if (value != JsonToken.VALUE_NUMBER_INT && value != JsonToken.VALUE_NUMBER_FLOAT) {
+            throw new InvalidBatchException("Item " + index + " has a non-numeric " + field);
+        }
+        return parser.getDoubleValue();
+    }
+
+    /**
+     * Appends a result as a JSON value. Non-finite results are written as strings, as Jackson writes them.
+     *
+     * @param builder the builder of the encoded results.
+     * @param result the result to append.
+     * @return the builder.
+     */
+    public static StringBuilder appendResult(StringBuilder builder, double result) {
+        if (Double.isFinite(result)) {
+            return builder.append(result);
+        }
+        return builder.append('"').append(result).append('"');
+    }
+
+    /**
+     * Returns the first number of the pair at the given position.
+     *
+     * @param index the position of the pair.
+     * @return the first number.
+     */
+    public double number1(int index) {
+        return number1[index];
+    }
+
+    /**
+     * Returns the second number of the pair at the given position.
+     *
+     * @param index the position of the pair.
+     * @return the second number.
+     */
+    public double number2(int index) {
+        return number2[index];
+    }
+
+    /**
+     * Returns the number of pairs of the batch.
+     *
+     * @return the size of the batch.
+     */
+    public int size() {
+        return size;
+    }
+}
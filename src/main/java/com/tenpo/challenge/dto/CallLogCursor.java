@@ -0,0 +1,74 @@
+package com.tenpo.challenge.dto;
+
+import com.tenpo.challenge.exception.InvalidCursorException;
+import com.tenpo.challenge.model.CallLog;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor DTO for keyset pagination of call logs.
+ * This class represents the position of the last call log of a page, given by its
+ * timestamp and id, and encodes it as an opaque URL-safe string.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Getter
+public class CallLogCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime timestamp;
+    private final Long id;
+
+    public CallLogCursor(LocalDateTime timestamp, Long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    /**
+     * Creates a cursor pointing at the specified call log.
+     *
+     * @param callLog the last call log of a page.
+     * @return the cursor for the next page.
+     */
+    public static CallLogCursor of(CallLog callLog) {
+        return new CallLogCursor(callLog.getTimestamp(), callLog.getId());
+    }
+
+    /**
+     * Encodes the cursor as an opaque URL-safe string.
+     *
+     * @return the encoded cursor.
+     */
+    public String encode() {
+        String raw = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously returned by {@link #encode()}.
+     *
+     * @param encoded the encoded cursor.
+     * @return the decoded cursor.
+     * @throws InvalidCursorException if the cursor is malformed.
+     */
+    public static CallLogCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException("Invalid cursor: " + encoded);
+            }
+            return new CallLogCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor: " + encoded);
+        }
+    }
+}
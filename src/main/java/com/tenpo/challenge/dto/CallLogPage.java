@@ -0,0 +1,27 @@
+package com.tenpo.challenge.dto;
+
+import com.tenpo.challenge.model.CallLog;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Call log page DTO for the application.
+ * This class represents a page of call logs obtained with keyset pagination,
+ * together with the cursor to request the next page.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Getter
+public class CallLogPage {
+
+    private final List<CallLog> items;
+    private final String nextCursor;
+
+    public CallLogPage(List<CallLog> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,34 @@
+package com.tenpo.challenge.dto;
+
+import lombok.Getter;
+
+/**
+ * Call log pipeline statistics DTO for the application.
+ * This class represents a snapshot of the asynchronous call log writer queue and counters.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Getter
+public class CallLogPipelineStats {
+
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final String overflowPolicy;
+    private final long enqueued;
+    private final long dropped;
+    private final long written;
+    private final long failed;
+
+    public CallLogPipelineStats(int queueDepth, int queueCapacity, String overflowPolicy,
+                                long enqueued, long dropped, long written, long failed) {
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.enqueued = enqueued;
+        this.dropped = dropped;
+        this.written = written;
+        this.failed = failed;
+    }
+}
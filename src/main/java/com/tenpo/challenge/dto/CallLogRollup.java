@@ -0,0 +1,37 @@
+package com.tenpo.challenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Call log rollup DTO for the application.
+ * This class represents the number of calls to an endpoint with a status class during one minute,
+ * together with the sum and the average of their durations in microseconds.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Getter
+public class CallLogRollup {
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm")
+    private final LocalDateTime bucketStart;
+    private final String endpoint;
+    private final String statusClass;
+    private final long callCount;
+    private final long latencySumMicros;
+    private final long avgLatencyMicros;
+
+    public CallLogRollup(LocalDateTime bucketStart, String endpoint, int statusClass,
+                         long callCount, long latencySumMicros) {
+        this.bucketStart = bucketStart;
+        this.endpoint = endpoint;
+        this.statusClass = statusClass + "xx";
+        this.callCount = callCount;
+        this.latencySumMicros = latencySumMicros;
+        this.avgLatencyMicros = callCount > 0 ? latencySumMicros / callCount : 0;
+    }
+}
@@ -0,0 +1,33 @@
+package com.tenpo.challenge.dto;
+
+import lombok.Getter;
+
+/**
+ * Latency percentiles DTO for the application.
+ * This class represents the latency distribution of the calls to an endpoint, in microseconds.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Getter
+public class LatencyPercentiles {
+
+    private final String endpoint;
+    private final long count;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long p999;
+    private final long max;
+
+    public LatencyPercentiles(String endpoint, long count, long p50, long p90, long p99, long p999, long max) {
+        this.endpoint = endpoint;
+        this.count = count;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+}
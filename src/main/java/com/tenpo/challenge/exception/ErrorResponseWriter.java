@@ -0,0 +1,138 @@
+package com.tenpo.challenge.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tenpo.challenge.dto.ErrorResponse;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writer of the error responses of the application.
+ * Error responses are serialized with a single ObjectWriter built once from the application ObjectMapper.
+ * The body of the rate limit response never changes except for its timestamp and path, so it is
+ * encoded once and only those two values are copied into each response; the timestamp is formatted
+ * at most once per second.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Component
+public class ErrorResponseWriter {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final byte[] RATE_LIMIT_PREFIX = ("{\"message\":\"Límite de solicitudes excedido\","
+            + "\"details\":\"Rate limit exceeded\",\"timestamp\":\"").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] RATE_LIMIT_PATH = "\",\"path\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] RATE_LIMIT_SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectWriter writer;
+    private volatile CachedTimestamp cachedTimestamp = new CachedTimestamp(Long.MIN_VALUE, new byte[0]);
+
+    /**
+     * Constructs a new ErrorResponseWriter with the specified ObjectMapper.
+     *
+     * @param objectMapper the application mapper the error response writer is built from.
+     */
+    public ErrorResponseWriter(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writerFor(ErrorResponse.class);
+    }
+
+    /**
+     * Writes an error response to the exchange.
+     *
+     * @param exchange the server web exchange.
+     * @param status the HTTP status to set.
+     * @param message the message of the error.
+     * @param details the details of the error.
+     * @return a Mono<Void> indicating the completion of the response.
+     */
+    public Mono<Void> write(ServerWebExchange exchange, HttpStatus status, String message, String details) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        ErrorResponse errorResponse = new ErrorResponse(message, details, exchange.getRequest().getPath().toString());
+        try {
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(writer.writeValueAsBytes(errorResponse))));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+
+    /**
+     * Writes the rate limit exceeded response to the exchange from the pre-encoded body.
+     * Headers other than the content type are left to the caller.
+     *
+     * @param exchange the server web exchange.
+     * @return a Mono<Void> indicating the completion of the response.
+     */
+    public Mono<Void> writeRateLimitExceeded(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        String path = exchange.getRequest().getPath().toString();
+        byte[] timestamp = currentTimestamp();
+        byte[] escapedPath = isPlainAscii(path) ? null : JsonStringEncoder.getInstance().quoteAsUTF8(path);
+        int pathLength = escapedPath == null ? path.length() : escapedPath.length;
+        DataBuffer buffer = response.bufferFactory().allocateBuffer(RATE_LIMIT_PREFIX.length + timestamp.length
+                + RATE_LIMIT_PATH.length + pathLength + RATE_LIMIT_SUFFIX.length);
+        buffer.write(RATE_LIMIT_PREFIX).write(timestamp).write(RATE_LIMIT_PATH);
+        if (escapedPath == null) {
+            buffer.write(path, StandardCharsets.US_ASCII);
+        } else {
+            buffer.write(escapedPath);
+        }
+        buffer.write(RATE_LIMIT_SUFFIX);
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    /**
+     * Returns the current timestamp in the format of ErrorResponse, reusing the last one within the same second.
+     *
+     * @return the encoded timestamp.
+     */
+    private byte[] currentTimestamp() {
+        long second = System.currentTimeMillis() / 1000;
+        CachedTimestamp cached = cachedTimestamp;
+        if (cached.second() != second) {
+            String formatted = LocalDateTime.ofInstant(Instant.ofEpochSecond(second), ZoneId.systemDefault())
+                    .format(TIMESTAMP_FORMAT);
+            cached = new CachedTimestamp(second, formatted.getBytes(StandardCharsets.US_ASCII));
+            cachedTimestamp = cached;
+        }
+        return cached.bytes();
+    }
+
+    /**
+     * Indicates whether a value can be copied into a JSON string without escaping.
+     *
+     * @param value the value to check.
+     * @return true if the value only has printable ASCII characters other than quotes and backslashes.
+     */
+    private static boolean isPlainAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c > 0x7e || c == '"' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record CachedTimestamp(long second, byte[] bytes) {
+    }
+}
@@ -1,11 +1,7 @@
 package com.tenpo.challenge.exception;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.tenpo.challenge.dto.ErrorResponse;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.server.MissingRequestValueException;
@@ -24,6 +20,17 @@ import reactor.core.publisher.Mono;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final ErrorResponseWriter errorResponseWriter;
+
+    /**
+     * Constructs a new GlobalExceptionHandler with the specified ErrorResponseWriter.
+     *
+     * @param errorResponseWriter the writer of the error responses.
+     */
+    public GlobalExceptionHandler(ErrorResponseWriter errorResponseWriter) {
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
     /**
      * Handles all exceptions and returns a generic error response.
      *
@@ -33,8 +40,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     public Mono<Void> handleAllExceptions(Exception ex, ServerWebExchange exchange) {
-        ErrorResponse errorResponse = new ErrorResponse("Error en el servidor", ex.getMessage(), exchange.getRequest().getPath().toString());
-        return writeErrorResponse(exchange, errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+        return errorResponseWriter.write(exchange, HttpStatus.INTERNAL_SERVER_ERROR, "Error en el servidor", ex.getMessage());
     }
 
     /**
@@ -46,8 +52,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(NullPointerException.class)
     public Mono<Void> handleNullPointerException(NullPointerException ex, ServerWebExchange exchange) {
-        ErrorResponse errorResponse = new ErrorResponse("Valores nulos no permitidos", ex.getMessage(), exchange.getRequest().getPath().toString());
-        return writeErrorResponse(exchange, errorResponse, HttpStatus.BAD_REQUEST);
+        return errorResponseWriter.write(exchange, HttpStatus.BAD_REQUEST, "Valores nulos no permitidos", ex.getMessage());
     }
 
     /**
@@ -59,8 +64,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(MissingRequestValueException.class)
     public Mono<Void> handleMissingRequestValueException(MissingRequestValueException ex, ServerWebExchange exchange) {
-        ErrorResponse errorResponse = new ErrorResponse("Faltan parámetros", ex.getReason(), exchange.getRequest().getPath().toString());
-        return writeErrorResponse(exchange, errorResponse, HttpStatus.BAD_REQUEST);
+        return errorResponseWriter.write(exchange, HttpStatus.BAD_REQUEST, "Faltan parámetros", ex.getReason());
     }
 
     /**
@@ -72,8 +76,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(ServerWebInputException.class)
     public Mono<Void> handleServerWebInputException(ServerWebInputException ex, ServerWebExchange exchange) {
-        ErrorResponse errorResponse = new ErrorResponse("Tipo de parámetro inválido", ex.getReason(), exchange.getRequest().getPath().toString());
-        return writeErrorResponse(exchange, errorResponse, HttpStatus.BAD_REQUEST);
+        return errorResponseWriter.write(exchange, HttpStatus.BAD_REQUEST, "Tipo de parámetro inválido", ex.getReason());
     }
 
     /**
@@ -85,39 +88,67 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(ExternalServiceException.class)
     public Mono<Void> handleExternalServiceException(ExternalServiceException ex, ServerWebExchange exchange) {
-        ErrorResponse errorResponse = new ErrorResponse("Reintentos agotados al servicio externo", ex.getMessage(), exchange.getRequest().getPath().toString());
-        return writeErrorResponse(exchange, errorResponse, HttpStatus.BAD_GATEWAY);
+        return errorResponseWriter.write(exchange, HttpStatus.BAD_GATEWAY, "Reintentos agotados al servicio externo", ex.getMessage());
     }
 
     /**
-     * Handles DataAccessResourceFailureException and returns a specific error response.
+     * Handles InvalidCursorException and returns a specific error response.
      *
      * @param ex the caught exception.
      * @param exchange the server web exchange.
      * @return a Mono<Void> indicating the completion of the response.
      */
-    @ExceptionHandler(DataAccessResourceFailureException.class)
-    public Mono<Void> handleDataAccessResourceFailureException(DataAccessResourceFailureException ex, ServerWebExchange exchange) {
-        ErrorResponse errorResponse = new ErrorResponse("Error al acceder a la base de datos", ex.getMessage(), exchange.getRequest().getPath().toString());
-        return writeErrorResponse(exchange, errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    @ExceptionHandler(InvalidCursorException.class)
+    public Mono<Void> handleInvalidCursorException(InvalidCursorException ex, ServerWebExchange exchange) {
+        return errorResponseWriter.write(exchange, HttpStatus.BAD_REQUEST, "Cursor inválido", ex.getMessage());
     }
 
     /**
-     * Writes the error response to the exchange.
+     * Handles InvalidPageException and returns a specific error response.
      *
+     * @param ex the caught exception.
      * @param exchange the server web exchange.
-     * @param errorResponse the error response to write.
-     * @param status the HTTP status to set.
      * @return a Mono<Void> indicating the completion of the response.
      */
-    private Mono<Void> writeErrorResponse(ServerWebExchange exchange, ErrorResponse errorResponse, HttpStatus status) {
-        exchange.getResponse().setStatusCode(status);
-        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
-        try {
-            byte[] bytes = new ObjectMapper().writeValueAsBytes(errorResponse);
-            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(bytes)));
-        } catch (JsonProcessingException e) {
-            return Mono.error(e);
-        }
+    @ExceptionHandler(InvalidPageException.class)
+    public Mono<Void> handleInvalidPageException(InvalidPageException ex, ServerWebExchange exchange) {
+        return errorResponseWriter.write(exchange, HttpStatus.BAD_REQUEST, "Página inválida", ex.getMessage());
+    }
+
+    /**
+     * Handles InvalidBatchException and returns a specific error response.
+     *
+     * @param ex the caught exception.
+     * @param exchange the server web exchange.
+     * @return a Mono<Void> indicating the completion of the response.
+     */
+    @ExceptionHandler(InvalidBatchException.class)
+    public Mono<Void> handleInvalidBatchException(InvalidBatchException ex, ServerWebExchange exchange) {
+        return errorResponseWriter.write(exchange, HttpStatus.BAD_REQUEST, "Lote inválido", ex.getMessage());
+    }
+
+    /**
+     * Handles RateLimitExceededException and returns the rate limit exceeded response.
+     * The RateLimit and Retry-After headers are already set by the consumption that failed.
+     *
+     * @param ex the caught exception.
+     * @param exchange the server web exchange.
+     * @return a Mono<Void> indicating the completion of the response.
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public Mono<Void> handleRateLimitExceededException(RateLimitExceededException ex, ServerWebExchange exchange) {
+        return errorResponseWriter.writeRateLimitExceeded(exchange);
+    }
+
+    /**
+     * Handles DataAccessResourceFailureException and returns a specific error response.
+     *
+     * @param ex the caught exception.
+     * @param exchange the server web exchange.
+     * @return a Mono<Void> indicating the completion of the response.
+     */
+    @ExceptionHandler(DataAccessResourceFailureException.class)
+    public Mono<Void> handleDataAccessResourceFailureException(DataAccessResourceFailureException ex, ServerWebExchange exchange) {
+        return errorResponseWriter.write(exchange, HttpStatus.SERVICE_UNAVAILABLE, "Error al acceder a la base de datos", ex.getMessage());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package com.tenpo.challenge.exception;
+
+/**
+ * Exception for invalid calculation batches.
+ * This class represents an exception that occurs when the body of a batch calculation cannot be read
+ * or exceeds the batch limits.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+public class InvalidBatchException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidBatchException with the specified detail message.
+     *
+     * @param message the detail message.
+     */
+    public InvalidBatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.tenpo.challenge.exception;
+
+/**
+ * Exception for invalid pagination cursors.
+ * This class represents an exception that occurs when a cursor sent by the client cannot be decoded.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidCursorException with the specified detail message.
+     *
+     * @param message the detail message.
+     */
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,22 @@
+package com.tenpo.challenge.exception;
+
+/**
+ * Exception for invalid pagination offsets.
+ * This class represents an exception that occurs when a page requested by the client is negative
+ * or lies deeper than the offset pagination allows.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+public class InvalidPageException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidPageException with the specified detail message.
+     *
+     * @param message the detail message.
+     */
+    public InvalidPageException(String message) {
+        super(message);
+    }
+}
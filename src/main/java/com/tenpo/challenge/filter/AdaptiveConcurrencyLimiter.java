@@ -0,0 +1,138 @@
+package com.tenpo.challenge.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive limit of the number of requests in flight.
+ * The limit follows the gradient between a long-term average of the request latency and the latency
+ * of each completed request: while latency stays at its baseline the limit grows by a small queue
+ * allowance, and when latency rises because a dependency slows down the limit shrinks in proportion,
+ * so requests are rejected instead of piling up. Failed requests shrink the limit by a fixed factor.
+ * The limit is only grown while it is actually used, so an idle period does not inflate it.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final int longWindow;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double longRttNanos;
+    private long samples;
+
+    /**
+     * Constructs a new AdaptiveConcurrencyLimiter.
+     *
+     * @param initialLimit the limit used until latency samples are available.
+     * @param minLimit the lowest limit.
+     * @param maxLimit the highest limit.
+     * @param tolerance how much the latency may rise above its long-term average before the limit shrinks.
+     * @param smoothing the weight of each new limit estimate, between 0 and 1.
+     * @param longWindow the number of samples averaged into the long-term latency.
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                      double smoothing, int longWindow) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limit bounds: " + minLimit + ".." + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = Math.max(tolerance, 1.0);
+        this.smoothing = Math.min(Math.max(smoothing, 0.01), 1.0);
+        this.longWindow = Math.max(longWindow, 1);
+        this.limit = Math.min(Math.max(initialLimit, minLimit), maxLimit);
+    }
+
+    /**
+     * Takes a slot for a new request if fewer requests than the limit are in flight.
+     *
+     * @return true if the request may proceed; it must then be completed with exactly one of
+     *         {@link #onSuccess}, {@link #onDropped} or {@link #onIgnored}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases the slot of a request that completed normally and adjusts the limit to its latency.
+     *
+     * @param rttNanos the time the request was in flight.
+     */
+    public void onSuccess(long rttNanos) {
+        int inFlightAtEnd = inFlight.getAndDecrement();
+        update(rttNanos, inFlightAtEnd);
+    }
+
+    /**
+     * Releases the slot of a request that failed or timed out, and shrinks the limit.
+     */
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            limit = Math.max(minLimit, limit * DROP_BACKOFF);
+        }
+    }
+
+    /**
+     * Releases the slot of a request whose latency says nothing about the load, such as a cancelled one.
+     */
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return the maximum number of requests in flight.
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Returns the number of requests in flight.
+     *
+     * @return the requests that hold a slot.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtEnd) {
+        double rtt = Math.max(rttNanos, 1);
+        samples++;
+        double window = Math.min(samples, longWindow);
+        longRttNanos = samples == 1 ? rtt : longRttNanos + (rtt - longRttNanos) / window;
+        // Once latency recovers, let the long-term average follow it down quickly
+        if (longRttNanos / rtt > 2) {
+            longRttNanos = rtt * 2;
+        }
+
+        double current = limit;
+        if (inFlightAtEnd < current / 2) {
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longRttNanos / rtt));
+        double estimate = current * gradient + Math.sqrt(current);
+        double smoothed = current * (1 - smoothing) + estimate * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+    }
+}
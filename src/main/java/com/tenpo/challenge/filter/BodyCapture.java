@@ -0,0 +1,79 @@
+package com.tenpo.challenge.filter;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Capped copy of a body that is streamed through a filter.
+ * Only the first bytes of the body, up to the configured limit, are copied for logging,
+ * while the total length of the body is always counted. Data buffers are not consumed,
+ * so they can be passed on unchanged.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+public class BodyCapture {
+
+    private final int limit;
+    private final ByteArrayOutputStream prefix;
+    private long totalBytes;
+
+    /**
+     * Constructs a new BodyCapture that keeps at most the specified number of bytes.
+     *
+     * @param limit the maximum number of bytes to keep.
+     */
+    public BodyCapture(int limit) {
+        this.limit = Math.max(limit, 0);
+        this.prefix = new ByteArrayOutputStream(Math.min(this.limit, 256));
+    }
+
+    /**
+     * Copies the readable bytes of the buffer that still fit under the limit,
+     * without changing the read position of the buffer.
+     *
+     * @param buffer the data buffer flowing through the filter.
+     */
+    public void append(DataBuffer buffer) {
+        int readable = buffer.readableByteCount();
+        int toCopy = Math.min(readable, limit - prefix.size());
+        if (toCopy > 0) {
+            byte[] chunk = new byte[toCopy];
+            buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(chunk), 0, toCopy);
+            prefix.write(chunk, 0, toCopy);
+        }
+        totalBytes += readable;
+    }
+
+    /**
+     * Returns the total number of bytes seen, including the ones not kept.
+     *
+     * @return the total length of the body.
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Indicates whether the body was longer than the limit.
+     *
+     * @return true if some bytes were not kept.
+     */
+    public boolean isTruncated() {
+        return totalBytes > prefix.size();
+    }
+
+    /**
+     * Decodes the kept bytes as UTF-8, marking the text when the body was truncated.
+     *
+     * @return the captured body.
+     */
+    public String asString() {
+        String text = prefix.toString(StandardCharsets.UTF_8);
+        return isTruncated() ? text + "...[truncated, totalBytes=" + totalBytes + "]" : text;
+    }
+}
@@ -1,38 +1,79 @@
 package com.tenpo.challenge.filter;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenpo.challenge.model.CallLog;
 import com.tenpo.challenge.service.CallLogService;
+import com.tenpo.challenge.service.LatencyStatsService;
 import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.HandlerMapping;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.nio.charset.StandardCharsets;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * Web filter for logging calls.
  * This filter logs the details of incoming requests and outgoing responses.
- * It also handles rate limit logging.
+ * Request and response buffers are streamed through as they arrive, and only a capped prefix
+ * of each body is copied for the log. Request bodies are only captured for text content types.
+ * The calculation inputs and the query parameters are stored as typed values, and handlers
+ * that process several items per call, such as batch calculations, report the item count
+ * through the {@link #ITEM_COUNT_ATTRIBUTE} exchange attribute.
+ * The wall time from the start of the filter to the commit of the response is stored with the call
+ * and recorded in the in-memory latency statistics under the route pattern matched by the handler
+ * mapping, so that distinct URLs of one route share a histogram; requests no handler matched,
+ * such as 404 probes and requests rejected before routing, are recorded under {@link #UNMATCHED_ENDPOINT}.
+ * It also handles rate limit logging. Requests to the excluded paths, such as the health probes,
+ * are passed through without being logged.
  *
  * @author bbeltran
  * @version 1.0
  * @since 2023-10-05
  */
 @Component
+@Order(CallLoggingFilter.ORDER)
 public class CallLoggingFilter implements WebFilter {
 
+    public static final int ORDER = ConcurrencyLimitingFilter.ORDER + 10;
+
+    /**
+     * Name of the exchange attribute where handlers leave the number of items of the call.
+     */
+    public static final String ITEM_COUNT_ATTRIBUTE = CallLoggingFilter.class.getName() + ".itemCount";
+
+    /**
+     * Latency statistics key of the requests no handler matched.
+     */
+    public static final String UNMATCHED_ENDPOINT = "unmatched";
+
     private final CallLogService callLogService;
-    private static final AtomicBoolean isRateLimitLogged = new AtomicBoolean(false);
+    private final LatencyStatsService latencyStatsService;
+    private final ObjectMapper objectMapper;
+    private final int maxRequestBytes;
+    private final int maxResponseBytes;
+    private final List<PathPattern> excludedPaths;
     private static final AtomicLong lastRateLimitLogTime = new AtomicLong(0);
     private static final long RATE_LIMIT_LOG_INTERVAL_MS = 60000; // 1 minute
 
@@ -40,9 +81,23 @@ public class CallLoggingFilter implements WebFilter {
      * Constructs a new CallLoggingFilter with the specified CallLogService.
      *
      * @param callLogService the service used to log calls.
+     * @param latencyStatsService the service used to record the latency of calls.
+     * @param objectMapper the mapper used to store the query parameters as JSON.
+     * @param maxRequestBytes the maximum number of request body bytes kept for the log.
+     * @param maxResponseBytes the maximum number of response body bytes kept for the log.
+     * @param excludedPaths the path patterns of the requests that are not logged.
      */
-    public CallLoggingFilter(CallLogService callLogService) {
+    public CallLoggingFilter(CallLogService callLogService, LatencyStatsService latencyStatsService,
+                             ObjectMapper objectMapper,
+                             @Value("${call-log.capture.max-request-bytes:4096}") int maxRequestBytes,
+                             @Value("${call-log.capture.max-response-bytes:8192}") int maxResponseBytes,
+                             @Value("${call-log.excluded-paths:/actuator/**,/calculation/stream}") List<String> excludedPaths) {
         this.callLogService = callLogService;
+        this.latencyStatsService = latencyStatsService;
+        this.objectMapper = objectMapper;
+        this.maxRequestBytes = maxRequestBytes;
+        this.maxResponseBytes = maxResponseBytes;
+        this.excludedPaths = excludedPaths.stream().map(PathPatternParser.defaultInstance::parse).toList();
     }
 
     /**
@@ -54,84 +109,200 @@ public class CallLoggingFilter implements WebFilter {
      */
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long startNanos = System.nanoTime();
         ServerHttpRequest request = exchange.getRequest();
-        String endpoint = request.getPath().value();
+        if (isExcluded(request)) {
+            return chain.filter(exchange);
+        }
         String queryParams = request.getQueryParams().toString();
         String pathParams = request.getPath().pathWithinApplication().value();
 
-        Mono<String> bodyMono = Mono.just("");
-        if (request.getMethod() == HttpMethod.POST) {
-            bodyMono = DataBufferUtils.join(request.getBody())
-                    .map(dataBuffer -> {
-                        byte[] bytes = new byte[dataBuffer.readableByteCount()];
-                        dataBuffer.read(bytes);
-                        DataBufferUtils.release(dataBuffer);
-                        return new String(bytes, StandardCharsets.UTF_8);
-                    });
-        }
-
-        return bodyMono.flatMap(body -> {
-            String parameters = "queryParams=" + queryParams + ", pathParams=" + pathParams + ", body=" + body;
-
-            ServerHttpResponse originalResponse = exchange.getResponse();
-            ServerHttpResponseDecorator decoratedResponse = new ServerHttpResponseDecorator(originalResponse) {
+        BodyCapture requestCapture = new BodyCapture(maxRequestBytes);
+        ServerHttpRequest decoratedRequest = request;
+        if (request.getMethod() == HttpMethod.POST && isTextContent(request.getHeaders().getContentType())) {
+            decoratedRequest = new ServerHttpRequestDecorator(request) {
                 @Override
-                public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
-                    return Flux.from(body).collectList().flatMap(dataBuffers -> {
-                        DataBuffer joinedBuffer = originalResponse.bufferFactory().join(dataBuffers);
-                        byte[] content = new byte[joinedBuffer.readableByteCount()];
-                        joinedBuffer.read(content);
-                        DataBufferUtils.release(joinedBuffer);
-
-                        String responseBody = new String(content, StandardCharsets.UTF_8);
-
-                        if (originalResponse.getStatusCode() != null && originalResponse.getStatusCode().value() != 429) {
-                            if (originalResponse.getStatusCode() != null && originalResponse.getStatusCode().isError()) {
-                                // Log the error call
-                                return callLogService.logCall(endpoint, parameters, null, responseBody,
-                                                originalResponse.getStatusCode().value())
-                                        .then(Mono.defer(() -> {
-                                            DataBuffer buffer = originalResponse.bufferFactory().wrap(content);
-                                            return super.writeWith(Flux.just(buffer));
-                                        }));
-                            } else {
-                                // Log the successful call
-                                return callLogService.logCall(endpoint, parameters, responseBody, null,
-                                                originalResponse.getStatusCode().value())
-                                        .then(Mono.defer(() -> {
-                                            DataBuffer buffer = originalResponse.bufferFactory().wrap(content);
-                                            return super.writeWith(Flux.just(buffer));
-                                        }));
-                            }
-                        } else {
-                            long currentTime = System.currentTimeMillis();
-                            if (currentTime - lastRateLimitLogTime.get() > RATE_LIMIT_LOG_INTERVAL_MS) {
-                                if (isRateLimitLogged.compareAndSet(false, true)) {
-                                    lastRateLimitLogTime.set(currentTime);
-                                    return callLogService.logCall(endpoint, parameters, null, responseBody,
-                                                    originalResponse.getStatusCode().value())
-                                            .then(Mono.defer(() -> {
-                                                DataBuffer buffer = originalResponse.bufferFactory().wrap(content);
-                                                return super.writeWith(Flux.just(buffer));
-                                            }))
-                                            .doFinally(signalType -> isRateLimitLogged.set(false));
-                                }
-                            }
-                            return Mono.defer(() -> {
-                                DataBuffer buffer = originalResponse.bufferFactory().wrap(content);
-                                return super.writeWith(Flux.just(buffer));
-                            });
-                        }
-                    }).then();
+                public Flux<DataBuffer> getBody() {
+                    return super.getBody().doOnNext(requestCapture::append);
                 }
             };
+        }
+        Supplier<CallLog> callLog = () -> newCallLog(exchange, "queryParams=" + queryParams
+                + ", pathParams=" + pathParams + ", body=" + requestCapture.asString());
 
-            return chain.filter(exchange.mutate().response(decoratedResponse).build())
-                    .doOnError(throwable -> {
-                        callLogService.logCall(endpoint, parameters, null, throwable.getMessage(),
-                                        originalResponse.getStatusCode().value())
-                                .subscribe();
-                    });
+        ServerHttpResponse originalResponse = exchange.getResponse();
+        AtomicLong committedNanos = new AtomicLong();
+        originalResponse.beforeCommit(() -> {
+            committedNanos.compareAndSet(0, System.nanoTime());
+            return Mono.empty();
         });
+        ServerHttpResponseDecorator decoratedResponse = new ServerHttpResponseDecorator(originalResponse) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                BodyCapture capture = new BodyCapture(maxResponseBytes);
+                return super.writeWith(Flux.from(body).doOnNext(capture::append))
+                        .then(Mono.defer(() -> logResponse(exchange, callLog, capture, getStatusCode(),
+                                elapsedMicros(startNanos, committedNanos))));
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                BodyCapture capture = new BodyCapture(maxResponseBytes);
+                return super.writeAndFlushWith(Flux.from(body)
+                                .map(chunk -> Flux.from(chunk).doOnNext(capture::append)))
+                        .then(Mono.defer(() -> logResponse(exchange, callLog, capture, getStatusCode(),
+                                elapsedMicros(startNanos, committedNanos))));
+            }
+        };
+
+        return chain.filter(exchange.mutate().request(decoratedRequest).response(decoratedResponse).build())
+                .doOnError(throwable -> {
+                    long durationMicros = elapsedMicros(startNanos, committedNanos);
+                    latencyStatsService.record(latencyKey(exchange), durationMicros);
+                    CallLog failedCall = callLog.get();
+                    failedCall.setDurationMicros(durationMicros);
+                    failedCall.setError(throwable.getMessage());
+                    failedCall.setStatusCode(originalResponse.getStatusCode().value());
+                    callLogService.logCall(failedCall).subscribe();
+                });
+    }
+
+    /**
+     * Indicates whether the path of the request is excluded from the call log.
+     *
+     * @param request the incoming request.
+     * @return true if the request must not be logged.
+     */
+    private boolean isExcluded(ServerHttpRequest request) {
+        for (PathPattern pattern : excludedPaths) {
+            if (pattern.matches(request.getPath().pathWithinApplication())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the key the latency of a request is recorded under: the route pattern matched by the
+     * handler mapping, which keeps the number of keys bounded by the routes of the application.
+     *
+     * @param exchange the server web exchange of the request.
+     * @return the matched route pattern, or {@link #UNMATCHED_ENDPOINT} if no handler matched.
+     */
+    private static String latencyKey(ServerWebExchange exchange) {
+        PathPattern pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.getPatternString() : UNMATCHED_ENDPOINT;
+    }
+
+    /**
+     * Creates the call log of a request with its parameters, typed calculation inputs,
+     * query parameters as JSON and item count.
+     *
+     * @param exchange the server web exchange of the request.
+     * @param parameters the parameters of the call.
+     * @return a new CallLog without response details.
+     */
+    private CallLog newCallLog(ServerWebExchange exchange, String parameters) {
+        ServerHttpRequest request = exchange.getRequest();
+        MultiValueMap<String, String> queryParams = request.getQueryParams();
+        CallLog callLog = new CallLog();
+        callLog.setEndpoint(request.getPath().value());
+        callLog.setParameters(parameters);
+        callLog.setNumber1(parseNumber(queryParams.getFirst("number1")));
+        callLog.setNumber2(parseNumber(queryParams.getFirst("number2")));
+        callLog.setItemCount(exchange.getAttribute(ITEM_COUNT_ATTRIBUTE));
+        try {
+            callLog.setQueryParams(objectMapper.writeValueAsString(queryParams));
+        } catch (JsonProcessingException e) {
+            callLog.setQueryParams(null);
+        }
+        return callLog;
+    }
+
+    /**
+     * Computes the wall time of a call up to the commit of its response,
+     * or up to now if the response has not been committed.
+     *
+     * @param startNanos the time the filter started handling the call.
+     * @param committedNanos the time the response was committed, or 0 if it was not.
+     * @return the duration of the call in microseconds.
+     */
+    private static long elapsedMicros(long startNanos, AtomicLong committedNanos) {
+        long committed = committedNanos.get();
+        long endNanos = committed != 0 ? committed : System.nanoTime();
+        return TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos);
+    }
+
+    /**
+     * Parses a query parameter as a number.
+     *
+     * @param value the raw value of the query parameter.
+     * @return the number, or null if the value is missing or not a number.
+     */
+    private static Double parseNumber(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Indicates whether a request body with the given content type is text that can be logged.
+     *
+     * @param contentType the content type of the request, if any.
+     * @return true if the body is text.
+     */
+    private static boolean isTextContent(MediaType contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        if ("text".equals(contentType.getType())) {
+            return true;
+        }
+        String subtype = contentType.getSubtype();
+        return "application".equals(contentType.getType())
+                && (subtype.equals("json") || subtype.endsWith("+json") || subtype.equals("x-ndjson")
+                || subtype.equals("xml") || subtype.endsWith("+xml") || subtype.equals("x-www-form-urlencoded"));
+    }
+
+    /**
+     * Logs the response once it has been written to the client.
+     * Rate limited responses are logged at most once per interval to protect performance,
+     * but the latency of every response is recorded.
+     *
+     * @param exchange the server web exchange of the request.
+     * @param callLog the supplier of the call log of the request.
+     * @param capture the captured prefix of the response body.
+     * @param statusCode the status code of the response.
+     * @param durationMicros the duration of the call in microseconds.
+     * @return a Mono<Void> indicating the completion of the logging.
+     */
+    private Mono<Void> logResponse(ServerWebExchange exchange, Supplier<CallLog> callLog, BodyCapture capture,
+                                   HttpStatusCode statusCode, long durationMicros) {
+        latencyStatsService.record(latencyKey(exchange), durationMicros);
+        int status = statusCode != null ? statusCode.value() : HttpStatus.OK.value();
+        if (status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            long currentTime = System.currentTimeMillis();
+            long lastLogTime = lastRateLimitLogTime.get();
+            if (currentTime - lastLogTime <= RATE_LIMIT_LOG_INTERVAL_MS
+                    || !lastRateLimitLogTime.compareAndSet(lastLogTime, currentTime)) {
+                return Mono.empty();
+            }
+        }
+        CallLog completedCall = callLog.get();
+        completedCall.setStatusCode(status);
+        completedCall.setDurationMicros(durationMicros);
+        if (statusCode != null && statusCode.isError()) {
+            // Log the error call
+            completedCall.setError(capture.asString());
+        } else {
+            // Log the successful call
+            completedCall.setResponse(capture.asString());
+        }
+        return callLogService.logCall(completedCall);
     }
-}
\ No newline at end of file
+}
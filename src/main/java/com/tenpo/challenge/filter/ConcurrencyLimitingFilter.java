@@ -0,0 +1,166 @@
+package com.tenpo.challenge.filter;
+
+import com.tenpo.challenge.exception.ErrorResponseWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+
+/**
+ * Web filter for load shedding.
+ * This filter caps the number of requests in flight on the protected paths with an adaptive
+ * concurrency limit that shrinks when latency rises, for example when Redis or the database slows down.
+ * Requests over the limit are rejected with 503 and a Retry-After header before any other filter runs,
+ * so a shed request is neither logged nor charged to a rate limit bucket.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Component
+@Order(ConcurrencyLimitingFilter.ORDER)
+public class ConcurrencyLimitingFilter implements WebFilter {
+
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final List<PathPattern> paths;
+    private final String retryAfterSeconds;
+    private final ErrorResponseWriter errorResponseWriter;
+
+    /**
+     * Constructs a new ConcurrencyLimitingFilter.
+     *
+     * @param errorResponseWriter the writer of the error response.
+     * @param paths the path patterns protected by the limit.
+     * @param initialLimit the limit used until latency samples are available.
+     * @param minLimit the lowest limit.
+     * @param maxLimit the highest limit.
+     * @param tolerance how much the latency may rise above its long-term average before the limit shrinks.
+     * @param smoothing the weight of each new limit estimate.
+     * @param longWindow the number of samples averaged into the long-term latency.
+     * @param retryAfterSeconds the value of the Retry-After header of rejected requests.
+     */
+    @Autowired
+    public ConcurrencyLimitingFilter(ErrorResponseWriter errorResponseWriter,
+                                     @Value("${concurrency-limit.paths:/calculation/,/calculation/batch}") List<String> paths,
+                                     @Value("${concurrency-limit.initial-limit:20}") int initialLimit,
+                                     @Value("${concurrency-limit.min-limit:4}") int minLimit,
+                                     @Value("${concurrency-limit.max-limit:200}") int maxLimit,
+                                     @Value("${concurrency-limit.tolerance:1.5}") double tolerance,
+                                     @Value("${concurrency-limit.smoothing:0.2}") double smoothing,
+                                     @Value("${concurrency-limit.long-window:600}") int longWindow,
+                                     @Value("${concurrency-limit.retry-after-seconds:1}") int retryAfterSeconds) {
+        this(errorResponseWriter, paths, new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance,
+                smoothing, longWindow), retryAfterSeconds);
+    }
+
+    /**
+     * Constructs a new ConcurrencyLimitingFilter with the specified limiter.
+     *
+     * @param errorResponseWriter the writer of the error response.
+     * @param paths the path patterns protected by the limit.
+     * @param limiter the adaptive limit of requests in flight.
+     * @param retryAfterSeconds the value of the Retry-After header of rejected requests.
+     */
+    public ConcurrencyLimitingFilter(ErrorResponseWriter errorResponseWriter, List<String> paths,
+                                     AdaptiveConcurrencyLimiter limiter, int retryAfterSeconds) {
+        this.errorResponseWriter = errorResponseWriter;
+        this.paths = paths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.limiter = limiter;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+    }
+
+    /**
+     * Filters the incoming request, taking a slot of the concurrency limit for the whole request
+     * or rejecting it if none is free.
+     *
+     * @param exchange the server web exchange.
+     * @param chain the web filter chain.
+     * @return a Mono<Void> indicating the completion of the response.
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!isProtected(exchange)) {
+            return chain.filter(exchange);
+        }
+        if (!limiter.tryAcquire()) {
+            return handleOverloaded(exchange);
+        }
+        long startNanos = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> release(exchange, signal, System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Returns the limiter applied by this filter.
+     *
+     * @return the adaptive concurrency limiter.
+     */
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    /**
+     * Indicates whether the path of the request is protected by the limit.
+     *
+     * @param exchange the server web exchange.
+     * @return true if the request must take a slot.
+     */
+    private boolean isProtected(ServerWebExchange exchange) {
+        for (PathPattern pattern : paths) {
+            if (pattern.matches(exchange.getRequest().getPath().pathWithinApplication())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Releases the slot of a finished request. Server errors and failures count as drops,
+     * and successful requests feed their latency to the limit. Cancellations and client errors say nothing
+     * about the load: rejections such as 429 from the rate limit or 400 for bad input take microseconds,
+     * and feeding them would drag the latency baseline down until every real request looked slow.
+     *
+     * @param exchange the server web exchange.
+     * @param signal the signal that finished the request.
+     * @param rttNanos the time the request was in flight.
+     */
+    private void release(ServerWebExchange exchange, SignalType signal, long rttNanos) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (signal == SignalType.CANCEL) {
+            limiter.onIgnored();
+        } else if (signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError())) {
+            limiter.onDropped();
+        } else if (status != null && status.is4xxClientError()) {
+            limiter.onIgnored();
+        } else {
+            limiter.onSuccess(rttNanos);
+        }
+    }
+
+    /**
+     * Handles the case when the concurrency limit is reached.
+     *
+     * @param exchange the server web exchange.
+     * @return a Mono<Void> indicating the completion of the response.
+     */
+    private Mono<Void> handleOverloaded(ServerWebExchange exchange) {
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        return errorResponseWriter.write(exchange, HttpStatus.SERVICE_UNAVAILABLE,
+                "Servicio sobrecargado, intente nuevamente más tarde", "Concurrency limit exceeded");
+    }
+}
@@ -0,0 +1,109 @@
+package com.tenpo.challenge.filter;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Resolver of the rate limit key of a request.
+ * Requests with the same key share a token bucket. The built-in resolvers limit all the requests
+ * together, each client IP, or each API key; another resolver can be plugged in by declaring
+ * a bean of this type.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@FunctionalInterface
+public interface RateLimitKeyResolver {
+
+    String GLOBAL_KEY = "global";
+
+    /**
+     * Longest API key accepted; longer header values are not looked up.
+     */
+    int MAX_API_KEY_LENGTH = 256;
+
+    /**
+     * Resolves the rate limit key of the request.
+     *
+     * @param request the incoming request.
+     * @return the key of the bucket the request takes its token from.
+     */
+    String resolve(ServerHttpRequest request);
+
+    /**
+     * Returns a resolver that limits all the requests together.
+     *
+     * @return the global key resolver.
+     */
+    static RateLimitKeyResolver global() {
+        return request -> GLOBAL_KEY;
+    }
+
+    /**
+     * Returns a resolver that limits each client IP address.
+     * The remote address is used as seen by the server; forwarded headers are only taken into account
+     * when the server is configured to apply them.
+     *
+     * @return the client IP key resolver.
+     */
+    static RateLimitKeyResolver ip() {
+        return request -> {
+            InetSocketAddress remoteAddress = request.getRemoteAddress();
+            if (remoteAddress == null || remoteAddress.getAddress() == null) {
+                return "ip:unknown";
+            }
+            return "ip:" + remoteAddress.getAddress().getHostAddress();
+        };
+    }
+
+    /**
+     * Returns a resolver that limits each known API key sent in the given header, and each client
+     * IP address for requests without a known API key. The header is not authenticated, so unknown
+     * or over-long values fall back to the IP address; otherwise a client could get a fresh bucket
+     * by sending a new value with every request. Keys are identified by their SHA-256 hash, so the
+     * secrets are neither kept in the bucket caches nor stored as Redis keys.
+     *
+     * @param header the name of the header carrying the API key.
+     * @param apiKeys the API keys that get a bucket of their own.
+     * @return the API key resolver.
+     */
+    static RateLimitKeyResolver apiKey(String header, Collection<String> apiKeys) {
+        RateLimitKeyResolver ip = ip();
+        Set<String> knownHashes = apiKeys.stream()
+                .filter(apiKey -> !apiKey.isBlank())
+                .map(RateLimitKeyResolver::sha256)
+                .collect(Collectors.toUnmodifiableSet());
+        return request -> {
+            String apiKey = request.getHeaders().getFirst(header);
+            if (apiKey == null || apiKey.isBlank() || apiKey.length() > MAX_API_KEY_LENGTH) {
+                return ip.resolve(request);
+            }
+            String hash = sha256(apiKey);
+            return knownHashes.contains(hash) ? "key:" + hash : ip.resolve(request);
+        };
+    }
+
+    /**
+     * Hashes an API key with SHA-256.
+     *
+     * @param apiKey the API key.
+     * @return the hash of the API key as lowercase hexadecimal.
+     */
+    private static String sha256(String apiKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(apiKey.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.tenpo.challenge.filter;
+
+import com.tenpo.challenge.config.RateLimitPolicy;
+import com.tenpo.challenge.service.RateLimiterService;
+import io.github.bucket4j.ConsumptionProbe;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limit quota of a request.
+ * The RateLimitingFilter takes one token for every request and leaves the quota of the admitted ones
+ * in the exchange attributes, so handlers whose cost depends on the content of the request, such as
+ * batch calculations, can take more tokens from the same bucket once they know it. Every consumption
+ * updates the RateLimit headers of the response, and a rejected one also sets Retry-After.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+public class RateLimitQuota {
+
+    /**
+     * Name of the exchange attribute holding the quota of an admitted request.
+     */
+    public static final String ATTRIBUTE = RateLimitQuota.class.getName();
+
+    private final RateLimiterService rateLimiterService;
+    private final String key;
+    private final RateLimitPolicy policy;
+    private final HttpHeaders responseHeaders;
+
+    /**
+     * Constructs a new RateLimitQuota.
+     *
+     * @param rateLimiterService the service used to take tokens from the rate limit buckets.
+     * @param key the key of the bucket of the request.
+     * @param policy the rate limit policy of the request.
+     * @param responseHeaders the headers of the response the RateLimit headers are set on.
+     */
+    public RateLimitQuota(RateLimiterService rateLimiterService, String key, RateLimitPolicy policy,
+                          HttpHeaders responseHeaders) {
+        this.rateLimiterService = rateLimiterService;
+        this.key = key;
+        this.policy = policy;
+        this.responseHeaders = responseHeaders;
+    }
+
+    /**
+     * Returns the quota of a request admitted by the RateLimitingFilter.
+     *
+     * @param exchange the server web exchange.
+     * @return the quota, or null if the request is not rate limited.
+     */
+    public static RateLimitQuota of(ServerWebExchange exchange) {
+        return exchange.getAttribute(ATTRIBUTE);
+    }
+
+    /**
+     * Tries to take the given number of tokens, all or none.
+     *
+     * @param tokens the number of tokens to take.
+     * @return a Mono<Boolean> telling whether the tokens were taken.
+     */
+    public Mono<Boolean> tryConsume(long tokens) {
+        if (tokens <= 0) {
+            return Mono.just(true);
+        }
+        return rateLimiterService.tryConsume(key, policy, tokens)
+                .map(probe -> {
+                    applyHeaders(probe);
+                    return probe.isConsumed();
+                });
+    }
+
+    /**
+     * Sets the RateLimit headers of the response from the result of a consumption,
+     * and the Retry-After headers if it was rejected.
+     *
+     * @param probe the result of the consumption.
+     */
+    void applyHeaders(ConsumptionProbe probe) {
+        responseHeaders.set(RateLimitingFilter.LIMIT_HEADER, String.valueOf(policy.getCapacity()));
+        responseHeaders.set(RateLimitingFilter.REMAINING_HEADER, String.valueOf(probe.getRemainingTokens()));
+        responseHeaders.set(RateLimitingFilter.RESET_HEADER, String.valueOf(toSeconds(probe.getNanosToWaitForReset())));
+        if (!probe.isConsumed()) {
+            long waitForRefill = probe.getNanosToWaitForRefill();
+            responseHeaders.set(HttpHeaders.RETRY_AFTER, String.valueOf(toSeconds(waitForRefill)));
+            responseHeaders.set(RateLimitingFilter.RETRY_AFTER_MILLIS_HEADER,
+                    String.valueOf(TimeUnit.NANOSECONDS.toMillis(waitForRefill)));
+        }
+    }
+
+    /**
+     * Converts a wait time to whole seconds, rounding up so clients never retry too early.
+     *
+     * @param nanos the wait time in nanoseconds.
+     * @return the wait time in seconds.
+     */
+    private static long toSeconds(long nanos) {
+        return (Math.max(nanos, 0) + 999_999_999L) / 1_000_000_000L;
+    }
+}
@@ -1,54 +1,62 @@
 package com.tenpo.challenge.filter;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.tenpo.challenge.dto.ErrorResponse;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.ConsumptionProbe;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
+import com.tenpo.challenge.config.RateLimitPolicy;
+import com.tenpo.challenge.config.RateLimitPolicyRegistry;
+import com.tenpo.challenge.exception.ErrorResponseWriter;
+import com.tenpo.challenge.service.RateLimiterService;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-
 /**
  * Web filter for rate limiting.
  * This filter limits the rate of incoming requests based on a token bucket algorithm.
- * It also whitelists certain paths from rate limiting.
+ * Tokens are taken through the RateLimiterService, from local buckets or from buckets shared in Redis.
+ * The bucket of a request is chosen by the RateLimitKeyResolver: one for all the requests, or one per client.
+ * The limits of each path come from the rate limit policy table, which can also exempt paths.
+ * Responses carry the RateLimit-Limit, RateLimit-Remaining and RateLimit-Reset headers, and rejected
+ * requests also get Retry-After and the pre-encoded 429 body of the ErrorResponseWriter.
+ * The quota of each admitted request is left in the exchange attributes as a RateLimitQuota,
+ * so handlers can charge requests that cost more than one token.
  *
  * @author bbeltran
  * @version 1.0
  * @since 2023-10-05
  */
 @Component
+@Order(RateLimitingFilter.ORDER)
 public class RateLimitingFilter implements WebFilter {
 
-    private final Bucket bucket;
+    public static final int ORDER = CallLoggingFilter.ORDER + 10;
+
+    static final String LIMIT_HEADER = "RateLimit-Limit";
+    static final String REMAINING_HEADER = "RateLimit-Remaining";
+    static final String RESET_HEADER = "RateLimit-Reset";
+    static final String RETRY_AFTER_MILLIS_HEADER = "X-Rate-Limit-Retry-After-Milliseconds";
 
-    private final List<Pattern> swaggerWhitelistPatterns;
-    private static final List<String> SWAGGER_WHITELIST = Arrays.asList(
-            "/v3/api-docs",
-            "/swagger-ui.html",
-            "/webjars/swagger-ui/.+"
-    );
+    private final RateLimiterService rateLimiterService;
+    private final RateLimitKeyResolver keyResolver;
+    private final RateLimitPolicyRegistry policyRegistry;
+    private final ErrorResponseWriter errorResponseWriter;
 
     /**
-     * Constructs a new RateLimitingFilter with the specified Bucket.
+     * Constructs a new RateLimitingFilter with the specified RateLimiterService, RateLimitKeyResolver,
+     * RateLimitPolicyRegistry and ErrorResponseWriter.
      *
-     * @param bucket the token bucket used for rate limiting.
+     * @param rateLimiterService the service used to take tokens from the rate limit buckets.
+     * @param keyResolver the resolver of the bucket key of each request.
+     * @param policyRegistry the registry of the rate limit policy table.
+     * @param errorResponseWriter the writer of the rate limit exceeded response.
      */
-    public RateLimitingFilter(Bucket bucket) {
-        this.bucket = bucket;
-        this.swaggerWhitelistPatterns = SWAGGER_WHITELIST.stream()
-                .map(Pattern::compile)
-                .collect(Collectors.toList());
+    public RateLimitingFilter(RateLimiterService rateLimiterService, RateLimitKeyResolver keyResolver,
+                              RateLimitPolicyRegistry policyRegistry, ErrorResponseWriter errorResponseWriter) {
+        this.rateLimiterService = rateLimiterService;
+        this.keyResolver = keyResolver;
+        this.policyRegistry = policyRegistry;
+        this.errorResponseWriter = errorResponseWriter;
     }
 
     /**
@@ -62,37 +70,23 @@ public class RateLimitingFilter implements WebFilter {
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         return Mono.defer(() -> {
             String path = exchange.getRequest().getURI().getPath();
-            if (swaggerWhitelistPatterns.stream().anyMatch(pattern -> pattern.matcher(path).matches())) {
+            RateLimitPolicy policy = policyRegistry.match(path);
+            if (policy.isExempt()) {
                 return chain.filter(exchange);
             }
 
-            ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
-            if (probe.isConsumed()) {
-                return chain.filter(exchange);
-            } else {
-                return handleRateLimitExceeded(exchange, probe.getNanosToWaitForRefill() / 1_000_000L);
-            }
+            String key = policy.bucketKey(keyResolver.resolve(exchange.getRequest()));
+            RateLimitQuota quota = new RateLimitQuota(rateLimiterService, key, policy,
+                    exchange.getResponse().getHeaders());
+            return rateLimiterService.tryConsume(key, policy).flatMap(probe -> {
+                quota.applyHeaders(probe);
+                if (probe.isConsumed()) {
+                    exchange.getAttributes().put(RateLimitQuota.ATTRIBUTE, quota);
+                    return chain.filter(exchange);
+                } else {
+                    return errorResponseWriter.writeRateLimitExceeded(exchange);
+                }
+            });
         });
     }
-
-    /**
-     * Handles the case when the rate limit is exceeded.
-     *
-     * @param exchange the server web exchange.
-     * @param waitForRefill the time to wait for the bucket to refill in milliseconds.
-     * @return a Mono<Void> indicating the completion of the response.
-     */
-    private Mono<Void> handleRateLimitExceeded(ServerWebExchange exchange, long waitForRefill) {
-        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
-        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
-        exchange.getResponse().getHeaders().add("X-Rate-Limit-Retry-After-Milliseconds", String.valueOf(waitForRefill));
-        ErrorResponse errorResponse = new ErrorResponse("Límite de solicitudes excedido", "Rate limit exceeded",
-                exchange.getRequest().getPath().toString());
-        try {
-            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse()
-                    .bufferFactory().wrap(new ObjectMapper().writeValueAsBytes(errorResponse))));
-        } catch (JsonProcessingException e) {
-            return Mono.error(e);
-        }
-    }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package com.tenpo.challenge.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonRawValue;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
@@ -12,6 +13,8 @@ import java.time.LocalDateTime;
  * Model class for call logs.
  * This class represents a log entry for an API call.
  * It includes details such as the timestamp, endpoint, parameters, response, error, and status code.
+ * The calculation inputs and the query parameters are also stored as typed columns
+ * so they can be indexed and queried, along with the duration of the call in microseconds.
  *
  * @author bbeltran
  * @version 1.0
@@ -31,4 +34,10 @@ public class CallLog {
     private String response;
     private String error;
     private Integer statusCode;
+    private Double number1;
+    private Double number2;
+    private Long durationMicros;
+    private Integer itemCount;
+    @JsonRawValue
+    private String queryParams;
 }
\ No newline at end of file
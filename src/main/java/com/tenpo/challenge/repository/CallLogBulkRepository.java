@@ -0,0 +1,167 @@
+package com.tenpo.challenge.repository;
+
+import com.tenpo.challenge.model.CallLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Bulk repository for call logs.
+ * This repository writes several call logs in a single multi-row INSERT statement,
+ * so a batch costs one database round trip instead of one per row.
+ * The same statement adds the written call logs to the per-minute rollups,
+ * so the rollups are always consistent with the call_logs table.
+ * It also streams call logs over a time range using a bounded fetch size.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Repository
+public class CallLogBulkRepository {
+
+    private static final List<Column> COLUMNS = List.of(
+            new Column("timestamp", LocalDateTime.class, CallLog::getTimestamp),
+            new Column("endpoint", String.class, CallLog::getEndpoint),
+            new Column("parameters", String.class, CallLog::getParameters),
+            new Column("response", String.class, CallLog::getResponse),
+            new Column("error", String.class, CallLog::getError),
+            new Column("status_code", Integer.class, CallLog::getStatusCode),
+            new Column("number1", Double.class, CallLog::getNumber1),
+            new Column("number2", Double.class, CallLog::getNumber2),
+            new Column("query_params", String.class, CallLog::getQueryParams, "JSONB"),
+            new Column("duration_micros", Long.class, CallLog::getDurationMicros),
+            new Column("item_count", Integer.class, CallLog::getItemCount)
+    );
+
+    /**
+     * Largest number of call logs a single insert can bind, since PostgreSQL accepts at most
+     * 65535 bind parameters per statement and each call log binds one per column.
+     */
+    public static final int MAX_BATCH_SIZE = 65535 / COLUMNS.size();
+
+    private static final String ROLLUP_SQL = "), rollup AS ("
+            + "INSERT INTO call_log_rollups (bucket_start, endpoint, status_class, call_count, latency_sum_micros) "
+            + "SELECT date_trunc('minute', timestamp), endpoint, COALESCE(status_code / 100, 0), "
+            + "count(*), COALESCE(sum(duration_micros), 0) FROM inserted GROUP BY 1, 2, 3 ORDER BY 1, 2, 3 "
+            + "ON CONFLICT (bucket_start, endpoint, status_class) DO UPDATE SET "
+            + "call_count = call_log_rollups.call_count + EXCLUDED.call_count, "
+            + "latency_sum_micros = call_log_rollups.latency_sum_micros + EXCLUDED.latency_sum_micros) "
+            + "SELECT count(*) AS inserted FROM inserted";
+
+    private static final String STREAM_RANGE_SQL = "SELECT * FROM call_logs "
+            + "WHERE timestamp >= $1 AND timestamp < $2 ORDER BY timestamp, id";
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter converter;
+    private final int fetchSize;
+
+    /**
+     * Constructs a new CallLogBulkRepository with the specified DatabaseClient.
+     *
+     * @param databaseClient the client used to execute SQL statements.
+     * @param converter the converter used to map rows to CallLog entities.
+     * @param fetchSize the number of rows fetched from the database at a time when streaming.
+     */
+    public CallLogBulkRepository(DatabaseClient databaseClient, R2dbcConverter converter,
+                                 @Value("${call-log.export.fetch-size:500}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.converter = converter;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Inserts all the given call logs using a single multi-row INSERT statement,
+     * and adds them to the per-minute rollups in the same statement.
+     *
+     * @param callLogs the call logs to insert.
+     * @return a Mono containing the number of inserted rows.
+     */
+    public Mono<Long> insertAll(List<CallLog> callLogs) {
+        if (callLogs.isEmpty()) {
+            return Mono.just(0L);
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(buildInsertSql(callLogs.size()));
+        int index = 0;
+        for (CallLog callLog : callLogs) {
+            for (Column column : COLUMNS) {
+                Object value = column.accessor().apply(callLog);
+                spec = value != null ? spec.bind(index, value) : spec.bindNull(index, column.type());
+                index++;
+            }
+        }
+        return spec.map(row -> row.get("inserted", Long.class)).one();
+    }
+
+    /**
+     * Streams the call logs of a time range in chronological order.
+     * Rows are fetched from a database cursor in chunks of the configured fetch size and
+     * only requested as the subscriber consumes them; cancelling the subscription cancels the query.
+     *
+     * @param from the inclusive start of the range.
+     * @param to the exclusive end of the range.
+     * @return a Flux of CallLog entities.
+     */
+    public Flux<CallLog> streamRange(LocalDateTime from, LocalDateTime to) {
+        return databaseClient.sql(STREAM_RANGE_SQL)
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)))
+                .bind(0, from)
+                .bind(1, to)
+                .map((row, metadata) -> converter.read(CallLog.class, row, metadata))
+                .all()
+                .limitRate(fetchSize);
+    }
+
+    /**
+     * Builds the INSERT statement with one group of positional parameters per row.
+     * The inserted rows are returned to a second INSERT that upserts their rollups.
+     *
+     * @param rows the number of rows to insert.
+     * @return the SQL statement.
+     */
+    private static String buildInsertSql(int rows) {
+        StringBuilder sql = new StringBuilder("WITH inserted AS (INSERT INTO call_logs (");
+        for (int col = 0; col < COLUMNS.size(); col++) {
+            if (col > 0) {
+                sql.append(", ");
+            }
+            sql.append(COLUMNS.get(col).name());
+        }
+        sql.append(") VALUES ");
+        int parameter = 1;
+        for (int row = 0; row < rows; row++) {
+            sql.append(row > 0 ? ", (" : "(");
+            for (int col = 0; col < COLUMNS.size(); col++) {
+                if (col > 0) {
+                    sql.append(", ");
+                }
+                sql.append(COLUMNS.get(col).placeholder(parameter++));
+            }
+            sql.append(')');
+        }
+        sql.append(" RETURNING timestamp, endpoint, status_code, duration_micros");
+        return sql.append(ROLLUP_SQL).toString();
+    }
+
+    /**
+     * Describes a column of the call_logs table, how to read its value from a CallLog,
+     * and the SQL type the bound value is cast to, if any.
+     */
+    private record Column(String name, Class<?> type, Function<CallLog, ?> accessor, String castType) {
+
+        Column(String name, Class<?> type, Function<CallLog, ?> accessor) {
+            this(name, type, accessor, null);
+        }
+
+        String placeholder(int parameter) {
+            return castType == null ? "$" + parameter : "CAST($" + parameter + " AS " + castType + ")";
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.tenpo.challenge.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repository for the daily partitions of the call_logs table.
+ * This repository calls the database functions created by the Liquibase changelog
+ * to create upcoming partitions and to drop expired ones.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Repository
+public class CallLogPartitionRepository {
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Constructs a new CallLogPartitionRepository with the specified DatabaseClient.
+     *
+     * @param databaseClient the client used to execute SQL statements.
+     */
+    public CallLogPartitionRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Creates the partitions from today up to the specified number of days ahead, if missing.
+     *
+     * @param daysAhead the number of days after today to create partitions for.
+     * @return a Mono containing the number of partitions created.
+     */
+    public Mono<Integer> createPartitions(int daysAhead) {
+        return databaseClient.sql("SELECT call_logs_ensure_partitions($1) AS created")
+                .bind(0, daysAhead)
+                .map(row -> row.get("created", Integer.class))
+                .one();
+    }
+
+    /**
+     * Drops the partitions whose day is older than the specified retention.
+     *
+     * @param retentionDays the number of days of call logs to keep.
+     * @return a Mono containing the number of partitions dropped.
+     */
+    public Mono<Integer> dropPartitionsOlderThan(int retentionDays) {
+        return databaseClient.sql("SELECT call_logs_drop_partitions($1) AS dropped")
+                .bind(0, retentionDays)
+                .map(row -> row.get("dropped", Integer.class))
+                .one();
+    }
+}
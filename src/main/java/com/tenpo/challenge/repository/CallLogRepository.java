@@ -2,13 +2,19 @@ package com.tenpo.challenge.repository;
 
 import com.tenpo.challenge.model.CallLog;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.data.repository.query.Param;
 import reactor.core.publisher.Flux;
 
+import java.time.LocalDateTime;
+
 /**
  * Repository interface for call logs.
  * This interface provides reactive CRUD operations for CallLog entities.
- * It also includes a method to find all call logs ordered by timestamp in descending order.
+ * It also includes methods to find call logs ordered by timestamp in descending order,
+ * either by offset or by keyset (timestamp, id) pagination, and to search call logs
+ * by their typed calculation inputs and query parameters.
  *
  * @author bbeltran
  * @version 1.0
@@ -23,4 +29,60 @@ public interface CallLogRepository extends ReactiveCrudRepository<CallLog, Long>
      * @return a Flux of CallLog entities.
      */
     Flux<CallLog> findAllByOrderByTimestampDesc(Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Finds the first page of call logs ordered by timestamp and id in descending order.
+     *
+     * @param limit the maximum number of call logs to return.
+     * @return a Flux of CallLog entities.
+     */
+    @Query("SELECT * FROM call_logs ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    Flux<CallLog> findFirstPage(@Param("limit") int limit);
+
+    /**
+     * Finds the page of call logs that follows the given (timestamp, id) position,
+     * ordered by timestamp and id in descending order.
+     * The position is expanded into a plain upper bound on timestamp, so partitions
+     * newer than the cursor are pruned.
+     *
+     * @param timestamp the timestamp of the last call log of the previous page.
+     * @param id the id of the last call log of the previous page.
+     * @param limit the maximum number of call logs to return.
+     * @return a Flux of CallLog entities.
+     */
+    @Query("SELECT * FROM call_logs WHERE timestamp <= :timestamp "
+            + "AND (timestamp < :timestamp OR id < :id) "
+            + "ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    Flux<CallLog> findPageBefore(@Param("timestamp") LocalDateTime timestamp, @Param("id") Long id,
+                                 @Param("limit") int limit);
+
+    /**
+     * Finds the call logs since the given time whose first number is greater than the given value,
+     * ordered by timestamp in descending order.
+     *
+     * @param number1 the exclusive lower bound of the first number.
+     * @param since the inclusive start of the time range.
+     * @param limit the maximum number of call logs to return.
+     * @return a Flux of CallLog entities.
+     */
+    @Query("SELECT * FROM call_logs WHERE number1 > :number1 AND timestamp >= :since "
+            + "ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    Flux<CallLog> findByNumber1GreaterThanSince(@Param("number1") Double number1,
+                                                @Param("since") LocalDateTime since,
+                                                @Param("limit") int limit);
+
+    /**
+     * Finds the call logs since the given time whose query parameters contain the given JSON document,
+     * for example {"number2": ["50"]}, ordered by timestamp in descending order.
+     *
+     * @param queryParams the JSON document the query parameters must contain.
+     * @param since the inclusive start of the time range.
+     * @param limit the maximum number of call logs to return.
+     * @return a Flux of CallLog entities.
+     */
+    @Query("SELECT * FROM call_logs WHERE query_params @> CAST(:queryParams AS JSONB) AND timestamp >= :since "
+            + "ORDER BY timestamp DESC, id DESC LIMIT :limit")
+    Flux<CallLog> findByQueryParamsContainingSince(@Param("queryParams") String queryParams,
+                                                   @Param("since") LocalDateTime since,
+                                                   @Param("limit") int limit);
+}
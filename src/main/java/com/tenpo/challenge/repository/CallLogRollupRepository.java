@@ -0,0 +1,75 @@
+package com.tenpo.challenge.repository;
+
+import com.tenpo.challenge.dto.CallLogRollup;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository for the per-minute rollups of the call logs.
+ * Rollups are written together with the call logs by the CallLogBulkRepository;
+ * this repository reads them and deletes the expired ones.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Repository
+public class CallLogRollupRepository {
+
+    private static final String SELECT_RANGE_SQL = "SELECT bucket_start, endpoint, status_class, call_count, "
+            + "latency_sum_micros FROM call_log_rollups WHERE bucket_start >= $1 AND bucket_start < $2";
+    private static final String ORDER_BY = " ORDER BY bucket_start, endpoint, status_class";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Constructs a new CallLogRollupRepository with the specified DatabaseClient.
+     *
+     * @param databaseClient the client used to execute SQL statements.
+     */
+    public CallLogRollupRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Retrieves the rollups of a time range, optionally restricted to one endpoint.
+     *
+     * @param from the inclusive start of the range.
+     * @param to the exclusive end of the range.
+     * @param endpoint the endpoint to restrict the rollups to, or null for all endpoints.
+     * @return a Flux of CallLogRollup ordered by minute, endpoint and status class.
+     */
+    public Flux<CallLogRollup> findRange(LocalDateTime from, LocalDateTime to, String endpoint) {
+        DatabaseClient.GenericExecuteSpec spec = endpoint == null
+                ? databaseClient.sql(SELECT_RANGE_SQL + ORDER_BY)
+                : databaseClient.sql(SELECT_RANGE_SQL + " AND endpoint = $3" + ORDER_BY).bind(2, endpoint);
+        return spec.bind(0, from)
+                .bind(1, to)
+                .map(CallLogRollupRepository::toRollup)
+                .all();
+    }
+
+    /**
+     * Deletes the rollups whose minute is older than the specified retention.
+     *
+     * @param retentionDays the number of days of rollups to keep.
+     * @return a Mono containing the number of rollups deleted.
+     */
+    public Mono<Long> deleteOlderThan(int retentionDays) {
+        return databaseClient.sql("DELETE FROM call_log_rollups WHERE bucket_start < $1")
+                .bind(0, LocalDateTime.now().minusDays(retentionDays))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static CallLogRollup toRollup(Readable row) {
+        return new CallLogRollup(row.get("bucket_start", LocalDateTime.class), row.get("endpoint", String.class),
+                row.get("status_class", Short.class), row.get("call_count", Long.class),
+                row.get("latency_sum_micros", Long.class));
+    }
+}
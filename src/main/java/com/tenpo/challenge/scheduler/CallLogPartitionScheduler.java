@@ -0,0 +1,72 @@
+package com.tenpo.challenge.scheduler;
+
+import com.tenpo.challenge.repository.CallLogPartitionRepository;
+import com.tenpo.challenge.repository.CallLogRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Scheduled job for the call_logs partitions.
+ * This job creates the daily partitions of the coming days ahead of time,
+ * and drops the partitions older than the configured retention.
+ * It also deletes the per-minute rollups older than their own retention.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Component
+public class CallLogPartitionScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallLogPartitionScheduler.class);
+
+    private final CallLogPartitionRepository callLogPartitionRepository;
+    private final CallLogRollupRepository callLogRollupRepository;
+    private final int daysAhead;
+    private final int retentionDays;
+    private final int rollupRetentionDays;
+
+    /**
+     * Constructs a new CallLogPartitionScheduler with the specified repository and settings.
+     *
+     * @param callLogPartitionRepository the repository used to manage the partitions.
+     * @param callLogRollupRepository the repository used to delete expired rollups.
+     * @param daysAhead the number of days after today to keep partitions created for.
+     * @param retentionDays the number of days of call logs to keep.
+     * @param rollupRetentionDays the number of days of rollups to keep.
+     */
+    public CallLogPartitionScheduler(CallLogPartitionRepository callLogPartitionRepository,
+                                     CallLogRollupRepository callLogRollupRepository,
+                                     @Value("${call-log.partition.days-ahead:7}") int daysAhead,
+                                     @Value("${call-log.partition.retention-days:30}") int retentionDays,
+                                     @Value("${call-log.rollup.retention-days:90}") int rollupRetentionDays) {
+        this.callLogPartitionRepository = callLogPartitionRepository;
+        this.callLogRollupRepository = callLogRollupRepository;
+        this.daysAhead = daysAhead;
+        this.retentionDays = retentionDays;
+        this.rollupRetentionDays = rollupRetentionDays;
+    }
+
+    /**
+     * Creates the upcoming partitions, drops the expired ones and deletes the expired rollups.
+     * Runs once at startup and then on the configured schedule.
+     *
+     * @return a Mono<Void> indicating the completion of the maintenance.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${call-log.partition.maintenance-interval-ms:3600000}")
+    public Mono<Void> maintainPartitions() {
+        return callLogPartitionRepository.createPartitions(daysAhead)
+                .doOnNext(created -> logger.info("Created {} call_logs partitions", created))
+                .then(callLogPartitionRepository.dropPartitionsOlderThan(retentionDays))
+                .doOnNext(dropped -> logger.info("Dropped {} expired call_logs partitions", dropped))
+                .then(callLogRollupRepository.deleteOlderThan(rollupRetentionDays))
+                .doOnNext(deleted -> logger.info("Deleted {} expired call_log_rollups", deleted))
+                .doOnError(e -> logger.warn("Call log partition maintenance failed: {}", e.getMessage()))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+}
@@ -0,0 +1,48 @@
+package com.tenpo.challenge.scheduler;
+
+import com.tenpo.challenge.service.ExternalPercentageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Scheduled job for the dynamic percentage.
+ * This job loads the percentage at startup and reloads it on the refresh interval of the in-memory copy,
+ * so the copy stays fresh even when no calculation triggers a refresh and reads never wait for Redis.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Component
+public class PercentageRefreshScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PercentageRefreshScheduler.class);
+
+    private final ExternalPercentageService externalPercentageService;
+
+    /**
+     * Constructs a new PercentageRefreshScheduler with the specified service.
+     *
+     * @param externalPercentageService the service that keeps the percentage.
+     */
+    public PercentageRefreshScheduler(ExternalPercentageService externalPercentageService) {
+        this.externalPercentageService = externalPercentageService;
+    }
+
+    /**
+     * Refreshes the in-memory percentage.
+     * Runs once at startup and then on the configured schedule.
+     *
+     * @return a Mono<Void> indicating the completion of the refresh.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${percentage.near-cache.refresh-interval:PT1M}")
+    public Mono<Void> refreshPercentage() {
+        return externalPercentageService.refresh()
+                .doOnError(e -> logger.warn("Percentage refresh failed: {}", e.getMessage()))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+}
@@ -0,0 +1,36 @@
+package com.tenpo.challenge.scheduler;
+
+import com.tenpo.challenge.config.RateLimitPolicyRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled job for the rate limit policy table.
+ * This job checks the policy file on the configured schedule and reloads the table when the file changes.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Component
+public class RateLimitPolicyReloadScheduler {
+
+    private final RateLimitPolicyRegistry rateLimitPolicyRegistry;
+
+    /**
+     * Constructs a new RateLimitPolicyReloadScheduler with the specified registry.
+     *
+     * @param rateLimitPolicyRegistry the registry of the rate limit policy table.
+     */
+    public RateLimitPolicyReloadScheduler(RateLimitPolicyRegistry rateLimitPolicyRegistry) {
+        this.rateLimitPolicyRegistry = rateLimitPolicyRegistry;
+    }
+
+    /**
+     * Reloads the rate limit policies if the policy file has changed.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.policy-reload-interval-ms:10000}")
+    public void reloadPolicies() {
+        rateLimitPolicyRegistry.reloadIfChanged();
+    }
+}
@@ -1,10 +1,11 @@
 package com.tenpo.challenge.service;
 
+import com.tenpo.challenge.dto.CalculationBatch;
 import reactor.core.publisher.Mono;
 
 /**
  * Service interface for calculations.
- * This interface defines a method to perform calculations using two numbers.
+ * This interface defines methods to perform calculations using two numbers, one pair at a time or in batches.
  *
  * @author bbeltran
  * @version 1.0
@@ -20,4 +21,12 @@ public interface CalculationService {
      * @return a Mono<Double> containing the calculated result.
      */
     Mono<Double> calculate(Double number1, Double number2);
+
+    /**
+     * Calculates the result of every pair of a batch with a single lookup of the external percentage.
+     *
+     * @param batch the pairs of numbers.
+     * @return a Mono<double[]> containing the results, in the order of the pairs.
+     */
+    Mono<double[]> calculate(CalculationBatch batch);
 }
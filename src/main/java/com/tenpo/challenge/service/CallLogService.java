@@ -1,12 +1,18 @@
 package com.tenpo.challenge.service;
 
+import com.tenpo.challenge.dto.CallLogPage;
+import com.tenpo.challenge.dto.CallLogPipelineStats;
+import com.tenpo.challenge.dto.CallLogRollup;
 import com.tenpo.challenge.model.CallLog;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 /**
  * Service interface for call logs.
  * This interface defines methods to log a call and retrieve paginated call logs.
+ * Logging a call only enqueues it; call logs are written to the database asynchronously.
  *
  * @author bbeltran
  * @version 1.0
@@ -26,6 +32,15 @@ public interface CallLogService {
      */
     Mono<Void> logCall(String endpoint, String parameters, String response, String error, Integer statusCode);
 
+    /**
+     * Logs a call described by the specified call log.
+     * The timestamp is set to the current time if it is missing.
+     *
+     * @param callLog the call log to store.
+     * @return a Mono<Void> indicating the completion of the logging.
+     */
+    Mono<Void> logCall(CallLog callLog);
+
     /**
      * Retrieves paginated call logs.
      *
@@ -34,4 +49,50 @@ public interface CallLogService {
      * @return a Flux<CallLog> containing the call logs.
      */
     Flux<CallLog> getCallLogs(int page, int size);
+
+    /**
+     * Retrieves a page of call logs using keyset pagination.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page.
+     * @param size the page size.
+     * @return a Mono<CallLogPage> containing the call logs and the cursor of the next page.
+     */
+    Mono<CallLogPage> getCallLogPage(String cursor, int size);
+
+    /**
+     * Retrieves the call logs since the given time whose first number is greater than the given value.
+     *
+     * @param minNumber1 the exclusive lower bound of the first number.
+     * @param since the inclusive start of the time range.
+     * @param size the maximum number of call logs to return.
+     * @return a Flux<CallLog> containing the call logs, newest first.
+     */
+    Flux<CallLog> searchByNumber1(Double minNumber1, LocalDateTime since, int size);
+
+    /**
+     * Streams all the call logs of a time range in chronological order.
+     *
+     * @param from the inclusive start of the range.
+     * @param to the exclusive end of the range.
+     * @return a Flux<CallLog> emitting the call logs as they are read.
+     */
+    Flux<CallLog> exportCallLogs(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Retrieves the statistics of the asynchronous call log pipeline.
+     *
+     * @return a Mono<CallLogPipelineStats> containing the queue depth and counters.
+     */
+    Mono<CallLogPipelineStats> getPipelineStats();
+
+    /**
+     * Retrieves the per-minute call counts and latency sums of a time range,
+     * by endpoint and status class, from the rollups instead of the call logs.
+     *
+     * @param from the inclusive start of the range.
+     * @param to the exclusive end of the range.
+     * @param endpoint the endpoint to restrict the statistics to, or null for all endpoints.
+     * @return a Flux<CallLogRollup> ordered by minute, endpoint and status class.
+     */
+    Flux<CallLogRollup> getCallStats(LocalDateTime from, LocalDateTime to, String endpoint);
 }
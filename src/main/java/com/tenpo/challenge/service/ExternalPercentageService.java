@@ -20,4 +20,24 @@ public interface ExternalPercentageService {
      * @return a Mono<Double> containing the percentage.
      */
     Mono<Double> getPercentage();
+
+    /**
+     * Reloads the percentage into any local cache, so later reads do not have to wait for it.
+     *
+     * @return a Mono<Double> containing the reloaded percentage.
+     */
+    Mono<Double> refresh();
+
+    /**
+     * Replaces the percentage in any local cache with one announced by another instance.
+     *
+     * @param percentage the new percentage.
+     */
+    void update(double percentage);
+
+    /**
+     * Reloads the percentage into any local cache in the background, for example after it changed
+     * or expired in the shared cache. The current copy keeps being served meanwhile.
+     */
+    void invalidate();
 }
@@ -0,0 +1,31 @@
+package com.tenpo.challenge.service;
+
+import com.tenpo.challenge.dto.LatencyPercentiles;
+import reactor.core.publisher.Flux;
+
+/**
+ * Service interface for call latency statistics.
+ * This interface defines methods to record the duration of a call and retrieve
+ * the latency percentiles of each endpoint, kept in memory since the application started.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+public interface LatencyStatsService {
+
+    /**
+     * Records the duration of a call to an endpoint.
+     *
+     * @param endpoint the endpoint of the call.
+     * @param durationMicros the duration of the call in microseconds.
+     */
+    void record(String endpoint, long durationMicros);
+
+    /**
+     * Retrieves the latency percentiles of each endpoint.
+     *
+     * @return a Flux<LatencyPercentiles> with one element per endpoint.
+     */
+    Flux<LatencyPercentiles> getLatencyStats();
+}
@@ -0,0 +1,22 @@
+package com.tenpo.challenge.service;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Source of truth of the dynamic percentage.
+ * The ExternalPercentageService only calls the provider when the percentage is not cached,
+ * so implementations do not cache it themselves.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+public interface PercentageProvider {
+
+    /**
+     * Fetches the current percentage.
+     *
+     * @return a Mono<Double> containing the percentage.
+     */
+    Mono<Double> fetchPercentage();
+}
@@ -0,0 +1,42 @@
+package com.tenpo.challenge.service;
+
+import com.tenpo.challenge.config.RateLimitPolicy;
+import io.github.bucket4j.ConsumptionProbe;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service interface for rate limiting.
+ * This interface defines methods to take tokens from the rate limit bucket of a key under a policy.
+ * Implementations decide where the buckets live: in this instance, or shared by all the instances.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+public interface RateLimiterService {
+
+    /**
+     * Tries to take one token from the rate limit bucket of the given key.
+     * The bucket is created with the limits of the policy if it does not exist.
+     *
+     * @param key the key of the bucket, as resolved from the request and the policy.
+     * @param policy the rate limit policy of the request.
+     * @return a Mono<ConsumptionProbe> telling whether the token was taken, the remaining tokens,
+     * and the time to wait for a refill otherwise.
+     */
+    default Mono<ConsumptionProbe> tryConsume(String key, RateLimitPolicy policy) {
+        return tryConsume(key, policy, 1);
+    }
+
+    /**
+     * Tries to take the given number of tokens from the rate limit bucket of the given key, all or none.
+     * The bucket is created with the limits of the policy if it does not exist.
+     *
+     * @param key the key of the bucket, as resolved from the request and the policy.
+     * @param policy the rate limit policy of the request.
+     * @param tokens the number of tokens to take.
+     * @return a Mono<ConsumptionProbe> telling whether the tokens were taken, the remaining tokens,
+     * and the time to wait for a refill otherwise.
+     */
+    Mono<ConsumptionProbe> tryConsume(String key, RateLimitPolicy policy, long tokens);
+}
@@ -0,0 +1,22 @@
+package com.tenpo.challenge.service;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Service interface for the startup warm-up.
+ * This interface defines a method to prepare a new instance before it receives traffic:
+ * opening the connections it needs, loading the cached data and warming up the hot code paths.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+public interface WarmupService {
+
+    /**
+     * Runs the warm-up. Failed steps are logged and skipped, so the warm-up never fails the startup.
+     *
+     * @return a Mono<Void> that completes when every step has finished or timed out.
+     */
+    Mono<Void> warmUp();
+}
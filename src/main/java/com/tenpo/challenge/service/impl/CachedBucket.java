@@ -0,0 +1,70 @@
+package com.tenpo.challenge.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tenpo.challenge.config.RateLimitPolicy;
+
+import java.time.Duration;
+
+/**
+ * Bucket kept in memory by the rate limiter services, with the time it may stay unused before it is discarded.
+ * That time is never shorter than the longest refill period of the policy of the bucket, so a discarded bucket
+ * would have been full again anyway and a client cannot reset a drained bucket by pausing, whatever the periods
+ * of the policy table.
+ *
+ * @param bucket the bucket.
+ * @param expireAfterAccessNanos the time without access after which the bucket is discarded.
+ * @param <B> the type of the bucket.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+record CachedBucket<B>(B bucket, long expireAfterAccessNanos) {
+
+    /**
+     * Wraps a new bucket of a policy.
+     *
+     * @param bucket the bucket.
+     * @param policy the rate limit policy of the bucket.
+     * @param minExpireAfterAccess the shortest time without access after which a bucket is discarded.
+     * @param <B> the type of the bucket.
+     * @return the bucket with its expiry.
+     */
+    static <B> CachedBucket<B> of(B bucket, RateLimitPolicy policy, Duration minExpireAfterAccess) {
+        return new CachedBucket<>(bucket,
+                Math.max(minExpireAfterAccess.toNanos(), policy.getLongestRefillPeriod().toNanos()));
+    }
+
+    /**
+     * Creates a cache of buckets bounded in size, where each bucket expires after its own time without access.
+     *
+     * @param maxKeys the maximum number of buckets kept in memory.
+     * @param <B> the type of the buckets.
+     * @return the cache of buckets by key.
+     */
+    static <B> Cache<String, CachedBucket<B>> newCache(long maxKeys) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfter(new Expiry<String, CachedBucket<B>>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedBucket<B> value, long currentTime) {
+                        return value.expireAfterAccessNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedBucket<B> value, long currentTime,
+                                                  long currentDuration) {
+                        return value.expireAfterAccessNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedBucket<B> value, long currentTime,
+                                                long currentDuration) {
+                        return value.expireAfterAccessNanos();
+                    }
+                })
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.tenpo.challenge.service.impl;
 
+import com.tenpo.challenge.dto.CalculationBatch;
 import com.tenpo.challenge.service.CalculationService;
 import com.tenpo.challenge.service.ExternalPercentageService;
 import org.springframework.stereotype.Service;
@@ -9,6 +10,7 @@ import reactor.core.publisher.Mono;
  * Service implementation for calculations.
  * This service performs calculations using two numbers and an external percentage.
  * It retrieves the percentage from an external service and applies it to the sum of the two numbers.
+ * Batches look up the percentage once and apply it to every pair in a loop over primitive doubles.
  *
  * @author bbeltran
  * @version 1.0
@@ -40,4 +42,25 @@ public class CalculationServiceImpl implements CalculationService {
         return externalPercentageService.getPercentage()
                 .map(percentage -> number1 + number2 + (number1 + number2) * percentage/100);
     }
+
+    /**
+     * Calculates the result of every pair of a batch with a single lookup of the external percentage.
+     *
+     * @param batch the pairs of numbers.
+     * @return a Mono<double[]> containing the results, in the order of the pairs.
+     */
+    @Override
+    public Mono<double[]> calculate(CalculationBatch batch) {
+        return externalPercentageService.getPercentage()
+                .map(percentage -> {
+                    double p = percentage;
+                    int size = batch.size();
+                    double[] results = new double[size];
+                    for (int i = 0; i < size; i++) {
+                        double sum = batch.number1(i) + batch.number2(i);
+                        results[i] = sum + sum * p/100;
+                    }
+                    return results;
+                });
+    }
 }
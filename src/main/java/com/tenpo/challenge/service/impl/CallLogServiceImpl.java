@@ -1,19 +1,32 @@
 package com.tenpo.challenge.service.impl;
 
+import com.tenpo.challenge.dto.CallLogCursor;
+import com.tenpo.challenge.dto.CallLogPage;
+import com.tenpo.challenge.dto.CallLogPipelineStats;
+import com.tenpo.challenge.dto.CallLogRollup;
+import com.tenpo.challenge.exception.InvalidPageException;
 import com.tenpo.challenge.model.CallLog;
+import com.tenpo.challenge.repository.CallLogBulkRepository;
 import com.tenpo.challenge.repository.CallLogRepository;
+import com.tenpo.challenge.repository.CallLogRollupRepository;
 import com.tenpo.challenge.service.CallLogService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Implementation of the call log service.
  * This service handles the logging and retrieval of call logs.
  * It provides methods to log a call and retrieve paginated call logs.
+ * Calls are handed to the CallLogWriter, which writes them to the database in batches.
+ * Page sizes are capped, and offset pagination only reaches a bounded number of rows,
+ * since every deeper page would scan and discard all the rows before it.
  *
  * @author bbeltran
  * @version 1.0
@@ -23,18 +36,37 @@ import java.time.LocalDateTime;
 public class CallLogServiceImpl implements CallLogService {
 
     private final CallLogRepository callLogRepository;
+    private final CallLogBulkRepository callLogBulkRepository;
+    private final CallLogRollupRepository callLogRollupRepository;
+    private final CallLogWriter callLogWriter;
+    private final int maxPageSize;
+    private final long maxOffset;
 
     /**
-     * Constructs a new instance of CallLogServiceImpl with the specified repository.
+     * Constructs a new instance of CallLogServiceImpl with the specified repositories and writer.
      *
      * @param callLogRepository the repository used to access call logs.
+     * @param callLogBulkRepository the repository used to stream call logs.
+     * @param callLogRollupRepository the repository used to read the per-minute rollups.
+     * @param callLogWriter the writer used to persist call logs asynchronously.
+     * @param maxPageSize the maximum number of call logs returned in a page.
+     * @param maxOffset the maximum number of rows skipped by offset pagination.
      */
-    public CallLogServiceImpl(CallLogRepository callLogRepository) {
+    public CallLogServiceImpl(CallLogRepository callLogRepository, CallLogBulkRepository callLogBulkRepository,
+                              CallLogRollupRepository callLogRollupRepository, CallLogWriter callLogWriter,
+                              @Value("${call-log.page.max-size:100}") int maxPageSize,
+                              @Value("${call-log.page.max-offset:10000}") long maxOffset) {
         this.callLogRepository = callLogRepository;
+        this.callLogBulkRepository = callLogBulkRepository;
+        this.callLogRollupRepository = callLogRollupRepository;
+        this.callLogWriter = callLogWriter;
+        this.maxPageSize = maxPageSize;
+        this.maxOffset = maxOffset;
     }
 
     /**
      * Logs a call with the specified details.
+     * The call log is only enqueued; it is written to the database by the CallLogWriter.
      *
      * @param endpoint the endpoint of the call.
      * @param parameters the parameters of the call.
@@ -53,21 +85,132 @@ public class CallLogServiceImpl implements CallLogService {
         callLog.setError(error);
         callLog.setStatusCode(statusCode);
 
-        return callLogRepository.save(callLog)
-                .onErrorResume(e -> Mono.empty())
-                .then();
+        return logCall(callLog);
+    }
+
+    /**
+     * Logs a call described by the specified call log.
+     * The call log is only enqueued; it is written to the database by the CallLogWriter.
+     * When the writer may block on a full queue, the enqueue runs on the bounded elastic scheduler
+     * so that it never parks the event loop of the request.
+     *
+     * @param callLog the call log to store.
+     * @return a Mono<Void> indicating the completion of the logging.
+     */
+    @Override
+    public Mono<Void> logCall(CallLog callLog) {
+        Mono<Void> enqueue = Mono.fromRunnable(() -> {
+            if (callLog.getTimestamp() == null) {
+                callLog.setTimestamp(LocalDateTime.now());
+            }
+            callLogWriter.enqueue(callLog);
+        });
+        return callLogWriter.mayBlock() ? enqueue.subscribeOn(Schedulers.boundedElastic()) : enqueue;
     }
 
     /**
      * Retrieves paginated call logs.
+     * The page size is capped, and pages deeper than the maximum offset are rejected;
+     * deeper call logs are read with the keyset pagination of {@link #getCallLogPage}.
      *
      * @param page the page number.
      * @param size the page size.
      * @return a Flux<CallLog> containing the call logs.
+     * @throws InvalidPageException if the page is negative or deeper than the maximum offset.
      */
     @Override
     public Flux<CallLog> getCallLogs(int page, int size) {
-        PageRequest pageRequest = PageRequest.of(page, size);
+        int pageSize = pageSize(size);
+        if (page < 0 || (long) page * pageSize > maxOffset) {
+            throw new InvalidPageException("Page " + page + " of size " + pageSize + " is out of range, offset "
+                    + "pagination is limited to " + maxOffset + " rows; use /call-logs/page to read further");
+        }
+        PageRequest pageRequest = PageRequest.of(page, pageSize);
         return callLogRepository.findAllByOrderByTimestampDesc(pageRequest);
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves a page of call logs using keyset pagination.
+     * One extra row is read to know whether a next page exists.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page.
+     * @param size the page size, capped at the maximum page size.
+     * @return a Mono<CallLogPage> containing the call logs and the cursor of the next page.
+     */
+    @Override
+    public Mono<CallLogPage> getCallLogPage(String cursor, int size) {
+        int pageSize = pageSize(size);
+        Flux<CallLog> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = callLogRepository.findFirstPage(pageSize + 1);
+        } else {
+            CallLogCursor position = CallLogCursor.decode(cursor);
+            rows = callLogRepository.findPageBefore(position.getTimestamp(), position.getId(), pageSize + 1);
+        }
+        return rows.collectList().map(callLogs -> {
+            if (callLogs.size() <= pageSize) {
+                return new CallLogPage(callLogs, null);
+            }
+            List<CallLog> items = callLogs.subList(0, pageSize);
+            return new CallLogPage(items, CallLogCursor.of(items.get(pageSize - 1)).encode());
+        });
+    }
+
+    /**
+     * Retrieves the call logs since the given time whose first number is greater than the given value.
+     *
+     * @param minNumber1 the exclusive lower bound of the first number.
+     * @param since the inclusive start of the time range.
+     * @param size the maximum number of call logs to return.
+     * @return a Flux<CallLog> containing the call logs, newest first.
+     */
+    @Override
+    public Flux<CallLog> searchByNumber1(Double minNumber1, LocalDateTime since, int size) {
+        return callLogRepository.findByNumber1GreaterThanSince(minNumber1, since, size);
+    }
+
+    /**
+     * Streams all the call logs of a time range in chronological order.
+     *
+     * @param from the inclusive start of the range.
+     * @param to the exclusive end of the range.
+     * @return a Flux<CallLog> emitting the call logs as they are read.
+     */
+    @Override
+    public Flux<CallLog> exportCallLogs(LocalDateTime from, LocalDateTime to) {
+        return callLogBulkRepository.streamRange(from, to);
+    }
+
+    /**
+     * Retrieves the statistics of the asynchronous call log pipeline.
+     *
+     * @return a Mono<CallLogPipelineStats> containing the queue depth and counters.
+     */
+    @Override
+    public Mono<CallLogPipelineStats> getPipelineStats() {
+        return Mono.fromSupplier(callLogWriter::getStats);
+    }
+
+    /**
+     * Retrieves the per-minute call counts and latency sums of a time range from the rollups.
+     *
+     * @param from the inclusive start of the range.
+     * @param to the exclusive end of the range.
+     * @param endpoint the endpoint to restrict the statistics to, or null for all endpoints.
+     * @return a Flux<CallLogRollup> ordered by minute, endpoint and status class.
+     */
+    @Override
+    public Flux<CallLogRollup> getCallStats(LocalDateTime from, LocalDateTime to, String endpoint) {
+        return callLogRollupRepository.findRange(from, to, endpoint);
+    }
+
+    /**
+     * Clamps a requested page size between one and the maximum page size.
+     *
+     * @param size the requested page size.
+     * @return the page size to read.
+     */
+    private int pageSize(int size) {
+        return Math.min(Math.max(size, 1), maxPageSize);
+    }
+}
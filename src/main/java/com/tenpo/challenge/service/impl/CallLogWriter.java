@@ -0,0 +1,243 @@
+package com.tenpo.challenge.service.impl;
+
+import com.tenpo.challenge.dto.CallLogPipelineStats;
+import com.tenpo.challenge.model.CallLog;
+import com.tenpo.challenge.repository.CallLogBulkRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous, batched writer for call logs.
+ * Call logs are placed in a bounded in-memory queue and a background thread drains it,
+ * writing multi-row inserts whenever the batch size is reached or the maximum delay elapses.
+ * The caller only pays the cost of an enqueue; when the queue is full the configured
+ * overflow policy decides which call log is discarded. Only the BLOCK policy makes the caller
+ * wait, so callers on an event loop must enqueue from another thread when {@link #mayBlock()}.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Component
+public class CallLogWriter {
+
+    /**
+     * Policy applied when a call log is enqueued and the queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Discards the oldest queued call log to make room for the new one. */
+        DROP_OLDEST,
+        /** Discards the new call log. */
+        DROP_NEWEST,
+        /** Waits up to the block timeout for free space, then discards the new call log. */
+        BLOCK
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(CallLogWriter.class);
+
+    private final CallLogBulkRepository callLogBulkRepository;
+    private final BlockingQueue<CallLog> queue;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final Duration maxDelay;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration blockTimeout;
+    private final Duration flushTimeout;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    /**
+     * Constructs a new CallLogWriter with the specified repository and settings.
+     *
+     * @param callLogBulkRepository the repository used to write batches of call logs.
+     * @param queueCapacity the maximum number of call logs waiting to be written.
+     * @param batchSize the maximum number of call logs written in a single insert.
+     * @param maxDelayMs the maximum time in milliseconds a call log waits before its batch is flushed.
+     * @param overflowPolicy the policy applied when the queue is full.
+     * @param blockTimeoutMs the maximum time in milliseconds an enqueue waits under the BLOCK policy.
+     * @param flushTimeoutMs the maximum time in milliseconds a batch insert may take.
+     * @throws IllegalArgumentException if the batch size does not fit in a single insert.
+     */
+    public CallLogWriter(CallLogBulkRepository callLogBulkRepository,
+                         @Value("${call-log.writer.queue-capacity:10000}") int queueCapacity,
+                         @Value("${call-log.writer.batch-size:200}") int batchSize,
+                         @Value("${call-log.writer.max-delay-ms:200}") long maxDelayMs,
+                         @Value("${call-log.writer.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+                         @Value("${call-log.writer.block-timeout-ms:5}") long blockTimeoutMs,
+                         @Value("${call-log.writer.flush-timeout-ms:10000}") long flushTimeoutMs) {
+        if (batchSize < 1 || batchSize > CallLogBulkRepository.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Invalid call-log.writer.batch-size: " + batchSize
+                    + ", must be between 1 and " + CallLogBulkRepository.MAX_BATCH_SIZE);
+        }
+        this.callLogBulkRepository = callLogBulkRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.maxDelay = Duration.ofMillis(maxDelayMs);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeout = Duration.ofMillis(blockTimeoutMs);
+        this.flushTimeout = Duration.ofMillis(flushTimeoutMs);
+    }
+
+    /**
+     * Starts the background thread that drains the queue.
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "call-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops the background thread, flushing the call logs still queued.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker == null) {
+            return;
+        }
+        try {
+            worker.join(maxDelay.plus(flushTimeout).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Enqueues a call log to be written in the background.
+     *
+     * @param callLog the call log to write.
+     * @return true if the call log was queued, false if it was dropped.
+     */
+    public boolean enqueue(CallLog callLog) {
+        boolean accepted = switch (overflowPolicy) {
+            case DROP_NEWEST -> queue.offer(callLog);
+            case DROP_OLDEST -> offerDroppingOldest(callLog);
+            case BLOCK -> offerWithTimeout(callLog);
+        };
+        if (accepted) {
+            enqueued.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+        return accepted;
+    }
+
+    /**
+     * Indicates whether an enqueue may wait for free space in the queue, which is the case under the BLOCK policy.
+     *
+     * @return true if enqueue may block the calling thread.
+     */
+    public boolean mayBlock() {
+        return overflowPolicy == OverflowPolicy.BLOCK;
+    }
+
+    /**
+     * Returns a snapshot of the queue depth and counters.
+     *
+     * @return the current pipeline statistics.
+     */
+    public CallLogPipelineStats getStats() {
+        return new CallLogPipelineStats(queue.size(), queueCapacity, overflowPolicy.name(),
+                enqueued.get(), dropped.get(), written.get(), failed.get());
+    }
+
+    private boolean offerDroppingOldest(CallLog callLog) {
+        while (!queue.offer(callLog)) {
+            if (queue.poll() != null) {
+                dropped.incrementAndGet();
+            }
+        }
+        return true;
+    }
+
+    private boolean offerWithTimeout(CallLog callLog) {
+        try {
+            return queue.offer(callLog, blockTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Drains the queue until the writer is stopped and every queued call log has been flushed.
+     */
+    private void drainLoop() {
+        List<CallLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                CallLog first = queue.poll(maxDelay.toNanos(), TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Adds queued call logs to the batch until it is full or the maximum delay elapses.
+     *
+     * @param batch the batch being filled.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    private void fillBatch(List<CallLog> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxDelay.toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            CallLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Writes a batch of call logs, counting it as failed if the insert does not succeed.
+     *
+     * @param batch the call logs to write.
+     */
+    void flush(List<CallLog> batch) {
+        try {
+            callLogBulkRepository.insertAll(batch).block(flushTimeout);
+            written.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            failed.addAndGet(batch.size());
+            logger.warn("Failed to write {} call logs: {}", batch.size(), e.getMessage());
+        }
+    }
+}
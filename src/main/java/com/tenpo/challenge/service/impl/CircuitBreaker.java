@@ -0,0 +1,107 @@
+package com.tenpo.challenge.service.impl;
+
+import java.time.Clock;
+
+/**
+ * Circuit breaker of the calls to a dependency.
+ * The circuit opens after a number of consecutive failed calls, and while open every call is
+ * rejected right away instead of waiting for the dependency to time out. Once the open duration
+ * has passed, a single trial call is let through: its success closes the circuit and its failure
+ * opens it again.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+public class CircuitBreaker {
+
+    /**
+     * State of the circuit.
+     */
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtMillis;
+
+    /**
+     * Constructs a new CircuitBreaker.
+     *
+     * @param failureThreshold the number of consecutive failed calls that opens the circuit.
+     * @param openMillis how long the circuit stays open before a trial call is let through.
+     * @param clock the clock the open duration is measured with.
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis, Clock clock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Invalid circuit breaker failure threshold: " + failureThreshold);
+        }
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Indicates whether a call may be made.
+     *
+     * @return true if the call may proceed; its outcome must then be reported with
+     *         {@link #onSuccess} or {@link #onFailure}.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.millis() - openedAtMillis < openMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                return true;
+            default:
+                // Only the trial call is let through while half open
+                return false;
+        }
+    }
+
+    /**
+     * Reports a successful call, which closes the circuit.
+     */
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Reports a failed call, which opens the circuit if it was the trial call or one failure too many.
+     */
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAtMillis = clock.millis();
+        }
+    }
+
+    /**
+     * Reports a call that was cancelled before its outcome was known, so that a trial call
+     * that was cancelled does not leave the circuit half open.
+     */
+    public synchronized void onCancel() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openedAtMillis = clock.millis() - openMillis;
+        }
+    }
+
+    /**
+     * Returns the current state of the circuit.
+     *
+     * @return the state, as of the last call.
+     */
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,213 @@
+package com.tenpo.challenge.service.impl;
+
+import com.tenpo.challenge.config.ExternalServiceProperties;
+import com.tenpo.challenge.exception.ExternalServiceException;
+import com.tenpo.challenge.service.PercentageProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Provider of the dynamic percentage backed by the external service.
+ * Each call is guarded by a circuit breaker, so while the external service keeps failing calls fail
+ * right away instead of holding a pooled connection until they time out. Failed calls are retried with
+ * jittered exponential backoff, and with hedging enabled a call slower than the configured percentile of
+ * the recent calls is raced by a second one.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Service
+public class ExternalPercentageProvider implements PercentageProvider {
+
+    private static final int MIN_HEDGING_SAMPLES = 20;
+
+    private final WebClient webClient;
+    private final ExternalServiceProperties properties;
+    private final CircuitBreaker circuitBreaker;
+    private final long[] latencies;
+    private int latencyCount;
+    private int nextLatency;
+
+    /**
+     * Constructs a new ExternalPercentageProvider with the specified WebClient and settings.
+     *
+     * @param webClient the WebClient of the external service.
+     * @param properties the external service settings.
+     */
+    @Autowired
+    public ExternalPercentageProvider(@Qualifier("externalServiceWebClient") WebClient webClient,
+                                      ExternalServiceProperties properties) {
+        this(webClient, properties, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a new ExternalPercentageProvider with the specified clock.
+     *
+     * @param webClient the WebClient of the external service.
+     * @param properties the external service settings.
+     * @param clock the clock the circuit breaker measures its open duration with.
+     */
+    public ExternalPercentageProvider(WebClient webClient, ExternalServiceProperties properties, Clock clock) {
+        this.webClient = webClient;
+        this.properties = properties;
+        ExternalServiceProperties.CircuitBreaker breaker = properties.getCircuitBreaker();
+        this.circuitBreaker = breaker.isEnabled()
+                ? new CircuitBreaker(breaker.getFailureThreshold(), breaker.getOpenDuration().toMillis(), clock)
+                : null;
+        this.latencies = new long[Math.max(properties.getHedging().getWindow(), 1)];
+    }
+
+    /**
+     * Fetches the percentage from the external service, or returns the mock percentage if one is set.
+     *
+     * @return a Mono<Double> containing the fetched percentage.
+     */
+    @Override
+    public Mono<Double> fetchPercentage() {
+        Double mockPercentage = properties.getMockPercentage();
+        if (mockPercentage != null) {
+            return Mono.just(mockPercentage);
+        }
+        ExternalServiceProperties.Retry retry = properties.getRetry();
+        return Mono.defer(this::hedgedCall)
+                .retryWhen(Retry.backoff(retry.getMaxRetries(), retry.getInitialBackoff())
+                        .maxBackoff(retry.getMaxBackoff())
+                        .jitter(retry.getJitter())
+                        .filter(ExternalPercentageProvider::isRetryable))
+                .onErrorMap(e -> new ExternalServiceException(failureMessage(e), e));
+    }
+
+    /**
+     * Returns the circuit breaker of the calls to the external service.
+     *
+     * @return the circuit breaker, or null if it is disabled.
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Calls the external service and, with hedging enabled, sends a second call if the first one has not
+     * answered after the hedging delay. The first value wins; a failed hedged call is ignored, while a
+     * failed first call fails the attempt so that it is retried after its backoff.
+     *
+     * @return a Mono<Double> containing the percentage.
+     */
+    private Mono<Double> hedgedCall() {
+        if (!properties.getHedging().isEnabled()) {
+            return call();
+        }
+        Mono<Double> hedge = Mono.delay(getHedgingDelay())
+                .then(Mono.defer(this::call))
+                .onErrorResume(e -> Mono.never());
+        return Mono.firstWithSignal(call(), hedge);
+    }
+
+    /**
+     * Makes a single call to the external service through the circuit breaker.
+     *
+     * @return a Mono<Double> containing the percentage.
+     */
+    private Mono<Double> call() {
+        return Mono.defer(() -> {
+            if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+                return Mono.error(new CircuitOpenException());
+            }
+            long startNanos = System.nanoTime();
+            Mono<Double> response = webClient.get()
+                    .uri(properties.getPercentagePath())
+                    .retrieve()
+                    .bodyToMono(Double.class)
+                    .switchIfEmpty(Mono.error(() -> new IllegalStateException("Empty percentage response")))
+                    .doOnSuccess(value -> recordLatency(System.nanoTime() - startNanos));
+            if (circuitBreaker == null) {
+                return response;
+            }
+            return response
+                    .doOnSuccess(value -> circuitBreaker.onSuccess())
+                    .doOnError(e -> circuitBreaker.onFailure())
+                    .doOnCancel(circuitBreaker::onCancel);
+        });
+    }
+
+    /**
+     * Records the latency of a successful call in the window the hedging delay is computed from.
+     *
+     * @param latencyNanos the latency of the call.
+     */
+    private synchronized void recordLatency(long latencyNanos) {
+        latencies[nextLatency] = latencyNanos;
+        nextLatency = (nextLatency + 1) % latencies.length;
+        latencyCount = Math.min(latencyCount + 1, latencies.length);
+    }
+
+    /**
+     * Returns how long a call is waited for before it is hedged: the configured percentile of the
+     * recent latencies, and never less than the minimum delay.
+     *
+     * @return the hedging delay.
+     */
+    public Duration getHedgingDelay() {
+        ExternalServiceProperties.Hedging hedging = properties.getHedging();
+        long[] sorted;
+        synchronized (this) {
+            if (latencyCount < Math.min(MIN_HEDGING_SAMPLES, latencies.length)) {
+                return hedging.getMinDelay();
+            }
+            sorted = Arrays.copyOf(latencies, latencyCount);
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(hedging.getPercentile() * sorted.length) - 1;
+        Duration percentile = Duration.ofNanos(sorted[Math.min(Math.max(index, 0), sorted.length - 1)]);
+        return percentile.compareTo(hedging.getMinDelay()) > 0 ? percentile : hedging.getMinDelay();
+    }
+
+    /**
+     * Indicates whether a failed call is worth retrying: neither a rejection of the open circuit breaker
+     * nor a client error other than too many requests is.
+     *
+     * @param e the error of the call.
+     * @return true if the call may be retried.
+     */
+    private static boolean isRetryable(Throwable e) {
+        if (e instanceof CircuitOpenException) {
+            return false;
+        }
+        if (e instanceof WebClientResponseException responseException) {
+            return !responseException.getStatusCode().is4xxClientError()
+                    || responseException.getStatusCode().value() == 429;
+        }
+        return true;
+    }
+
+    private String failureMessage(Throwable e) {
+        if (e instanceof CircuitOpenException) {
+            return "External service circuit breaker is open";
+        }
+        if (Exceptions.isRetryExhausted(e)) {
+            return "Failed to fetch percentage after " + properties.getRetry().getMaxRetries() + " retries";
+        }
+        return "Failed to fetch percentage";
+    }
+
+    /**
+     * Error of a call rejected by the open circuit breaker.
+     */
+    private static class CircuitOpenException extends RuntimeException {
+
+        CircuitOpenException() {
+            super("External service circuit breaker is open", null, false, false);
+        }
+    }
+}
@@ -1,21 +1,44 @@
 package com.tenpo.challenge.service.impl;
 
-import com.tenpo.challenge.exception.ExternalServiceException;
+import com.tenpo.challenge.config.PercentageProperties;
 import com.tenpo.challenge.service.ExternalPercentageService;
-import org.springframework.beans.factory.annotation.Value;
+import com.tenpo.challenge.service.PercentageProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
-import reactor.util.retry.Retry;
 
+import java.time.Clock;
 import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Implementation of the external percentage service.
- * This service retrieves a percentage from an external service and caches it in Redis.
- * It provides methods to get the percentage, either from the cache or by fetching it from the external service.
+ * This service retrieves a percentage from the percentage provider and caches it in Redis.
+ * In front of Redis, the last loaded percentage is kept in memory and served without any I/O.
+ * The in-memory copy is refreshed in the background from Redis (or from the provider on a
+ * Redis miss) once it is older than the refresh interval, so reads never wait for a refresh while
+ * the copy is younger than its time to live. Only the first read, or a read after the copy expired,
+ * waits for a load, and concurrent loads are collapsed into one.
+ * On a Redis miss, the instances race for a short-lived Redis lock: the winner fetches the percentage
+ * from the provider and caches it, while the others poll Redis for it for a short while and, if it
+ * does not show up, keep serving their previous copy.
+ * In stale mode, every fetched percentage is also written to a last-known-good key that lives for the
+ * maximum staleness. An outdated in-memory copy keeps being served up to that age while it is refreshed
+ * in the background, and a Redis miss is answered from the last-known-good key while the provider is
+ * called in the background, so a slow or failing provider does not add to request latency until the
+ * percentage is older than the maximum staleness.
+ * Every percentage fetched from the provider is published on the invalidation channel, and each instance
+ * replaces its in-memory copy with the published value, so all the instances serve the new percentage
+ * within milliseconds while reads stay free of I/O.
  *
  * @author bbeltran
  * @version 1.0
@@ -24,58 +47,316 @@ import java.time.Duration;
 @Service
 public class ExternalPercentageServiceImpl implements ExternalPercentageService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ExternalPercentageServiceImpl.class);
+    private final ReactiveRedisTemplate<String, Double> redisTemplate;
     private final ReactiveValueOperations<String, Double> redisOperations;
+    private final ReactiveStringRedisTemplate stringRedisTemplate;
     private static final String PERCENTAGE_KEY = "dynamic-percentage";
-    private final Duration CACHE_DURATION = Duration.ofMinutes(30);
-    private final WebClient webClient;
+    private static final String LOCK_KEY = PERCENTAGE_KEY + ":lock";
+    private static final String LAST_KNOWN_GOOD_KEY = PERCENTAGE_KEY + ":last-known-good";
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+    private final Duration CACHE_DURATION;
+    private final PercentageProvider percentageProvider;
+    private final PercentageProperties.Lock lock;
+    private final long refreshIntervalMillis;
+    private final long nearCacheTtlMillis;
+    private final long refreshRetryIntervalMillis;
+    private final boolean staleEnabled;
+    private final Duration maxStaleness;
+    private final long servableAgeMillis;
+    private final String invalidationChannel;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Clock clock;
+    private volatile NearCacheEntry nearCache;
+    private volatile long nextRefreshMillis;
+    private final AtomicReference<Mono<NearCacheEntry>> inFlightLoad = new AtomicReference<>();
+    private final AtomicBoolean backgroundFetchRunning = new AtomicBoolean();
 
     /**
-     * Constructs a new instance of ExternalPercentageServiceImpl with the specified Redis template and WebClient builder.
+     * Constructs a new instance of ExternalPercentageServiceImpl with the specified Redis templates and provider.
      *
      * @param redisTemplate the Redis template used for caching the percentage.
-     * @param webClientBuilder the WebClient builder used to create the WebClient for external service calls.
+     * @param stringRedisTemplate the Redis template used for the refresh lock.
+     * @param percentageProvider the provider the percentage is fetched from on a cache miss.
+     * @param properties the caching settings of the percentage.
      */
+    @Autowired
     public ExternalPercentageServiceImpl(ReactiveRedisTemplate<String, Double> redisTemplate,
-                                         WebClient.Builder webClientBuilder) {
+                                         ReactiveStringRedisTemplate stringRedisTemplate,
+                                         PercentageProvider percentageProvider, PercentageProperties properties) {
+        this(redisTemplate, stringRedisTemplate, percentageProvider, properties, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a new instance of ExternalPercentageServiceImpl that reads the time from the specified clock.
+     *
+     * @param redisTemplate the Redis template used for caching the percentage.
+     * @param stringRedisTemplate the Redis template used for the refresh lock.
+     * @param percentageProvider the provider the percentage is fetched from on a cache miss.
+     * @param properties the caching settings of the percentage.
+     * @param clock the clock used to age the in-memory percentage.
+     */
+    public ExternalPercentageServiceImpl(ReactiveRedisTemplate<String, Double> redisTemplate,
+                                         ReactiveStringRedisTemplate stringRedisTemplate,
+                                         PercentageProvider percentageProvider, PercentageProperties properties,
+                                         Clock clock) {
+        this.redisTemplate = redisTemplate;
         this.redisOperations = redisTemplate.opsForValue();
-        String externalServiceUrl = "https://dummy.api.com/api/v1";
-        this.webClient = webClientBuilder.baseUrl(externalServiceUrl).build();
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.percentageProvider = percentageProvider;
+        this.CACHE_DURATION = properties.getCacheDuration();
+        this.lock = properties.getLock();
+        this.refreshIntervalMillis = properties.getNearCache().getRefreshInterval().toMillis();
+        this.nearCacheTtlMillis = Math.max(properties.getNearCache().getTtl().toMillis(), refreshIntervalMillis);
+        this.refreshRetryIntervalMillis = properties.getNearCache().getRefreshRetryInterval().toMillis();
+        this.staleEnabled = properties.getStale().isEnabled();
+        this.maxStaleness = properties.getStale().getMaxStaleness();
+        this.servableAgeMillis = staleEnabled ? Math.max(maxStaleness.toMillis(), nearCacheTtlMillis) : nearCacheTtlMillis;
+        this.invalidationChannel = properties.getInvalidation().isEnabled()
+                ? properties.getInvalidation().getChannel()
+                : null;
+        this.clock = clock;
     }
 
     /**
-     * Retrieves the percentage, either from the cache or by fetching it from the external service.
+     * Retrieves the percentage from the in-memory copy, triggering a background refresh when the copy
+     * is due for one. Waits for a load only when there is no copy or it is too old to be served:
+     * older than the time to live, or than the maximum staleness in stale mode.
      *
      * @return a Mono<Double> containing the percentage.
      */
     public Mono<Double> getPercentage() {
+        NearCacheEntry entry = nearCache;
+        if (entry == null) {
+            return load().flatMap(NearCacheEntry::value);
+        }
+        long age = clock.millis() - entry.loadedAtMillis();
+        if (age >= servableAgeMillis) {
+            return load().flatMap(NearCacheEntry::value);
+        }
+        if (age >= refreshIntervalMillis) {
+            refreshInBackground();
+        }
+        return entry.value();
+    }
+
+    /**
+     * Reloads the percentage into the in-memory copy, joining a load already in progress.
+     *
+     * @return a Mono<Double> containing the reloaded percentage.
+     */
+    @Override
+    public Mono<Double> refresh() {
+        return load().flatMap(NearCacheEntry::value);
+    }
+
+    /**
+     * Replaces the in-memory copy with a percentage published by another instance.
+     *
+     * @param percentage the new percentage.
+     */
+    @Override
+    public void update(double percentage) {
+        nearCache = freshEntry(percentage);
+    }
+
+    /**
+     * Reloads the in-memory copy in the background right away, regardless of the retry interval.
+     */
+    @Override
+    public void invalidate() {
+        nextRefreshMillis = 0;
+        refreshInBackground();
+    }
+
+    /**
+     * Starts a refresh of the in-memory copy without waiting for it, at most once per retry interval,
+     * so a copy that stays outdated while the provider is down does not send every read to Redis.
+     * Failures are logged and the current copy keeps being served until it expires.
+     */
+    private void refreshInBackground() {
+        long now = clock.millis();
+        if (now >= nextRefreshMillis && inFlightLoad.get() == null) {
+            nextRefreshMillis = now + refreshRetryIntervalMillis;
+            load().subscribe(percentage -> { },
+                    error -> logger.warn("Background refresh of the percentage failed: {}", error.toString()));
+        }
+    }
+
+    /**
+     * Loads the percentage from Redis, or from the provider on a Redis miss, and stores it
+     * in the in-memory copy. Only one load runs at a time; concurrent callers share its result.
+     *
+     * @return a Mono<NearCacheEntry> containing the loaded percentage and its age.
+     */
+    private Mono<NearCacheEntry> load() {
+        Mono<NearCacheEntry> current = inFlightLoad.get();
+        if (current != null) {
+            return current;
+        }
+        Mono<NearCacheEntry> load = redisOperations.get(PERCENTAGE_KEY)
+                .map(this::freshEntry)
+                .switchIfEmpty(Mono.defer(this::loadOnMiss))
+                .doOnNext(entry -> nearCache = entry)
+                .doFinally(signal -> inFlightLoad.set(null))
+                .cache();
+        // The load subscribes to Redis once however many callers share it, so it clears the slot once
+        if (!inFlightLoad.compareAndSet(null, load)) {
+            return load();
+        }
+        return load;
+    }
+
+    /**
+     * Handles a Redis miss. In stale mode, the last-known-good percentage is returned right away
+     * and the provider is called in the background; without one, the provider is waited for.
+     *
+     * @return a Mono<NearCacheEntry> containing the percentage and its age.
+     */
+    private Mono<NearCacheEntry> loadOnMiss() {
+        if (!staleEnabled) {
+            return fetchFromProvider().map(this::freshEntry);
+        }
+        return lastKnownGood()
+                .doOnNext(stale -> fetchInBackground())
+                .switchIfEmpty(Mono.defer(() -> fetchFromProvider().map(this::freshEntry)));
+    }
+
+    /**
+     * Reads the last-known-good percentage. Its age is derived from the time left before it expires,
+     * since it is written with the maximum staleness as time to live.
+     *
+     * @return a Mono<NearCacheEntry> containing the stale percentage and its age, or empty if there is none.
+     */
+    private Mono<NearCacheEntry> lastKnownGood() {
+        return Mono.zip(redisOperations.get(LAST_KNOWN_GOOD_KEY),
+                        redisTemplate.getExpire(LAST_KNOWN_GOOD_KEY).defaultIfEmpty(Duration.ZERO))
+                .map(stale -> {
+                    long ageMillis = Math.max(0, maxStaleness.toMillis() - stale.getT2().toMillis());
+                    return new NearCacheEntry(Mono.just(stale.getT1()), clock.millis() - ageMillis);
+                });
+    }
+
+    /**
+     * Fetches the percentage from the provider without waiting for it, updating the in-memory copy
+     * when it arrives. Only one background fetch runs at a time.
+     */
+    private void fetchInBackground() {
+        if (backgroundFetchRunning.compareAndSet(false, true)) {
+            fetchFromProvider()
+                    .doFinally(signal -> backgroundFetchRunning.set(false))
+                    .subscribe(percentage -> nearCache = freshEntry(percentage),
+                            error -> logger.warn("Background fetch of the percentage failed, serving the "
+                                    + "last-known-good value: {}", error.toString()));
+        }
+    }
+
+    /**
+     * Fetches the percentage from the provider. With the refresh lock enabled, only the instance
+     * that takes the lock fetches the percentage; the others wait for it.
+     *
+     * @return a Mono<Double> containing the percentage.
+     */
+    private Mono<Double> fetchFromProvider() {
+        if (!lock.isEnabled()) {
+            return fetchAndCachePercentage();
+        }
+        return stringRedisTemplate.opsForValue().setIfAbsent(LOCK_KEY, nodeId, lock.getTtl())
+                .flatMap(acquired -> acquired ? fetchAndCacheHoldingLock() : awaitOtherInstance());
+    }
+
+    /**
+     * Fetches and caches the percentage while holding the refresh lock, releasing it afterwards.
+     * The cached percentage is checked again first, since another instance may have cached it
+     * and released the lock between the miss and the acquisition.
+     *
+     * @return a Mono<Double> containing the fetched percentage.
+     */
+    private Mono<Double> fetchAndCacheHoldingLock() {
+        return redisOperations.get(PERCENTAGE_KEY)
+                .switchIfEmpty(Mono.defer(this::fetchAndCachePercentage))
+                .flatMap(percentage -> releaseLock().thenReturn(percentage))
+                .onErrorResume(e -> releaseLock().then(Mono.error(e)));
+    }
+
+    /**
+     * Waits for the instance holding the refresh lock to cache the percentage in Redis.
+     * If it does not show up in time, serves the previous in-memory copy, or fetches the
+     * percentage itself when there is none.
+     *
+     * @return a Mono<Double> containing the percentage.
+     */
+    private Mono<Double> awaitOtherInstance() {
+        long polls = Math.max(1, lock.getWait().toMillis() / Math.max(1, lock.getPollInterval().toMillis()));
         return redisOperations.get(PERCENTAGE_KEY)
-                .switchIfEmpty(fetchAndCachePercentage());
+                .repeatWhenEmpty((int) polls, attempts -> attempts.delayElements(lock.getPollInterval()))
+                .onErrorResume(IllegalStateException.class, e -> Mono.empty())
+                .switchIfEmpty(Mono.defer(() -> {
+                    NearCacheEntry previous = nearCache;
+                    if (previous != null) {
+                        logger.warn("Percentage refresh lock still held by another instance, serving previous value");
+                        return previous.value();
+                    }
+                    return fetchAndCachePercentage();
+                }));
+    }
+
+    /**
+     * Releases the refresh lock if this instance still holds it.
+     * Failures are ignored, since the lock expires on its own.
+     *
+     * @return a Mono<Void> indicating the completion of the release.
+     */
+    private Mono<Void> releaseLock() {
+        return stringRedisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(LOCK_KEY), List.of(nodeId))
+                .then()
+                .onErrorResume(e -> Mono.empty());
     }
 
     /**
-     * Fetches the percentage from the external service and caches it in Redis.
-     * Happy path
+     * Fetches the percentage from the provider and caches it in Redis, also as the last-known-good
+     * percentage in stale mode, then publishes it to the other instances.
+     *
      * @return a Mono<Double> containing the fetched percentage.
      */
     private Mono<Double> fetchAndCachePercentage() {
-        double mockPercentage = 10.0;
-        return redisOperations.set(PERCENTAGE_KEY, mockPercentage, CACHE_DURATION)
-                .thenReturn(mockPercentage);
-    }
-
-//    /**
-//     * Fetches the percentage from the external service and caches it in Redis.
-//     * Unappy path
-//     * @return a Mono<Double> containing the fetched percentage.
-//     */
-//    private Mono<Double> fetchAndCachePercentage() {
-//        return webClient.get()
-//                .uri("/percentage")
-//                .retrieve()
-//                .bodyToMono(Double.class)
-//                .retryWhen(Retry.fixedDelay(3, Duration.ofSeconds(1)))
-//                .onErrorMap(e -> new ExternalServiceException("Failed to fetch percentage after 3 retries", e))
-//                .flatMap(percentage -> redisOperations.set(PERCENTAGE_KEY, percentage, CACHE_DURATION)
-//                        .thenReturn(percentage));
-//    }
+        return percentageProvider.fetchPercentage()
+                .flatMap(percentage -> redisOperations.set(PERCENTAGE_KEY, percentage, CACHE_DURATION)
+                        .then(staleEnabled
+                                ? redisOperations.set(LAST_KNOWN_GOOD_KEY, percentage, maxStaleness)
+                                : Mono.empty())
+                        .then(publish(percentage))
+                        .thenReturn(percentage));
+    }
+
+    /**
+     * Publishes a fetched percentage on the invalidation channel.
+     * Failures are only logged, since the other instances still pick it up on their next refresh.
+     *
+     * @param percentage the fetched percentage.
+     * @return a Mono<Void> indicating the completion of the publication.
+     */
+    private Mono<Void> publish(double percentage) {
+        if (invalidationChannel == null) {
+            return Mono.empty();
+        }
+        return stringRedisTemplate.convertAndSend(invalidationChannel, Double.toString(percentage))
+                .then()
+                .onErrorResume(e -> {
+                    logger.warn("Could not publish the new percentage: {}", e.toString());
+                    return Mono.empty();
+                });
+    }
+
+    private NearCacheEntry freshEntry(double percentage) {
+        return new NearCacheEntry(Mono.just(percentage), clock.millis());
+    }
+
+    /**
+     * In-memory copy of the percentage, kept as a completed Mono so serving it allocates nothing.
+     */
+    private record NearCacheEntry(Mono<Double> value, long loadedAtMillis) {
+    }
 }
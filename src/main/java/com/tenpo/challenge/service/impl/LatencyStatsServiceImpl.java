@@ -0,0 +1,110 @@
+package com.tenpo.challenge.service.impl;
+
+import com.tenpo.challenge.dto.LatencyPercentiles;
+import com.tenpo.challenge.service.LatencyStatsService;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of the latency statistics service.
+ * Durations are recorded into one HdrHistogram Recorder per endpoint, which is wait-free
+ * for the request threads. Reading the statistics drains each recorder into a cumulative histogram.
+ * Endpoints are the route patterns reported by the call logging filter, so their number is bounded
+ * by the routes of the application; the cap on tracked endpoints is a safeguard, past which calls
+ * are recorded under "other".
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Service
+public class LatencyStatsServiceImpl implements LatencyStatsService {
+
+    static final String OTHER_ENDPOINT = "other";
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Map<String, EndpointLatency> latencies = new ConcurrentHashMap<>();
+    private final int maxEndpoints;
+    private final long highestTrackableMicros;
+
+    /**
+     * Constructs a new LatencyStatsServiceImpl with the specified limits.
+     *
+     * @param maxEndpoints the maximum number of endpoints tracked separately.
+     * @param highestTrackableMicros the highest duration in microseconds that can be recorded; longer ones are clamped.
+     */
+    public LatencyStatsServiceImpl(@Value("${call-log.latency.max-endpoints:256}") int maxEndpoints,
+                                   @Value("${call-log.latency.highest-trackable-micros:60000000}") long highestTrackableMicros) {
+        this.maxEndpoints = maxEndpoints;
+        this.highestTrackableMicros = highestTrackableMicros;
+    }
+
+    /**
+     * Records the duration of a call to an endpoint.
+     *
+     * @param endpoint the endpoint of the call.
+     * @param durationMicros the duration of the call in microseconds.
+     */
+    @Override
+    public void record(String endpoint, long durationMicros) {
+        long value = Math.min(Math.max(durationMicros, 0), highestTrackableMicros);
+        latencyOf(endpoint).recorder.recordValue(value);
+    }
+
+    /**
+     * Retrieves the latency percentiles of each endpoint, ordered by endpoint.
+     *
+     * @return a Flux<LatencyPercentiles> with one element per endpoint.
+     */
+    @Override
+    public Flux<LatencyPercentiles> getLatencyStats() {
+        return Flux.defer(() -> Flux.fromIterable(latencies.entrySet())
+                .map(entry -> entry.getValue().percentiles(entry.getKey()))
+                .sort(Comparator.comparing(LatencyPercentiles::getEndpoint)));
+    }
+
+    /**
+     * Returns the latency of the endpoint, or of the "other" bucket when the cap has been reached.
+     *
+     * @param endpoint the endpoint of the call.
+     * @return the latency of the endpoint.
+     */
+    private EndpointLatency latencyOf(String endpoint) {
+        EndpointLatency latency = latencies.get(endpoint);
+        if (latency != null) {
+            return latency;
+        }
+        String key = latencies.size() < maxEndpoints ? endpoint : OTHER_ENDPOINT;
+        return latencies.computeIfAbsent(key, ignored -> new EndpointLatency(highestTrackableMicros));
+    }
+
+    /**
+     * Recorder and cumulative histogram of the calls to a single endpoint.
+     */
+    private static final class EndpointLatency {
+
+        private final Recorder recorder;
+        private final Histogram total;
+        private Histogram interval;
+
+        EndpointLatency(long highestTrackableMicros) {
+            this.recorder = new Recorder(highestTrackableMicros, SIGNIFICANT_DIGITS);
+            this.total = new Histogram(highestTrackableMicros, SIGNIFICANT_DIGITS);
+        }
+
+        synchronized LatencyPercentiles percentiles(String endpoint) {
+            interval = recorder.getIntervalHistogram(interval);
+            total.add(interval);
+            return new LatencyPercentiles(endpoint, total.getTotalCount(),
+                    total.getValueAtPercentile(50), total.getValueAtPercentile(90),
+                    total.getValueAtPercentile(99), total.getValueAtPercentile(99.9), total.getMaxValue());
+        }
+    }
+}
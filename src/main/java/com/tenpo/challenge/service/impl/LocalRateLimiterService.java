@@ -0,0 +1,80 @@
+package com.tenpo.challenge.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.tenpo.challenge.config.RateLimitPolicy;
+import com.tenpo.challenge.service.RateLimiterService;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Local implementation of the rate limiter service.
+ * Tokens are taken from in-memory buckets, one per key and policy, so each instance applies the limit on its own.
+ * Buckets are kept in a Caffeine cache bounded in size and expiring after a period without access,
+ * so memory stays capped whatever the number of distinct clients. Each bucket is kept unused for at least
+ * the longest refill period of its policy, after which it is full again, so expiring it does not change the limit.
+ * This is the default rate limiting mode.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Service
+@ConditionalOnProperty(name = "rate-limit.mode", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimiterService implements RateLimiterService {
+
+    private final Cache<String, CachedBucket<Bucket>> buckets;
+    private final Duration expireAfterAccess;
+
+    /**
+     * Constructs a new LocalRateLimiterService with the specified bucket storage settings.
+     *
+     * @param maxKeys the maximum number of buckets kept in memory.
+     * @param expireAfterAccess the shortest time without access after which a bucket is discarded;
+     *                          buckets of policies with longer refill periods are kept for their longest period.
+     */
+    public LocalRateLimiterService(@Value("${rate-limit.local.max-keys:100000}") long maxKeys,
+                                   @Value("${rate-limit.local.expire-after-access:${rate-limit.period:PT1M}}") Duration expireAfterAccess) {
+        this.buckets = CachedBucket.newCache(maxKeys);
+        this.expireAfterAccess = expireAfterAccess;
+    }
+
+    /**
+     * Tries to take the given number of tokens from the local bucket of the given key.
+     *
+     * @param key the key of the bucket.
+     * @param policy the rate limit policy of the request.
+     * @param tokens the number of tokens to take.
+     * @return a Mono<ConsumptionProbe> with the result of the consumption.
+     */
+    @Override
+    public Mono<ConsumptionProbe> tryConsume(String key, RateLimitPolicy policy, long tokens) {
+        return Mono.fromSupplier(() -> bucketOf(key, policy).tryConsumeAndReturnRemaining(tokens));
+    }
+
+    /**
+     * Returns the bucket of the given key, creating it if needed.
+     *
+     * @param key the key of the bucket.
+     * @param policy the rate limit policy whose limits a new bucket gets.
+     * @return the bucket of the key.
+     */
+    private Bucket bucketOf(String key, RateLimitPolicy policy) {
+        return buckets.get(key, ignored -> CachedBucket.of(policy.newBucket(), policy, expireAfterAccess)).bucket();
+    }
+
+    /**
+     * Returns the approximate number of buckets kept in memory.
+     *
+     * @return the number of buckets.
+     */
+    public long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,201 @@
+package com.tenpo.challenge.service.impl;
+
+import com.tenpo.challenge.config.PercentageProperties;
+import com.tenpo.challenge.service.ExternalPercentageService;
+import io.lettuce.core.event.connection.ConnectionActivatedEvent;
+import io.lettuce.core.resource.ClientResources;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Listener of the changes of the dynamic percentage made by other instances.
+ * Percentages published on the invalidation channel replace the in-memory copy as they arrive.
+ * With keyspace events enabled, writes, deletions and expirations of the percentage key, including
+ * those made outside the application, make the copy reload from Redis in the background.
+ * When the subscription is lost it is made again with backoff, and the copy is reloaded once it is back,
+ * since changes published in between were missed. The copy is also reloaded whenever a Redis connection
+ * is re-established, because the Redis client restores a dropped subscription on its own.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Component
+public class PercentageInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PercentageInvalidationListener.class);
+    private static final String KEYSPACE_PATTERN = "__keyspace@*__:dynamic-percentage";
+    private static final RedisSerializationContext.SerializationPair<String> STRING_PAIR =
+            RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.string());
+
+    private final Supplier<ReactiveRedisMessageListenerContainer> containerFactory;
+    private final Flux<?> reconnections;
+    private final ExternalPercentageService externalPercentageService;
+    private final PercentageProperties.Invalidation invalidation;
+    private final AtomicBoolean subscribedBefore = new AtomicBoolean();
+    private volatile Disposable subscription;
+    private volatile Disposable reconnectionSubscription;
+
+    /**
+     * Constructs a new PercentageInvalidationListener that subscribes through the specified connection factory.
+     *
+     * @param connectionFactory the reactive Redis connection factory.
+     * @param clientResources the resources of the Redis client, whose events tell when a connection is restored.
+     * @param externalPercentageService the service that keeps the in-memory percentage.
+     * @param properties the caching settings of the percentage.
+     */
+    @Autowired
+    public PercentageInvalidationListener(ReactiveRedisConnectionFactory connectionFactory,
+                                          ObjectProvider<ClientResources> clientResources,
+                                          ExternalPercentageService externalPercentageService,
+                                          PercentageProperties properties) {
+        this(() -> new ReactiveRedisMessageListenerContainer(connectionFactory),
+                reconnections(clientResources.getIfAvailable()), externalPercentageService, properties);
+    }
+
+    /**
+     * Constructs a new PercentageInvalidationListener with the specified listener container factory.
+     *
+     * @param containerFactory creates a listener container for each subscription attempt.
+     * @param reconnections emits whenever a Redis connection is established.
+     * @param externalPercentageService the service that keeps the in-memory percentage.
+     * @param properties the caching settings of the percentage.
+     */
+    public PercentageInvalidationListener(Supplier<ReactiveRedisMessageListenerContainer> containerFactory,
+                                          Flux<?> reconnections,
+                                          ExternalPercentageService externalPercentageService,
+                                          PercentageProperties properties) {
+        this.containerFactory = containerFactory;
+        this.reconnections = reconnections;
+        this.externalPercentageService = externalPercentageService;
+        this.invalidation = properties.getInvalidation();
+    }
+
+    /**
+     * Subscribes to the invalidation channel, and to the keyspace events if enabled.
+     */
+    @PostConstruct
+    public void start() {
+        if (invalidation.isEnabled()) {
+            subscription = listen().subscribe();
+            reconnectionSubscription = reconnections.subscribe(event -> onReconnected(),
+                    e -> logger.warn("Redis connection events unavailable: {}", e.toString()));
+        }
+    }
+
+    /**
+     * Cancels the subscription.
+     */
+    @PreDestroy
+    public void stop() {
+        for (Disposable current : new Disposable[] {subscription, reconnectionSubscription}) {
+            if (current != null) {
+                current.dispose();
+            }
+        }
+    }
+
+    /**
+     * Receives the messages of the subscribed topics, subscribing again with backoff whenever the
+     * subscription fails or ends. Each attempt uses its own listener container, and so its own connection.
+     *
+     * @return a Flux of the received messages.
+     */
+    private Flux<ReactiveSubscription.Message<String, String>> listen() {
+        return Flux.usingWhen(Mono.fromSupplier(containerFactory),
+                        container -> container.receiveLater(topics(), STRING_PAIR, STRING_PAIR)
+                                .doOnNext(messages -> onSubscribed())
+                                .flatMapMany(messages -> messages)
+                                .concatWith(Mono.error(() -> new IllegalStateException("Subscription ended"))),
+                        ReactiveRedisMessageListenerContainer::destroyLater)
+                .doOnNext(this::onMessage)
+                .doOnError(e -> logger.warn("Percentage invalidation subscription lost, subscribing again: {}",
+                        e.toString()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, invalidation.getResubscribeMinBackoff())
+                        .maxBackoff(invalidation.getResubscribeMaxBackoff())
+                        .transientErrors(true));
+    }
+
+    private static Flux<?> reconnections(ClientResources clientResources) {
+        if (clientResources == null) {
+            return Flux.never();
+        }
+        return clientResources.eventBus().get().filter(ConnectionActivatedEvent.class::isInstance);
+    }
+
+    private List<Topic> topics() {
+        List<Topic> topics = new ArrayList<>();
+        topics.add(ChannelTopic.of(invalidation.getChannel()));
+        if (invalidation.isKeyspaceEvents()) {
+            topics.add(PatternTopic.of(KEYSPACE_PATTERN));
+        }
+        return topics;
+    }
+
+    /**
+     * Reloads the in-memory copy when the subscription is made again, since changes may have been missed.
+     */
+    private void onSubscribed() {
+        if (!subscribedBefore.compareAndSet(false, true)) {
+            logger.info("Percentage invalidation subscription restored");
+            externalPercentageService.invalidate();
+        }
+    }
+
+    /**
+     * Reloads the in-memory copy when a Redis connection is restored after the subscription was made,
+     * since changes published while it was down were missed.
+     */
+    private void onReconnected() {
+        if (subscribedBefore.get()) {
+            logger.info("Redis connection restored, reloading the percentage");
+            externalPercentageService.invalidate();
+        }
+    }
+
+    /**
+     * Applies a received message: a published percentage replaces the in-memory copy, and a change of the
+     * percentage key makes the copy reload.
+     *
+     * @param message the received message.
+     */
+    private void onMessage(ReactiveSubscription.Message<String, String> message) {
+        if (invalidation.getChannel().equals(message.getChannel())) {
+            try {
+                externalPercentageService.update(Double.parseDouble(message.getMessage()));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid percentage published: {}", message.getMessage());
+                externalPercentageService.invalidate();
+            }
+            return;
+        }
+        switch (message.getMessage()) {
+            case "set", "del", "expired", "evicted" -> externalPercentageService.invalidate();
+            default -> {
+                // Other commands do not change the percentage
+            }
+        }
+    }
+}
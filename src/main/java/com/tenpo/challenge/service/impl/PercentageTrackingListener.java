@@ -0,0 +1,151 @@
+package com.tenpo.challenge.service.impl;
+
+import com.tenpo.challenge.service.ExternalPercentageService;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.lettuce.core.resource.ClientResources;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Client-side caching of the dynamic percentage through RESP3 client tracking.
+ * A dedicated connection asks the Redis server to track the percentage key in broadcasting mode, and the
+ * server pushes an invalidation message whenever the key is written, deleted, expired or evicted, by this
+ * application or anyone else, so the in-memory copy is reloaded without keyspace notifications having
+ * to be enabled on the server. Tracking is enabled again each time the connection is re-established,
+ * and is skipped with a warning when the server does not support it.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Component
+@ConditionalOnProperty(name = "redis.client.client-side-caching", havingValue = "true")
+public class PercentageTrackingListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PercentageTrackingListener.class);
+    private static final String PERCENTAGE_KEY = "dynamic-percentage";
+
+    private final RedisClient redisClient;
+    private final RedisURI redisUri;
+    private final ExternalPercentageService externalPercentageService;
+    private volatile StatefulRedisConnection<String, String> connection;
+    private volatile Disposable connecting;
+
+    /**
+     * Constructs a new PercentageTrackingListener.
+     *
+     * @param clientResources the resources of the Redis client of the application, shared if available.
+     * @param redisHost the host of the Redis server.
+     * @param redisPort the port of the Redis server.
+     * @param externalPercentageService the service that keeps the in-memory percentage.
+     */
+    public PercentageTrackingListener(ObjectProvider<ClientResources> clientResources,
+                                      @Value("${spring.redis.host}") String redisHost,
+                                      @Value("${spring.redis.port}") int redisPort,
+                                      ExternalPercentageService externalPercentageService) {
+        ClientResources resources = clientResources.getIfAvailable();
+        this.redisClient = resources == null ? RedisClient.create() : RedisClient.create(resources);
+        this.redisClient.setOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP3).build());
+        this.redisUri = RedisURI.create(redisHost, redisPort);
+        this.externalPercentageService = externalPercentageService;
+    }
+
+    /**
+     * Connects to Redis in the background and enables the tracking of the percentage key,
+     * retrying with backoff until the first connection is made.
+     */
+    @PostConstruct
+    public void start() {
+        redisClient.addListener(new RedisConnectionStateListener() {
+            @Override
+            public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress socketAddress) {
+                StatefulRedisConnection<String, String> current = connection;
+                if (current != null && current == handler) {
+                    enableTracking(current).subscribe();
+                }
+            }
+        });
+        connecting = Mono.fromCompletionStage(() -> redisClient.connectAsync(StringCodec.UTF8, redisUri))
+                .doOnError(e -> logger.warn("Could not connect to Redis for percentage tracking: {}", e.toString()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .flatMap(newConnection -> {
+                    newConnection.addListener(this::onPushMessage);
+                    connection = newConnection;
+                    return enableTracking(newConnection);
+                })
+                .subscribe();
+    }
+
+    /**
+     * Closes the tracking connection.
+     */
+    @PreDestroy
+    public void stop() {
+        Disposable current = connecting;
+        if (current != null) {
+            current.dispose();
+        }
+        redisClient.shutdown();
+    }
+
+    /**
+     * Enables broadcasting tracking of the keys starting with the percentage key on the connection.
+     *
+     * @param trackingConnection the tracking connection.
+     * @return a Mono<Void> indicating the completion of the command.
+     */
+    private Mono<Void> enableTracking(StatefulRedisConnection<String, String> trackingConnection) {
+        return trackingConnection.reactive()
+                .clientTracking(TrackingArgs.Builder.enabled().bcast().prefixes(PERCENTAGE_KEY))
+                .doOnNext(reply -> logger.info("Redis client tracking of the percentage enabled"))
+                .onErrorResume(RedisCommandExecutionException.class, e -> {
+                    logger.warn("Redis client tracking not available, relying on pub/sub invalidation: {}",
+                            e.getMessage());
+                    return Mono.empty();
+                })
+                .onErrorResume(e -> {
+                    logger.warn("Could not enable Redis client tracking: {}", e.toString());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Reloads the in-memory copy when the server invalidates the percentage key, or all the keys.
+     *
+     * @param message the message pushed by the server.
+     */
+    private void onPushMessage(PushMessage message) {
+        if (!"invalidate".equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        Object keys = content.size() > 1 ? content.get(1) : null;
+        if (keys == null || (keys instanceof List<?> list && list.contains(PERCENTAGE_KEY))) {
+            externalPercentageService.invalidate();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.tenpo.challenge.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.tenpo.challenge.config.RateLimitPolicy;
+import com.tenpo.challenge.service.RateLimiterService;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.proxy.RemoteAsyncBucketBuilder;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis implementation of the rate limiter service.
+ * Tokens are taken from Bucket4j buckets stored in Redis, one per key and policy, so the limit is shared by all
+ * the instances whatever their number. Redis keys expire once their bucket is full again. Redis is called asynchronously, without blocking the event loop.
+ * Optionally, tokens can be consumed locally in small batches that are synchronized with Redis
+ * later, so that most requests do not need a Redis round trip.
+ * While Redis is unreachable or slower than the configured timeout, tokens are taken from local
+ * fallback buckets with the fallback limits of the policy, and the connection is retried periodically.
+ * Bucket proxies and fallback buckets are kept in bounded caches that expire after a period without access,
+ * never shorter than the longest refill period of their policy.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Service
+@ConditionalOnProperty(name = "rate-limit.mode", havingValue = "redis")
+public class RedisRateLimiterService implements RateLimiterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisRateLimiterService.class);
+    private static final String KEY_PREFIX = "rate-limit:";
+    private static final RedisCodec<String, byte[]> CODEC = RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE);
+
+    private final RedisClient redisClient;
+    private final RedisURI redisUri;
+    private final Cache<String, CachedBucket<AsyncBucketProxy>> sharedBuckets;
+    private final Cache<String, CachedBucket<Bucket>> fallbackBuckets;
+    private final Duration expireAfterAccess;
+    private final Duration timeout;
+    private final long prefetchTokens;
+    private final Duration prefetchMaxDelay;
+    private final long reconnectIntervalNanos;
+
+    private final AtomicLong nextConnectAttempt;
+    private final AtomicBoolean degraded = new AtomicBoolean();
+    private volatile StatefulRedisConnection<String, byte[]> connection;
+    private volatile RemoteAsyncBucketBuilder<String> bucketBuilder;
+
+    /**
+     * Constructs a new RedisRateLimiterService with the specified client and settings.
+     *
+     * @param redisClient the Redis client used to store the shared bucket.
+     * @param redisHost the host of the Redis server.
+     * @param redisPort the port of the Redis server.
+     * @param timeoutMs the maximum time in milliseconds to wait for Redis before using the fallback bucket.
+     * @param prefetchTokens the number of tokens consumed locally before synchronizing with Redis, 0 to disable.
+     * @param prefetchMaxDelayMs the maximum time in milliseconds locally consumed tokens stay unsynchronized.
+     * @param reconnectIntervalMs the minimum time in milliseconds between two connection attempts.
+     * @param maxKeys the maximum number of bucket proxies and fallback buckets kept in memory.
+     * @param expireAfterAccess the shortest time without access after which a bucket proxy or fallback bucket
+     *                          is discarded; those of policies with longer refill periods are kept for their longest period.
+     */
+    public RedisRateLimiterService(RedisClient redisClient,
+                                   @Value("${spring.redis.host}") String redisHost,
+                                   @Value("${spring.redis.port}") int redisPort,
+                                   @Value("${rate-limit.redis.timeout-ms:50}") long timeoutMs,
+                                   @Value("${rate-limit.redis.prefetch-tokens:0}") long prefetchTokens,
+                                   @Value("${rate-limit.redis.prefetch-max-delay-ms:100}") long prefetchMaxDelayMs,
+                                   @Value("${rate-limit.redis.reconnect-interval-ms:5000}") long reconnectIntervalMs,
+                                   @Value("${rate-limit.local.max-keys:100000}") long maxKeys,
+                                   @Value("${rate-limit.local.expire-after-access:${rate-limit.period:PT1M}}") Duration expireAfterAccess) {
+        this.redisClient = redisClient;
+        this.redisUri = RedisURI.create(redisHost, redisPort);
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.prefetchTokens = prefetchTokens;
+        this.prefetchMaxDelay = Duration.ofMillis(prefetchMaxDelayMs);
+        this.reconnectIntervalNanos = Duration.ofMillis(reconnectIntervalMs).toNanos();
+        this.nextConnectAttempt = new AtomicLong(System.nanoTime());
+        this.expireAfterAccess = expireAfterAccess;
+        this.sharedBuckets = CachedBucket.newCache(maxKeys);
+        this.fallbackBuckets = CachedBucket.newCache(maxKeys);
+    }
+
+    /**
+     * Tries to take the given number of tokens from the bucket of the key shared in Redis, or from
+     * the fallback bucket of the key if Redis is not available.
+     *
+     * @param key the key of the bucket.
+     * @param policy the rate limit policy of the request.
+     * @param tokens the number of tokens to take.
+     * @return a Mono<ConsumptionProbe> with the result of the consumption.
+     */
+    @Override
+    public Mono<ConsumptionProbe> tryConsume(String key, RateLimitPolicy policy, long tokens) {
+        return sharedBucket(key, policy)
+                .flatMap(bucket -> Mono.fromFuture(() -> bucket.tryConsumeAndReturnRemaining(tokens)).timeout(timeout))
+                .doOnNext(probe -> {
+                    if (degraded.compareAndSet(true, false)) {
+                        logger.info("Redis rate limiting restored");
+                    }
+                })
+                .onErrorResume(e -> {
+                    if (degraded.compareAndSet(false, true)) {
+                        logger.warn("Redis rate limiting unavailable, using the local fallback limit: {}", e.getMessage());
+                    }
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> fallbackBuckets
+                        .get(key, ignored -> CachedBucket.of(policy.newFallbackBucket(), policy, expireAfterAccess))
+                        .bucket()
+                        .tryConsumeAndReturnRemaining(tokens)));
+    }
+
+    /**
+     * Returns the bucket of the key shared in Redis, or starts connecting to Redis if there is no connection yet.
+     * Connection attempts run in the background, at most one per reconnect interval,
+     * and requests use the fallback buckets until the connection is established.
+     *
+     * @param key the key of the bucket.
+     * @param policy the rate limit policy whose limits a new bucket gets.
+     * @return a Mono with the shared bucket, or empty if there is no connection yet.
+     */
+    private Mono<AsyncBucketProxy> sharedBucket(String key, RateLimitPolicy policy) {
+        RemoteAsyncBucketBuilder<String> builder = bucketBuilder;
+        if (builder != null) {
+            return Mono.just(sharedBuckets.get(key, ignored -> CachedBucket.of(
+                    builder.build(KEY_PREFIX + key, policy.getConfiguration()), policy, expireAfterAccess)).bucket());
+        }
+        long now = System.nanoTime();
+        long next = nextConnectAttempt.get();
+        if (now - next < 0 || !nextConnectAttempt.compareAndSet(next, now + reconnectIntervalNanos)) {
+            return Mono.empty();
+        }
+        redisClient.connectAsync(CODEC, redisUri).whenComplete((newConnection, e) -> {
+            if (e != null) {
+                logger.warn("Could not connect to Redis for rate limiting: {}", e.getMessage());
+            } else {
+                createBucketBuilder(newConnection);
+            }
+        });
+        return Mono.empty();
+    }
+
+    /**
+     * Creates the builder of the buckets shared in Redis once the connection is established.
+     *
+     * @param newConnection the connection to Redis.
+     */
+    private synchronized void createBucketBuilder(StatefulRedisConnection<String, byte[]> newConnection) {
+        if (bucketBuilder != null) {
+            newConnection.closeAsync();
+            return;
+        }
+        LettuceBasedProxyManager<String> proxyManager = LettuceBasedProxyManager.builderFor(newConnection)
+                .withExpirationStrategy(ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(Duration.ofSeconds(10)))
+                .build();
+        RemoteAsyncBucketBuilder<String> builder = proxyManager.asAsync().builder();
+        if (prefetchTokens > 0) {
+            builder = builder.withOptimization(Optimizations.delaying(new DelayParameters(prefetchTokens, prefetchMaxDelay)));
+        }
+        connection = newConnection;
+        bucketBuilder = builder;
+        logger.info("Connected to Redis for rate limiting");
+    }
+
+    /**
+     * Closes the connection to Redis.
+     */
+    @PreDestroy
+    public void close() {
+        StatefulRedisConnection<String, byte[]> current = connection;
+        if (current != null) {
+            current.close();
+        }
+    }
+}
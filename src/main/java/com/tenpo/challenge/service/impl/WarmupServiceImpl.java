@@ -0,0 +1,174 @@
+package com.tenpo.challenge.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenpo.challenge.service.CalculationService;
+import com.tenpo.challenge.service.ExternalPercentageService;
+import com.tenpo.challenge.service.WarmupService;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ValidationDepth;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of the startup warm-up.
+ * The Redis connection, the database connection pool and the event loops of the external service client
+ * are opened in parallel, then the percentage is loaded into its in-memory copy, and finally the calculation
+ * path, down to the JSON encoding of the result, is run enough times for the JIT compiler
+ * to compile it. The warm-up runs before the application reports itself ready, so the first requests
+ * routed to a new instance find it warm.
+ *
+ * @author bbeltran
+ * @version 1.0
+ * @since 2023-10-05
+ */
+@Service
+public class WarmupServiceImpl implements WarmupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmupServiceImpl.class);
+
+    private final ReactiveRedisConnectionFactory redisConnectionFactory;
+    private final ConnectionFactory databaseConnectionFactory;
+    private final HttpClient externalServiceHttpClient;
+    private final ExternalPercentageService externalPercentageService;
+    private final CalculationService calculationService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration stepTimeout;
+    private final int calculationIterations;
+
+    /**
+     * Constructs a new WarmupServiceImpl.
+     *
+     * @param redisConnectionFactory the reactive Redis connection factory.
+     * @param databaseConnectionFactory the R2DBC connection factory, usually a connection pool.
+     * @param externalServiceHttpClient the HTTP client of the external service.
+     * @param externalPercentageService the service that keeps the percentage.
+     * @param calculationService the service of the calculation path.
+     * @param objectMapper the mapper the calculation results are encoded with.
+     * @param enabled whether the warm-up runs.
+     * @param stepTimeout the maximum time each step may take before it is skipped.
+     * @param calculationIterations how many calculations are run to warm up the calculation path.
+     */
+    public WarmupServiceImpl(ReactiveRedisConnectionFactory redisConnectionFactory,
+                             ConnectionFactory databaseConnectionFactory,
+                             HttpClient externalServiceHttpClient,
+                             ExternalPercentageService externalPercentageService,
+                             CalculationService calculationService,
+                             ObjectMapper objectMapper,
+                             @Value("${warmup.enabled:true}") boolean enabled,
+                             @Value("${warmup.step-timeout:PT10S}") Duration stepTimeout,
+                             @Value("${warmup.calculation-iterations:20000}") int calculationIterations) {
+        this.redisConnectionFactory = redisConnectionFactory;
+        this.databaseConnectionFactory = databaseConnectionFactory;
+        this.externalServiceHttpClient = externalServiceHttpClient;
+        this.externalPercentageService = externalPercentageService;
+        this.calculationService = calculationService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.stepTimeout = stepTimeout;
+        this.calculationIterations = calculationIterations;
+    }
+
+    /**
+     * Runs the warm-up steps. Failed steps are logged and skipped.
+     *
+     * @return a Mono<Void> that completes when every step has finished or timed out.
+     */
+    @Override
+    public Mono<Void> warmUp() {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        long startNanos = System.nanoTime();
+        return Mono.when(step("Redis connection", this::warmUpRedis),
+                        step("database connection pool", this::warmUpDatabase),
+                        step("external service client", externalServiceHttpClient::warmup))
+                .then(step("percentage cache", () -> externalPercentageService.refresh().then()))
+                .then(step("calculation path", this::warmUpCalculation))
+                .doOnSuccess(done -> logger.info("Warm-up finished in {} ms",
+                        Duration.ofNanos(System.nanoTime() - startNanos).toMillis()));
+    }
+
+    /**
+     * Opens the shared Redis connection with a PING.
+     *
+     * @return a Mono<Void> indicating the completion of the step.
+     */
+    private Mono<Void> warmUpRedis() {
+        return Mono.usingWhen(Mono.fromSupplier(redisConnectionFactory::getReactiveConnection),
+                connection -> connection.ping().then(),
+                ReactiveRedisConnection::closeLater);
+    }
+
+    /**
+     * Opens the initial connections of the database pool, or validates a single connection
+     * when the connection factory is not pooled.
+     *
+     * @return a Mono<Void> indicating the completion of the step.
+     */
+    private Mono<Void> warmUpDatabase() {
+        if (databaseConnectionFactory instanceof ConnectionPool pool) {
+            return pool.warmup().then();
+        }
+        return Mono.usingWhen(databaseConnectionFactory.create(),
+                connection -> Mono.from(connection.validate(ValidationDepth.REMOTE)).then(),
+                Connection::close);
+    }
+
+    /**
+     * Runs the calculation path, including the JSON encoding of the result, with varying inputs.
+     *
+     * @return a Mono<Void> indicating the completion of the step.
+     */
+    private Mono<Void> warmUpCalculation() {
+        return Flux.range(0, calculationIterations)
+                .concatMap(i -> calculationService.calculate((double) i, (double) (i % 100))
+                        .doOnNext(this::encode))
+                .then();
+    }
+
+    /**
+     * Encodes a calculation result as the controller response would be.
+     *
+     * @param result the result of the calculation.
+     */
+    private void encode(Double result) {
+        try {
+            objectMapper.writeValueAsBytes(result);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Runs a warm-up step with the step timeout, logging its duration or its failure.
+     *
+     * @param name the name of the step.
+     * @param step creates the step when it starts.
+     * @return a Mono<Void> that completes when the step has finished, failed or timed out.
+     */
+    private Mono<Void> step(String name, Supplier<Mono<Void>> step) {
+        return Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+            return Mono.defer(step).timeout(stepTimeout)
+                    .doOnSuccess(done -> logger.info("Warm-up of the {} done in {} ms", name,
+                            Duration.ofNanos(System.nanoTime() - startNanos).toMillis()))
+                    .onErrorResume(e -> {
+                        logger.warn("Warm-up of the {} failed, skipping it: {}", name, e.toString());
+                        return Mono.empty();
+                    });
+        });
+    }
+}
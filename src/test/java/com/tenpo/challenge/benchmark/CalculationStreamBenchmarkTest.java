@@ -0,0 +1,163 @@
+package com.tenpo.challenge.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenpo.challenge.config.RateLimitingConfig;
+import com.tenpo.challenge.config.RateLimitPolicyRegistry;
+import com.tenpo.challenge.config.WebSocketConfig;
+import com.tenpo.challenge.controller.CalculationController;
+import com.tenpo.challenge.controller.CalculationWebSocketHandler;
+import com.tenpo.challenge.exception.ErrorResponseWriter;
+import com.tenpo.challenge.filter.CallLoggingFilter;
+import com.tenpo.challenge.filter.RateLimitingFilter;
+import com.tenpo.challenge.model.CallLog;
+import com.tenpo.challenge.service.CallLogService;
+import com.tenpo.challenge.service.ExternalPercentageService;
+import com.tenpo.challenge.service.impl.CalculationServiceImpl;
+import com.tenpo.challenge.service.impl.LatencyStatsServiceImpl;
+import com.tenpo.challenge.service.impl.LocalRateLimiterService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Measures the calculation throughput of the REST endpoint, one request per calculation over a pool
+ * of keep-alive connections, against the WebSocket channel over a single connection, with one pair
+ * per message and with several. Both go through the rate limit and call log filters of the application
+ * on an embedded server, with a fixed percentage and call logs that are not written anywhere.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class CalculationStreamBenchmarkTest {
+
+    private static final int CONNECTIONS = 64;
+    private static final int WARMUP_CALCULATIONS = 50_000;
+    private static final int MEASURED_CALCULATIONS = 200_000;
+    private static final int PAIRS_PER_MESSAGE = 100;
+
+    @Test
+    void throughput_RestAgainstStream() {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BenchmarkConfig.class)
+                .web(WebApplicationType.REACTIVE)
+                .run("--logging.level.root=WARN",
+                        "--rate-limit.policies[0].path=/**",
+                        "--rate-limit.policies[0].limits[0].capacity=1000000000",
+                        "--rate-limit.policies[0].limits[0].period=PT1S",
+                        "--calculation.stream.limits[0].capacity=1000000000",
+                        "--calculation.stream.limits[0].period=PT1S")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.create(ConnectionProvider.create("benchmark", CONNECTIONS))
+                    .baseUrl("http://127.0.0.1:" + port);
+
+            rest(client, WARMUP_CALCULATIONS);
+            long restStart = System.nanoTime();
+            long restResults = rest(client, MEASURED_CALCULATIONS);
+            long restElapsed = System.nanoTime() - restStart;
+
+            stream(client, WARMUP_CALCULATIONS, 1);
+            long streamStart = System.nanoTime();
+            long streamResults = stream(client, MEASURED_CALCULATIONS, 1);
+            long streamElapsed = System.nanoTime() - streamStart;
+
+            stream(client, WARMUP_CALCULATIONS / PAIRS_PER_MESSAGE, PAIRS_PER_MESSAGE);
+            long batchedStart = System.nanoTime();
+            long batchedResults = stream(client, MEASURED_CALCULATIONS / PAIRS_PER_MESSAGE, PAIRS_PER_MESSAGE);
+            long batchedElapsed = System.nanoTime() - batchedStart;
+
+            System.out.printf("rest: %d connections, %.0f calculations/s%n",
+                    CONNECTIONS, MEASURED_CALCULATIONS * 1e9 / restElapsed);
+            System.out.printf("stream: 1 connection, 1 pair per message, %.0f calculations/s%n",
+                    MEASURED_CALCULATIONS * 1e9 / streamElapsed);
+            System.out.printf("stream: 1 connection, %d pairs per message, %.0f calculations/s%n",
+                    PAIRS_PER_MESSAGE, MEASURED_CALCULATIONS * 1e9 / batchedElapsed);
+            assertEquals(MEASURED_CALCULATIONS, restResults);
+            assertEquals(MEASURED_CALCULATIONS, streamResults);
+            assertEquals(MEASURED_CALCULATIONS / PAIRS_PER_MESSAGE, batchedResults);
+        }
+    }
+
+    private static long rest(HttpClient client, int requests) {
+        return Flux.range(0, requests)
+                .flatMap(i -> client.get().uri("/calculation/?number1=" + i + "&number2=1")
+                        .responseSingle((response, body) -> body.asString().map(result -> response.status().code())),
+                        CONNECTIONS)
+                .filter(status -> status == 200)
+                .count()
+                .block();
+    }
+
+    private static long stream(HttpClient client, int messages, int pairsPerMessage) {
+        String message = pairsPerMessage == 1 ? pair(1)
+                : IntStream.range(0, pairsPerMessage).mapToObj(CalculationStreamBenchmarkTest::pair)
+                .collect(Collectors.joining(",", "[", "]"));
+        return client.websocket().uri(CalculationWebSocketHandler.PATH)
+                .handle((inbound, outbound) -> Mono.zip(
+                        outbound.sendString(Flux.range(0, messages).map(i -> message)).then().thenReturn(true),
+                        inbound.receive().asString().take(messages).filter(reply -> !reply.startsWith("{")).count(),
+                        (sent, results) -> results))
+                .blockLast();
+    }
+
+    private static String pair(int number1) {
+        return "{\"number1\":" + number1 + ",\"number2\":1}";
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableWebFlux
+    @Import({CalculationController.class, CalculationServiceImpl.class, WebSocketConfig.class,
+            CalculationWebSocketHandler.class, RateLimitingConfig.class, RateLimitPolicyRegistry.class,
+            LocalRateLimiterService.class, ErrorResponseWriter.class, RateLimitingFilter.class,
+            CallLoggingFilter.class, LatencyStatsServiceImpl.class})
+    static class BenchmarkConfig {
+
+        @Bean
+        NettyReactiveWebServerFactory webServerFactory() {
+            return new NettyReactiveWebServerFactory(0);
+        }
+
+        @Bean
+        HttpHandler httpHandler(ApplicationContext context) {
+            return WebHttpHandlerBuilder.applicationContext(context).build();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        ExternalPercentageService externalPercentageService() {
+            ExternalPercentageService service = mock(ExternalPercentageService.class, withSettings().stubOnly());
+            when(service.getPercentage()).thenReturn(Mono.just(10.0));
+            return service;
+        }
+
+        @Bean
+        CallLogService callLogService() {
+            CallLogService service = mock(CallLogService.class, withSettings().stubOnly());
+            when(service.logCall(any(CallLog.class))).thenReturn(Mono.empty());
+            return service;
+        }
+    }
+}
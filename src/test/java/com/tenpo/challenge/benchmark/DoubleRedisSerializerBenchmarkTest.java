@@ -0,0 +1,43 @@
+package com.tenpo.challenge.benchmark;
+
+import com.tenpo.challenge.config.DoubleRedisSerializer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the cost of a serialize and deserialize round trip of the percentage with the JSON serializer
+ * used before and with the 8-byte binary serializer, along with the size of the stored value.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class DoubleRedisSerializerBenchmarkTest {
+
+    private static final int ROUNDS = 2_000_000;
+
+    @Test
+    void roundTrip_JsonAndBinary() {
+        double json = run("Jackson2JsonRedisSerializer", new Jackson2JsonRedisSerializer<>(Double.class));
+        double binary = run("DoubleRedisSerializer", new DoubleRedisSerializer());
+
+        assertTrue(binary < json);
+    }
+
+    private static double run(String name, RedisSerializer<Double> serializer) {
+        double sum = 0;
+        for (int i = 0; i < ROUNDS / 10; i++) {
+            sum += serializer.deserialize(serializer.serialize(10.0 + (i & 0xff) / 100.0));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            sum += serializer.deserialize(serializer.serialize(10.0 + (i & 0xff) / 100.0));
+        }
+        double nanosPerRoundTrip = (System.nanoTime() - start) / (double) ROUNDS;
+        System.out.printf("%s: %.1f ns/round trip, %d bytes for 12.55 (checksum %.0f)%n", name, nanosPerRoundTrip,
+                serializer.serialize(12.55).length, sum);
+        return nanosPerRoundTrip;
+    }
+}
@@ -0,0 +1,96 @@
+package com.tenpo.challenge.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenpo.challenge.dto.ErrorResponse;
+import com.tenpo.challenge.exception.ErrorResponseWriter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the rejections per second of the rate limit response written with a new ObjectMapper per
+ * response, as it was done before, and with the pre-encoded body of the ErrorResponseWriter.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ErrorResponseBenchmarkTest {
+
+    private static final int ROUNDS = 200_000;
+
+    @Test
+    void writeRateLimitExceeded_BeforeAndAfter() {
+        ErrorResponseWriter writer = new ErrorResponseWriter(new ObjectMapper());
+
+        double before = run("new ObjectMapper per response", ErrorResponseBenchmarkTest::writeWithNewObjectMapper);
+        double after = run("pre-encoded body", writer::writeRateLimitExceeded);
+
+        assertTrue(after > before);
+    }
+
+    private static double run(String name, Function<ServerWebExchange, Mono<Void>> rejection) {
+        MockServerHttpRequest request = MockServerHttpRequest.get("/calculation/").build();
+        long bytes = 0;
+        for (int i = 0; i < ROUNDS / 10; i++) {
+            bytes += reject(request, rejection);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            bytes += reject(request, rejection);
+        }
+        double perSecond = ROUNDS / ((System.nanoTime() - start) / 1e9);
+        System.out.printf("%s: %.0f rejections/s (%d bytes)%n", name, perSecond, bytes);
+        return perSecond;
+    }
+
+    private static long reject(MockServerHttpRequest request, Function<ServerWebExchange, Mono<Void>> rejection) {
+        BodyCountingResponse response = new BodyCountingResponse();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        rejection.apply(exchange.mutate().response(response).build()).block();
+        return response.bytes;
+    }
+
+    private static Mono<Void> writeWithNewObjectMapper(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        ErrorResponse errorResponse = new ErrorResponse("Límite de solicitudes excedido", "Rate limit exceeded",
+                exchange.getRequest().getPath().toString());
+        try {
+            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse()
+                    .bufferFactory().wrap(new ObjectMapper().writeValueAsBytes(errorResponse))));
+        } catch (Exception e) {
+            return Mono.error(e);
+        }
+    }
+
+    /**
+     * Response that releases the written buffers right away, so the benchmark measures rendering only.
+     */
+    private static class BodyCountingResponse extends MockServerHttpResponse {
+
+        private long bytes;
+
+        BodyCountingResponse() {
+            super(DefaultDataBufferFactory.sharedInstance);
+        }
+
+        @Override
+        protected Mono<Void> writeWithInternal(org.reactivestreams.Publisher<? extends DataBuffer> body) {
+            return Mono.from(body).doOnNext(buffer -> {
+                bytes += buffer.readableByteCount();
+                DataBufferUtils.release(buffer);
+            }).then();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.tenpo.challenge.benchmark;
+
+import com.tenpo.challenge.config.RateLimitPolicy;
+import com.tenpo.challenge.config.RateLimitPolicyMatcher;
+import com.tenpo.challenge.config.RateLimitProperties;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures the cost of matching a request path against policy tables of growing size.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class RateLimitPolicyMatcherBenchmarkTest {
+
+    private static final int ROUNDS = 5_000_000;
+    private static final String[] PATHS = {"/calculation/", "/call-logs/page", "/call-logs/export", "/unknown/path"};
+
+    @Test
+    void match_WithGrowingNumberOfPolicies() {
+        RateLimitPolicy defaultPolicy = policy("/**");
+        for (int rules : new int[]{10, 100, 1_000, 10_000}) {
+            List<RateLimitPolicy> policies = new ArrayList<>();
+            policies.add(policy("/calculation/**"));
+            policies.add(policy("/call-logs/*"));
+            for (int i = 0; i < rules; i++) {
+                policies.add(policy("/api/v" + (i % 10) + "/resource" + i + "/*"));
+            }
+            RateLimitPolicyMatcher matcher = new RateLimitPolicyMatcher(policies, defaultPolicy);
+
+            run(matcher, ROUNDS);
+            long start = System.nanoTime();
+            int matched = run(matcher, ROUNDS);
+            long elapsed = System.nanoTime() - start;
+
+            System.out.printf("policy matcher: %d policies, %.1f ns/match%n", rules + 2, (double) elapsed / ROUNDS);
+            assertEquals(ROUNDS / PATHS.length * 3, matched);
+        }
+    }
+
+    private static int run(RateLimitPolicyMatcher matcher, int rounds) {
+        int matched = 0;
+        for (int i = 0; i < rounds; i++) {
+            if (!"/**".equals(matcher.match(PATHS[i & 3]).getPath())) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    private static RateLimitPolicy policy(String path) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setPath(path);
+        policy.setLimits(List.of(new RateLimitProperties.Limit(3, Duration.ofMinutes(1),
+                RateLimitProperties.RefillType.GREEDY)));
+        return RateLimitPolicy.of(policy);
+    }
+}
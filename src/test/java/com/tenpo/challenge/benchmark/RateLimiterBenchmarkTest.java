@@ -0,0 +1,69 @@
+package com.tenpo.challenge.benchmark;
+
+import com.tenpo.challenge.config.RateLimitPolicy;
+import com.tenpo.challenge.config.RateLimitProperties;
+import com.tenpo.challenge.service.impl.LocalRateLimiterService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures the per-request overhead of the keyed local rate limiter with one million active keys,
+ * compared with a single key.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class RateLimiterBenchmarkTest {
+
+    private static final int ACTIVE_KEYS = 1_000_000;
+    private static final int WARMUP_ROUNDS = 2_000_000;
+    private static final int MEASURED_ROUNDS = 5_000_000;
+
+    @Test
+    void tryConsume_WithOneMillionActiveKeys() {
+        RateLimitProperties.Policy calculation = new RateLimitProperties.Policy();
+        calculation.setPath("/calculation/**");
+        calculation.setLimits(List.of(new RateLimitProperties.Limit(3, Duration.ofMinutes(1),
+                RateLimitProperties.RefillType.GREEDY)));
+        RateLimitPolicy policy = RateLimitPolicy.of(calculation);
+        LocalRateLimiterService service = new LocalRateLimiterService(ACTIVE_KEYS, Duration.ofMinutes(10));
+        String[] keys = new String[ACTIVE_KEYS];
+        for (int i = 0; i < ACTIVE_KEYS; i++) {
+            keys[i] = "ip:10." + (i >> 16) + "." + ((i >> 8) & 0xff) + "." + (i & 0xff);
+            service.tryConsume(keys[i], policy).block();
+        }
+
+        String[] globalKey = {"global"};
+        run(service, policy, globalKey, WARMUP_ROUNDS);
+        long globalStart = System.nanoTime();
+        run(service, policy, globalKey, MEASURED_ROUNDS);
+        long globalElapsed = System.nanoTime() - globalStart;
+
+        run(service, policy, keys, WARMUP_ROUNDS);
+        long start = System.nanoTime();
+        long consumed = run(service, policy, keys, MEASURED_ROUNDS);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("single key: %.1f ns/request%n", (double) globalElapsed / MEASURED_ROUNDS);
+        System.out.printf("keyed rate limiter: %d keys, %.1f ns/request, %.0f requests/s, %d consumed, %d buckets%n",
+                ACTIVE_KEYS, (double) elapsed / MEASURED_ROUNDS, MEASURED_ROUNDS * 1e9 / elapsed,
+                consumed, service.size());
+        assertTrue(service.size() <= ACTIVE_KEYS + 1);
+    }
+
+    private static long run(LocalRateLimiterService service, RateLimitPolicy policy, String[] keys, int rounds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long consumed = 0;
+        for (int i = 0; i < rounds; i++) {
+            if (service.tryConsume(keys[random.nextInt(keys.length)], policy).block().isConsumed()) {
+                consumed++;
+            }
+        }
+        return consumed;
+    }
+}
@@ -0,0 +1,52 @@
+package com.tenpo.challenge.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleRedisSerializerTest {
+
+    private final DoubleRedisSerializer serializer = new DoubleRedisSerializer();
+
+    @Test
+    void testRoundTrip() {
+        for (double value : new double[] {0.0, -0.0, 1.0, 10.0, 12.5, 99.99, 100.0, -3.25, Double.MIN_VALUE,
+                Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY}) {
+            byte[] bytes = serializer.serialize(value);
+            assertEquals(8, bytes.length);
+            assertEquals(value, serializer.deserialize(bytes));
+        }
+    }
+
+    @Test
+    void testBigEndianLayout() {
+        assertArrayEquals(new byte[] {0x40, 0x24, 0, 0, 0, 0, 0, 0}, serializer.serialize(10.0));
+    }
+
+    @Test
+    void testNullValues() {
+        assertNull(serializer.serialize(null));
+        assertNull(serializer.deserialize(null));
+        assertNull(serializer.deserialize(new byte[0]));
+    }
+
+    @Test
+    void testReadsValuesWrittenAsJson() {
+        // Valores guardados con el serializer JSON anterior, incluido uno de 8 bytes
+        Jackson2JsonRedisSerializer<Double> json = new Jackson2JsonRedisSerializer<>(Double.class);
+        for (double value : new double[] {10.0, 12.5, 12.34567, 100.0, -1.5E-4}) {
+            assertEquals(value, serializer.deserialize(json.serialize(value)));
+        }
+        assertEquals(8, json.serialize(12.34567).length);
+    }
+
+    @Test
+    void testInvalidText() {
+        assertThrows(SerializationException.class,
+                () -> serializer.deserialize("abc".getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,90 @@
+package com.tenpo.challenge.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tenpo.challenge.dto.ErrorResponse;
+import com.tenpo.challenge.model.CallLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeHintsConfigTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new NativeHintsConfig.ApplicationRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void testRegistersLombokAccessorsOfSerializedTypes() throws Exception {
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(ErrorResponse.class.getMethod("getMessage"))
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(CallLog.class.getMethod("getEndpoint")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(CallLog.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS).test(hints));
+    }
+
+    @Test
+    void testRegistersTheCaffeineClassesOfTheRateLimitBuckets() throws Exception {
+        // Se construye el caché igual que los servicios de rate limit para detectar cambios de Caffeine
+        Cache<String, String> cache = Caffeine.newBuilder()
+                .maximumSize(10)
+                .expireAfter(new Expiry<String, String>() {
+                    @Override
+                    public long expireAfterCreate(String key, String value, long currentTime) {
+                        return Duration.ofMinutes(1).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, String value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, String value, long currentTime, long currentDuration) {
+                        return Duration.ofMinutes(1).toNanos();
+                    }
+                })
+                .build();
+        cache.put("key", "value");
+        Object localCache = field(cache, "cache");
+        Object node = ((Map<?, ?>) field(localCache, "data")).values().iterator().next();
+
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of(localCache.getClass().getName()))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of(node.getClass().getName()))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+    }
+
+    @Test
+    void testRegistersSwaggerUiResources() {
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource("META-INF/resources/webjars/swagger-ui/5.18.2/index.html").test(hints));
+    }
+
+    private static Object field(Object target, String name) throws ReflectiveOperationException {
+        for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                return field.get(target);
+            } catch (NoSuchFieldException e) {
+                // Se busca el campo en la superclase
+            }
+        }
+        throw new NoSuchFieldException(name);
+    }
+}
@@ -0,0 +1,66 @@
+package com.tenpo.challenge.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitPolicyMatcherTest {
+
+    private final RateLimitPolicy defaultPolicy = limited("/**", 3);
+    private final RateLimitPolicy calculation = limited("/calculation/**", 10);
+    private final RateLimitPolicy callLogs = limited("/call-logs/*", 20);
+    private final RateLimitPolicy export = limited("/call-logs/export", 1);
+    private final RateLimitPolicy swagger = exempt("/swagger-ui.html");
+
+    private final RateLimitPolicyMatcher matcher = new RateLimitPolicyMatcher(
+            List.of(calculation, callLogs, export, swagger), defaultPolicy);
+
+    @Test
+    void match_ShouldPreferLiteralSegmentsOverWildcards() {
+        assertSame(export, matcher.match("/call-logs/export"));
+        assertSame(callLogs, matcher.match("/call-logs/page"));
+    }
+
+    @Test
+    void match_ShouldMatchAnyNumberOfSegments_WithTrailingDoubleWildcard() {
+        assertSame(calculation, matcher.match("/calculation"));
+        assertSame(calculation, matcher.match("/calculation/"));
+        assertSame(calculation, matcher.match("/calculation/batch/items"));
+    }
+
+    @Test
+    void match_ShouldReturnDefaultPolicy_WhenNoPolicyMatches() {
+        assertSame(defaultPolicy, matcher.match("/call-logs/page/extra"));
+        assertSame(defaultPolicy, matcher.match("/"));
+        assertSame(defaultPolicy, matcher.match("/unknown"));
+    }
+
+    @Test
+    void match_ShouldReturnExemptPolicy() {
+        assertTrue(matcher.match("/swagger-ui.html").isExempt());
+    }
+
+    @Test
+    void constructor_ShouldRejectDoubleWildcardBeforeTheLastSegment() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new RateLimitPolicyMatcher(List.of(limited("/**/calculation", 1)), defaultPolicy));
+    }
+
+    private static RateLimitPolicy limited(String path, long capacity) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setPath(path);
+        policy.setLimits(List.of(new RateLimitProperties.Limit(capacity, Duration.ofMinutes(1),
+                RateLimitProperties.RefillType.GREEDY)));
+        return RateLimitPolicy.of(policy);
+    }
+
+    private static RateLimitPolicy exempt(String path) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setPath(path);
+        policy.setExempt(true);
+        return RateLimitPolicy.of(policy);
+    }
+}
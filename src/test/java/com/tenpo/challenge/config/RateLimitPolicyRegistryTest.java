@@ -0,0 +1,80 @@
+package com.tenpo.challenge.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitPolicyRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void match_ShouldUseDefaultLimit_WhenNoPolicyIsConfigured() {
+        RateLimitPolicyRegistry registry = new RateLimitPolicyRegistry(new RateLimitProperties(), 3);
+
+        RateLimitPolicy policy = registry.match("/calculation/");
+
+        assertEquals("/**", policy.getPath());
+        assertEquals(3, policy.getConfiguration().getBandwidths()[0].getCapacity());
+    }
+
+    @Test
+    void reloadIfChanged_ShouldReplacePolicies_WhenFileChanges() throws IOException {
+        Path file = tempDir.resolve("rate-limit-policies.yml");
+        Files.writeString(file, """
+                rate-limit:
+                  policies:
+                    - path: /calculation/**
+                      limits:
+                        - capacity: 10
+                          period: 1m
+                        - capacity: 100
+                          period: 1h
+                          refill: intervally
+                """);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setPolicyFile(file.toString());
+        RateLimitPolicyRegistry registry = new RateLimitPolicyRegistry(properties, 3);
+
+        RateLimitPolicy loaded = registry.match("/calculation/");
+        assertEquals("/calculation/**", loaded.getPath());
+        assertEquals(2, loaded.getConfiguration().getBandwidths().length);
+        assertFalse(registry.reloadIfChanged());
+
+        Files.writeString(file, """
+                rate-limit:
+                  policies:
+                    - path: /calculation/**
+                      exempt: true
+                """);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+
+        assertTrue(registry.reloadIfChanged());
+        assertTrue(registry.match("/calculation/").isExempt());
+    }
+
+    @Test
+    void reloadIfChanged_ShouldKeepCurrentPolicies_WhenFileIsInvalid() throws IOException {
+        Path file = tempDir.resolve("rate-limit-policies.properties");
+        Files.writeString(file, "rate-limit.policies[0].path=/call-logs/**\nrate-limit.policies[0].exempt=true\n");
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setPolicyFile(file.toString());
+        RateLimitPolicyRegistry registry = new RateLimitPolicyRegistry(properties, 3);
+        assertTrue(registry.match("/call-logs/page").isExempt());
+
+        // Una política sin límites ni exención no se puede compilar
+        Files.writeString(file, "rate-limit.policies[0].path=/call-logs/**\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+
+        assertFalse(registry.reloadIfChanged());
+        assertTrue(registry.match("/call-logs/page").isExempt());
+    }
+}
@@ -0,0 +1,31 @@
+package com.tenpo.challenge.config;
+
+import com.tenpo.challenge.dto.LatencyPercentiles;
+import io.lettuce.core.protocol.CommandType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisCommandLatencyRecorderTest {
+
+    @Test
+    void testRecordsCompletionLatencyPerCommandType() {
+        RedisCommandLatencyRecorder recorder = new RedisCommandLatencyRecorder(64, 10_000_000);
+        for (int i = 1; i <= 100; i++) {
+            recorder.recordCommandLatency(null, null, CommandType.GET, 1_000, i * 1_000L);
+        }
+        recorder.recordCommandLatency(null, null, CommandType.SET, 1_000, 2_000_000);
+
+        List<LatencyPercentiles> stats = recorder.getLatencyStats().collectList().block();
+
+        assertEquals(2, stats.size());
+        assertEquals("GET", stats.get(0).getEndpoint());
+        assertEquals(100, stats.get(0).getCount());
+        assertEquals(50, stats.get(0).getP50(), 1);
+        assertEquals(100, stats.get(0).getMax(), 1);
+        assertEquals("SET", stats.get(1).getEndpoint());
+        assertEquals(2000, stats.get(1).getMax(), 20);
+    }
+}
@@ -3,26 +3,50 @@ package com.tenpo.challenge.controller;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenpo.challenge.config.RateLimitPolicy;
+import com.tenpo.challenge.config.RateLimitProperties;
+import com.tenpo.challenge.dto.CalculationBatch;
+import com.tenpo.challenge.exception.InvalidBatchException;
+import com.tenpo.challenge.exception.RateLimitExceededException;
+import com.tenpo.challenge.filter.CallLoggingFilter;
+import com.tenpo.challenge.filter.RateLimitQuota;
 import com.tenpo.challenge.service.CalculationService;
+import com.tenpo.challenge.service.RateLimiterService;
+import io.github.bucket4j.ConsumptionProbe;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 import org.springframework.http.ResponseEntity;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
 public class CalculationControllerTest {
 
     @Mock
     private CalculationService calculationService;
 
-    @InjectMocks
+    @Mock
+    private RateLimiterService rateLimiterService;
+
     private CalculationController calculationController;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        calculationController = new CalculationController(calculationService, new ObjectMapper(), 3, 1024);
     }
 
     @Test
@@ -35,4 +59,97 @@ public class CalculationControllerTest {
         assertEquals(68.2, response.block().getBody());
         assertEquals(200, response.block().getStatusCodeValue());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCalculateBatch_WithJsonArray() {
+        when(calculationService.calculate(any(CalculationBatch.class)))
+                .thenReturn(Mono.just(new double[]{68.2, 4.4, Double.POSITIVE_INFINITY}));
+        MockServerWebExchange exchange = exchange(MediaType.APPLICATION_JSON,
+                "[{\"number1\":12,\"number2\":50},{\"number2\":2.5,\"number1\":1.5},{\"number1\":1e308,\"number2\":1e308}]");
+
+        ResponseEntity<Flux<DataBuffer>> response = calculationController.calculateBatch(body(exchange), exchange).block();
+
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("[68.2,4.4,\"Infinity\"]", asString(response.getBody()));
+        assertEquals(3, (Integer) exchange.getAttribute(CallLoggingFilter.ITEM_COUNT_ATTRIBUTE));
+        ArgumentCaptor<CalculationBatch> batch = ArgumentCaptor.forClass(CalculationBatch.class);
+        verify(calculationService).calculate(batch.capture());
+        assertEquals(3, batch.getValue().size());
+        assertEquals(1.5, batch.getValue().number1(1));
+        assertEquals(2.5, batch.getValue().number2(1));
+    }
+
+    @Test
+    public void testCalculateBatch_WithNdjson() {
+        when(calculationService.calculate(any(CalculationBatch.class))).thenReturn(Mono.just(new double[]{68.2, 4.4}));
+        MockServerWebExchange exchange = exchange(MediaType.APPLICATION_NDJSON,
+                "{\"number1\":12,\"number2\":50}\n{\"number1\":1.5,\"number2\":2.5}\n");
+
+        ResponseEntity<Flux<DataBuffer>> response = calculationController.calculateBatch(body(exchange), exchange).block();
+
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertEquals("68.2\n4.4\n", asString(response.getBody()));
+    }
+
+    @Test
+    public void testCalculateBatch_ChargesOneTokenPerItem() {
+        when(calculationService.calculate(any(CalculationBatch.class))).thenReturn(Mono.just(new double[]{1, 2, 3}));
+        ConsumptionProbe probe = mock(ConsumptionProbe.class);
+        when(probe.isConsumed()).thenReturn(false);
+        when(rateLimiterService.tryConsume(eq("global"), any(), eq(2L))).thenReturn(Mono.just(probe));
+        MockServerWebExchange exchange = exchange(MediaType.APPLICATION_JSON,
+                "[{\"number1\":1,\"number2\":0},{\"number1\":2,\"number2\":0},{\"number1\":3,\"number2\":0}]");
+        exchange.getAttributes().put(RateLimitQuota.ATTRIBUTE, new RateLimitQuota(rateLimiterService, "global",
+                policy(), exchange.getResponse().getHeaders()));
+
+        // La solicitud ya pagó un token en el filtro: el lote cobra los 2 restantes
+        StepVerifier.create(calculationController.calculateBatch(body(exchange), exchange))
+                .expectError(RateLimitExceededException.class)
+                .verify();
+        verify(rateLimiterService).tryConsume(eq("global"), any(), eq(2L));
+        verify(calculationService, never()).calculate(any(CalculationBatch.class));
+    }
+
+    @Test
+    public void testCalculateBatch_RejectsInvalidItems() {
+        MockServerWebExchange exchange = exchange(MediaType.APPLICATION_JSON, "[{\"number1\":1,\"number2\":\"a\"}]");
+
+        StepVerifier.create(calculationController.calculateBatch(body(exchange), exchange))
+                .expectError(InvalidBatchException.class)
+                .verify();
+    }
+
+    @Test
+    public void testCalculateBatch_RejectsBatchesOverTheLimit() {
+        MockServerWebExchange exchange = exchange(MediaType.APPLICATION_NDJSON,
+                "{\"number1\":1,\"number2\":1}\n".repeat(4));
+
+        StepVerifier.create(calculationController.calculateBatch(body(exchange), exchange))
+                .expectErrorMessage("Batch exceeds 3 items")
+                .verify();
+        verify(calculationService, never()).calculate(any(CalculationBatch.class));
+    }
+
+    private static MockServerWebExchange exchange(MediaType contentType, String body) {
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/calculation/batch")
+                .contentType(contentType)
+                .body(body));
+    }
+
+    private static Flux<DataBuffer> body(MockServerWebExchange exchange) {
+        return exchange.getRequest().getBody();
+    }
+
+    private static String asString(Flux<DataBuffer> body) {
+        DataBuffer joined = DataBufferUtils.join(body).block();
+        return joined.toString(StandardCharsets.UTF_8);
+    }
+
+    private static RateLimitPolicy policy() {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setPath("/calculation/batch");
+        policy.setLimits(List.of(new RateLimitProperties.Limit(10, Duration.ofMinutes(1),
+                RateLimitProperties.RefillType.GREEDY)));
+        return RateLimitPolicy.of(policy);
+    }
+}
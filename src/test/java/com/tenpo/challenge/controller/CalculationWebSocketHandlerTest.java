@@ -0,0 +1,127 @@
+package com.tenpo.challenge.controller;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenpo.challenge.config.CalculationStreamProperties;
+import com.tenpo.challenge.config.RateLimitProperties;
+import com.tenpo.challenge.model.CallLog;
+import com.tenpo.challenge.service.CallLogService;
+import com.tenpo.challenge.service.ExternalPercentageService;
+import com.tenpo.challenge.service.impl.CalculationServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CalculationWebSocketHandlerTest {
+
+    @Mock
+    private ExternalPercentageService externalPercentageService;
+
+    @Mock
+    private CallLogService callLogService;
+
+    @Mock
+    private WebSocketSession session;
+
+    private final List<String> sent = new ArrayList<>();
+
+    private CalculationWebSocketHandler handler;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(externalPercentageService.getPercentage()).thenReturn(Mono.just(10.0));
+        when(callLogService.logCall(any(CallLog.class))).thenReturn(Mono.empty());
+        when(session.getId()).thenReturn("s1");
+        when(session.textMessage(anyString())).thenAnswer(invocation -> message(invocation.getArgument(0)));
+        when(session.send(any())).thenAnswer(invocation -> Flux.from(invocation.<Publisher<WebSocketMessage>>getArgument(0))
+                .doOnNext(reply -> sent.add(reply.getPayloadAsText()))
+                .then());
+
+        CalculationStreamProperties properties = new CalculationStreamProperties();
+        properties.setMaxItemsPerMessage(3);
+        properties.setLimits(List.of(new RateLimitProperties.Limit(5, Duration.ofMinutes(1),
+                RateLimitProperties.RefillType.INTERVALLY)));
+        handler = new CalculationWebSocketHandler(new CalculationServiceImpl(externalPercentageService), callLogService,
+                new ObjectMapper(), properties);
+    }
+
+    @Test
+    public void testRepliesInOrderAndLogsTheConnectionOnce() {
+        receive("{\"number1\":12,\"number2\":50}",
+                "[{\"number1\":1.5,\"number2\":2.5},{\"number1\":-3,\"number2\":3}]",
+                "{\"number1\":1.5,\"number2\":2.5}\n{\"number1\":1e308,\"number2\":1e308}");
+
+        StepVerifier.create(handler.handle(session))
+                .verifyComplete();
+
+        // Una respuesta por mensaje, con la misma forma que el mensaje
+        assertEquals(List.of("68.2", "[4.4,0.0]", "4.4\n\"Infinity\""), sent);
+        ArgumentCaptor<CallLog> captor = ArgumentCaptor.forClass(CallLog.class);
+        verify(callLogService).logCall(captor.capture());
+        CallLog callLog = captor.getValue();
+        assertEquals(CalculationWebSocketHandler.PATH, callLog.getEndpoint());
+        assertEquals(5, callLog.getItemCount());
+        assertEquals(101, callLog.getStatusCode());
+        assertEquals("messages=3, items=5, rejected=0, invalid=0, failed=0", callLog.getResponse());
+        verify(externalPercentageService, times(3)).getPercentage();
+    }
+
+    @Test
+    public void testRejectsMessagesOverTheConnectionLimitAndKeepsTheConnectionOpen() {
+        receive("[{\"number1\":1,\"number2\":1},{\"number1\":1,\"number2\":1},{\"number1\":1,\"number2\":1}]",
+                "[{\"number1\":1,\"number2\":1},{\"number1\":1,\"number2\":1},{\"number1\":1,\"number2\":1}]",
+                "{\"number1\":1,\"number2\":\"a\"}",
+                "{\"number1\":12,\"number2\":50}");
+
+        StepVerifier.create(handler.handle(session))
+                .verifyComplete();
+
+        // El segundo mensaje no cabe en el bucket de la conexión, el tercero es inválido
+        assertEquals(4, sent.size());
+        assertEquals("[2.2,2.2,2.2]", sent.get(0));
+        assertTrue(sent.get(1).contains("\"message\":\"Límite de solicitudes excedido\""));
+        assertTrue(sent.get(2).contains("\"message\":\"Lote inválido\""));
+        assertEquals("68.2", sent.get(3));
+        ArgumentCaptor<CallLog> captor = ArgumentCaptor.forClass(CallLog.class);
+        verify(callLogService).logCall(captor.capture());
+        assertEquals("messages=4, items=4, rejected=1, invalid=1, failed=0", captor.getValue().getResponse());
+    }
+
+    @Test
+    public void testRepliesWithAnErrorWhenTheCalculationFails() {
+        when(externalPercentageService.getPercentage()).thenReturn(Mono.error(new IllegalStateException("sin porcentaje")));
+        receive("{\"number1\":12,\"number2\":50}");
+
+        StepVerifier.create(handler.handle(session))
+                .verifyComplete();
+
+        assertEquals(1, sent.size());
+        assertTrue(sent.get(0).contains("\"details\":\"sin porcentaje\""));
+    }
+
+    private void receive(String... messages) {
+        when(session.receive()).thenReturn(Flux.fromArray(messages).map(CalculationWebSocketHandlerTest::message));
+    }
+
+    private static WebSocketMessage message(String text) {
+        return new WebSocketMessage(WebSocketMessage.Type.TEXT,
+                DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -3,8 +3,12 @@ package com.tenpo.challenge.controller;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.tenpo.challenge.config.RedisCommandLatencyRecorder;
+import com.tenpo.challenge.dto.CallLogRollup;
+import com.tenpo.challenge.dto.LatencyPercentiles;
 import com.tenpo.challenge.model.CallLog;
 import com.tenpo.challenge.service.CallLogService;
+import com.tenpo.challenge.service.LatencyStatsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -14,11 +18,19 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import org.springframework.http.ResponseEntity;
 
+import java.time.LocalDateTime;
+
 public class CallLogControllerTest {
 
     @Mock
     private CallLogService callLogService;
 
+    @Mock
+    private LatencyStatsService latencyStatsService;
+
+    @Mock
+    private RedisCommandLatencyRecorder redisCommandLatencyRecorder;
+
     @InjectMocks
     private CallLogController callLogController;
 
@@ -38,4 +50,54 @@ public class CallLogControllerTest {
         assertNotNull(response.block().getBody());
         assertEquals(200, response.block().getStatusCodeValue());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testExportCallLogs() {
+        // Configura el comportamiento del servicio simulado
+        LocalDateTime from = LocalDateTime.of(2025, 1, 29, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 30, 0, 0);
+        when(callLogService.exportCallLogs(from, to)).thenReturn(Flux.just(new CallLog(), new CallLog()));
+
+        // Llama al método y verifica el resultado
+        Flux<CallLog> response = callLogController.exportCallLogs(from, to);
+        assertEquals(2, response.collectList().block().size());
+    }
+
+    @Test
+    public void testGetCallStats() {
+        // Configura el comportamiento del servicio simulado
+        LocalDateTime from = LocalDateTime.of(2025, 1, 29, 13, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 29, 14, 0);
+        CallLogRollup rollup = new CallLogRollup(from, "/calculation/", 4, 3, 0);
+        when(callLogService.getCallStats(from, to, null)).thenReturn(Flux.just(rollup));
+
+        // Llama al método y verifica el resultado
+        ResponseEntity<Flux<CallLogRollup>> response = callLogController.getCallStats(from, to, null).block();
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("4xx", response.getBody().blockFirst().getStatusClass());
+    }
+
+    @Test
+    public void testGetLatencyStats() {
+        // Configura el comportamiento del servicio simulado
+        LatencyPercentiles percentiles = new LatencyPercentiles("/calculation/", 10, 100, 200, 300, 400, 500);
+        when(latencyStatsService.getLatencyStats()).thenReturn(Flux.just(percentiles));
+
+        // Llama al método y verifica el resultado
+        ResponseEntity<Flux<LatencyPercentiles>> response = callLogController.getLatencyStats().block();
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(300, response.getBody().blockFirst().getP99());
+    }
+
+    @Test
+    public void testGetRedisLatencyStats() {
+        // Configura el comportamiento del recorder simulado
+        LatencyPercentiles percentiles = new LatencyPercentiles("GET", 10, 100, 200, 300, 400, 500);
+        when(redisCommandLatencyRecorder.getLatencyStats()).thenReturn(Flux.just(percentiles));
+
+        // Llama al método y verifica el resultado
+        ResponseEntity<Flux<LatencyPercentiles>> response = callLogController.getRedisLatencyStats().block();
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("GET", response.getBody().blockFirst().getEndpoint());
+    }
+}
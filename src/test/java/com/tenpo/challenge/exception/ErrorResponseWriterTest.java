@@ -0,0 +1,59 @@
+package com.tenpo.challenge.exception;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorResponseWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ErrorResponseWriter writer = new ErrorResponseWriter(objectMapper);
+
+    @Test
+    void writeRateLimitExceeded_ShouldWritePreEncodedBodyWithPathAndTimestamp() throws Exception {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/calculation/"));
+
+        StepVerifier.create(writer.writeRateLimitExceeded(exchange))
+                .verifyComplete();
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exchange.getResponse().getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, exchange.getResponse().getHeaders().getContentType());
+        JsonNode body = objectMapper.readTree(exchange.getResponse().getBodyAsString().block());
+        assertEquals("Límite de solicitudes excedido", body.get("message").asText());
+        assertEquals("Rate limit exceeded", body.get("details").asText());
+        assertEquals("/calculation/", body.get("path").asText());
+        assertTrue(body.get("timestamp").asText().matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}"));
+    }
+
+    @Test
+    void writeRateLimitExceeded_ShouldEscapePath_WhenItIsNotPlainAscii() throws Exception {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/cálculo/%22x%22"));
+
+        StepVerifier.create(writer.writeRateLimitExceeded(exchange))
+                .verifyComplete();
+
+        JsonNode body = objectMapper.readTree(exchange.getResponse().getBodyAsString().block());
+        assertEquals(exchange.getRequest().getPath().toString(), body.get("path").asText());
+    }
+
+    @Test
+    void write_ShouldSerializeErrorResponse() throws Exception {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/call-logs"));
+
+        StepVerifier.create(writer.write(exchange, HttpStatus.BAD_REQUEST, "Cursor inválido", "bad cursor"))
+                .verifyComplete();
+
+        assertEquals(HttpStatus.BAD_REQUEST, exchange.getResponse().getStatusCode());
+        JsonNode body = objectMapper.readTree(exchange.getResponse().getBodyAsString().block());
+        assertEquals("Cursor inválido", body.get("message").asText());
+        assertEquals("bad cursor", body.get("details").asText());
+        assertEquals("/call-logs", body.get("path").asText());
+    }
+}
@@ -0,0 +1,232 @@
+package com.tenpo.challenge.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenpo.challenge.dto.LatencyPercentiles;
+import com.tenpo.challenge.model.CallLog;
+import com.tenpo.challenge.service.CallLogService;
+import com.tenpo.challenge.service.LatencyStatsService;
+import com.tenpo.challenge.service.impl.LatencyStatsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CallLoggingFilterTest {
+
+    private static final int MAX_REQUEST_BYTES = 8;
+    private static final int MAX_RESPONSE_BYTES = 16;
+
+    @Mock
+    private CallLogService callLogService;
+
+    @Mock
+    private LatencyStatsService latencyStatsService;
+
+    private CallLoggingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new CallLoggingFilter(callLogService, latencyStatsService, new ObjectMapper(), MAX_REQUEST_BYTES, MAX_RESPONSE_BYTES,
+                List.of("/actuator/**"));
+        lenient().when(callLogService.logCall(any(CallLog.class))).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void filter_ShouldStreamResponseAndLogIt_WhenBodyFitsTheLimit() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/calculation/?number1=12&number2=50"));
+
+        StepVerifier.create(filter.filter(exchange, routed("/calculation/", writing(HttpStatus.OK, "68.2"))))
+                .verifyComplete();
+
+        StepVerifier.create(exchange.getResponse().getBodyAsString())
+                .expectNext("68.2")
+                .verifyComplete();
+        CallLog callLog = loggedCall();
+        assertEquals("/calculation/", callLog.getEndpoint());
+        assertEquals("68.2", callLog.getResponse());
+        assertNull(callLog.getError());
+        assertEquals(200, callLog.getStatusCode());
+        assertEquals(12.0, callLog.getNumber1());
+        assertEquals(50.0, callLog.getNumber2());
+        assertEquals("{\"number1\":[\"12\"],\"number2\":[\"50\"]}", callLog.getQueryParams());
+        assertNotNull(callLog.getDurationMicros());
+        verify(latencyStatsService).record("/calculation/", callLog.getDurationMicros());
+    }
+
+    @Test
+    void filter_ShouldRecordLatencyByRoutePattern_WhenManyUnknownPathsAreRequested() {
+        LatencyStatsServiceImpl latencyStats = new LatencyStatsServiceImpl(256, 60_000_000);
+        CallLoggingFilter statsFilter = new CallLoggingFilter(callLogService, latencyStats, new ObjectMapper(),
+                MAX_REQUEST_BYTES, MAX_RESPONSE_BYTES, List.of("/actuator/**"));
+
+        // Más rutas desconocidas que espacios para endpoints: todas comparten la clave "unmatched"
+        for (int i = 0; i < 300; i++) {
+            statsFilter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/probe-" + i + ".php")),
+                    writing(HttpStatus.NOT_FOUND, "{}")).block();
+        }
+        statsFilter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/calculation/?number1=1&number2=2")),
+                routed("/calculation/", writing(HttpStatus.OK, "3.3"))).block();
+
+        Map<String, Long> counts = latencyStats.getLatencyStats().collectMap(LatencyPercentiles::getEndpoint,
+                LatencyPercentiles::getCount).block();
+        assertEquals(Map.of(CallLoggingFilter.UNMATCHED_ENDPOINT, 300L, "/calculation/", 1L), counts);
+    }
+
+    @Test
+    void filter_ShouldNotLog_WhenPathIsExcluded() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/actuator/health/readiness"));
+
+        StepVerifier.create(filter.filter(exchange, writing(HttpStatus.OK, "{\"status\":\"UP\"}")))
+                .verifyComplete();
+
+        verify(callLogService, never()).logCall(any(CallLog.class));
+        verifyNoInteractions(latencyStatsService);
+    }
+
+    @Test
+    void filter_ShouldMeasureDurationUntilResponseCommit() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/calculation/"));
+        WebFilterChain chain = filteredExchange -> Mono.delay(Duration.ofMillis(50))
+                .then(writing(HttpStatus.OK, "ok").filter(filteredExchange));
+
+        StepVerifier.create(filter.filter(exchange, chain))
+                .verifyComplete();
+
+        assertTrue(loggedCall().getDurationMicros() >= 50_000);
+    }
+
+    @Test
+    void filter_ShouldPassWholeBodyAndLogTruncatedPrefix_WhenBodyExceedsTheLimit() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/call-logs/"));
+        String chunk = "0123456789";
+
+        StepVerifier.create(filter.filter(exchange, writing(HttpStatus.OK, chunk, chunk, chunk)))
+                .verifyComplete();
+
+        StepVerifier.create(exchange.getResponse().getBodyAsString())
+                .expectNext(chunk + chunk + chunk)
+                .verifyComplete();
+        CallLog callLog = loggedCall();
+        assertEquals("/call-logs/", callLog.getEndpoint());
+        assertEquals("0123456789012345...[truncated, totalBytes=30]", callLog.getResponse());
+        assertNull(callLog.getNumber1());
+    }
+
+    @Test
+    void filter_ShouldLogResponseAsError_WhenStatusIsError() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/calculation/"));
+
+        StepVerifier.create(filter.filter(exchange, writing(HttpStatus.BAD_REQUEST, "{}")))
+                .verifyComplete();
+
+        CallLog callLog = loggedCall();
+        assertNull(callLog.getResponse());
+        assertEquals("{}", callLog.getError());
+        assertEquals(400, callLog.getStatusCode());
+    }
+
+    @Test
+    void filter_ShouldReplayRequestBodyAndLogCappedPrefix_WhenBodyIsText() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/calculation/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"number1\":12}"));
+        WebFilterChain chain = filteredExchange -> filteredExchange.getRequest().getBody()
+                .map(buffer -> buffer.toString(StandardCharsets.UTF_8))
+                .collect(Collectors.joining())
+                .flatMap(body -> {
+                    assertEquals("{\"number1\":12}", body);
+                    return writing(HttpStatus.OK, "ok").filter(filteredExchange);
+                });
+
+        StepVerifier.create(filter.filter(exchange, chain))
+                .verifyComplete();
+
+        CallLog callLog = loggedCall();
+        assertEquals("ok", callLog.getResponse());
+        assertTrue(callLog.getParameters().endsWith("body={\"number...[truncated, totalBytes=14]"));
+    }
+
+    @Test
+    void filter_ShouldNotCaptureRequestBody_WhenContentIsNotText() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/calculation/")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body("binary"));
+        WebFilterChain chain = filteredExchange -> filteredExchange.getRequest().getBody()
+                .then(writing(HttpStatus.OK, "ok").filter(filteredExchange));
+
+        StepVerifier.create(filter.filter(exchange, chain))
+                .verifyComplete();
+
+        assertTrue(loggedCall().getParameters().endsWith("body="));
+    }
+
+    @Test
+    void filter_ShouldLogItemCount_WhenHandlerSetsIt() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/calculation/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body("{\"number1\":1,\"number2\":2}\n{\"number1\":3,\"number2\":4}\n"));
+        WebFilterChain chain = filteredExchange -> {
+            // El controlador informa cuántos pares tenía el lote
+            filteredExchange.getAttributes().put(CallLoggingFilter.ITEM_COUNT_ATTRIBUTE, 2);
+            return writing(HttpStatus.OK, "3.3\n7.7\n").filter(filteredExchange);
+        };
+
+        StepVerifier.create(filter.filter(exchange, chain))
+                .verifyComplete();
+
+        CallLog callLog = loggedCall();
+        assertEquals("/calculation/batch", callLog.getEndpoint());
+        assertEquals(2, callLog.getItemCount());
+        assertNull(callLog.getNumber1());
+    }
+
+    private CallLog loggedCall() {
+        ArgumentCaptor<CallLog> captor = ArgumentCaptor.forClass(CallLog.class);
+        verify(callLogService).logCall(captor.capture());
+        return captor.getValue();
+    }
+
+    private static WebFilterChain routed(String pattern, WebFilterChain chain) {
+        return exchange -> {
+            exchange.getAttributes().put(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                    PathPatternParser.defaultInstance.parse(pattern));
+            return chain.filter(exchange);
+        };
+    }
+
+    private static WebFilterChain writing(HttpStatus status, String... chunks) {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(status);
+            Flux<DataBuffer> body = Flux.fromArray(chunks)
+                    .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+            return exchange.getResponse().writeWith(body);
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package com.tenpo.challenge.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenpo.challenge.exception.ErrorResponseWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitingFilterTest {
+
+    private AdaptiveConcurrencyLimiter limiter;
+    private ConcurrencyLimitingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, 1.5, 0.2, 100);
+        filter = new ConcurrencyLimitingFilter(new ErrorResponseWriter(new ObjectMapper()), List.of("/calculation/**"), limiter, 2);
+    }
+
+    @Test
+    void filter_ShouldRejectWith503_WhenLimitIsReached() {
+        Sinks.Empty<Void> pending = Sinks.empty();
+        MockServerWebExchange first = MockServerWebExchange.from(MockServerHttpRequest.get("/calculation/"));
+        MockServerWebExchange second = MockServerWebExchange.from(MockServerHttpRequest.get("/calculation/"));
+        WebFilterChain slowChain = exchange -> pending.asMono();
+        WebFilterChain unexpectedChain = exchange -> Mono.error(new AssertionError("chain must not be called"));
+
+        StepVerifier.create(filter.filter(first, slowChain))
+                .then(() -> StepVerifier.create(filter.filter(second, unexpectedChain)).verifyComplete())
+                .then(pending::tryEmitEmpty)
+                .verifyComplete();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, second.getResponse().getStatusCode());
+        assertEquals("2", second.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        StepVerifier.create(second.getResponse().getBodyAsString())
+                .assertNext(body -> assertTrue(body.contains("Concurrency limit exceeded")))
+                .verifyComplete();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void filter_ShouldReleaseSlot_WhenRequestFails() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/calculation/"));
+
+        StepVerifier.create(filter.filter(exchange, e -> Mono.error(new IllegalStateException("boom"))))
+                .verifyError(IllegalStateException.class);
+
+        assertEquals(0, limiter.getInFlight());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void filter_ShouldNotLimit_WhenPathIsNotProtected() {
+        assertTrue(limiter.tryAcquire());
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/call-logs"));
+
+        StepVerifier.create(filter.filter(exchange, e -> Mono.empty()))
+                .verifyComplete();
+
+        assertNull(exchange.getResponse().getStatusCode());
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void filter_ShouldNotFeedLatency_WhenResponseIsClientError() {
+        AdaptiveConcurrencyLimiter calculationLimiter = new AdaptiveConcurrencyLimiter(10, 4, 100, 1.5, 0.2, 100);
+        ConcurrencyLimitingFilter calculationFilter = new ConcurrencyLimitingFilter(new ErrorResponseWriter(new ObjectMapper()),
+                List.of("/calculation/**"), calculationLimiter, 1);
+        long calculationRtt = TimeUnit.MILLISECONDS.toNanos(10);
+        for (int i = 0; i < 200; i++) {
+            assertTrue(calculationLimiter.tryAcquire());
+            calculationLimiter.onSuccess(calculationRtt);
+        }
+        int limit = calculationLimiter.getLimit();
+        // Cálculos en curso durante la ráfaga, para que el límite se ajuste con cada muestra
+        int busy = limit / 2 + 1;
+        for (int i = 0; i < busy; i++) {
+            assertTrue(calculationLimiter.tryAcquire());
+        }
+        WebFilterChain rejecting = exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            return Mono.empty();
+        };
+
+        for (int i = 0; i < 500; i++) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/calculation/"));
+            StepVerifier.create(calculationFilter.filter(exchange, rejecting)).verifyComplete();
+        }
+
+        assertEquals(limit, calculationLimiter.getLimit());
+        assertEquals(busy, calculationLimiter.getInFlight());
+        // Una ráfaga de 429 no cambia la latencia de referencia: un cálculo normal no reduce el límite
+        calculationLimiter.onSuccess(calculationRtt);
+        assertTrue(calculationLimiter.getLimit() >= limit);
+    }
+}
@@ -0,0 +1,62 @@
+package com.tenpo.challenge.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.net.InetSocketAddress;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitKeyResolverTest {
+
+    private final MockServerHttpRequest request = MockServerHttpRequest.get("/calculation/")
+            .remoteAddress(new InetSocketAddress("10.0.0.1", 52000))
+            .build();
+
+    @Test
+    void global_ShouldReturnTheSameKeyForEveryRequest() {
+        assertEquals(RateLimitKeyResolver.GLOBAL_KEY, RateLimitKeyResolver.global().resolve(request));
+    }
+
+    @Test
+    void ip_ShouldReturnTheClientAddress() {
+        assertEquals("ip:10.0.0.1", RateLimitKeyResolver.ip().resolve(request));
+    }
+
+    @Test
+    void apiKey_ShouldReturnTheHashOfAKnownKey_AndFallBackToTheClientAddress() {
+        RateLimitKeyResolver resolver = RateLimitKeyResolver.apiKey("X-API-Key", List.of("client-a", "client-b"));
+
+        String keyA = resolver.resolve(withApiKey("client-a"));
+        assertTrue(keyA.startsWith("key:"));
+        assertFalse(keyA.contains("client-a"));
+        assertEquals(keyA, resolver.resolve(withApiKey("client-a")));
+        assertNotEquals(keyA, resolver.resolve(withApiKey("client-b")));
+        assertEquals("ip:10.0.0.1", resolver.resolve(request));
+    }
+
+    @Test
+    void apiKey_ShouldNotGiveRandomKeysABucketOfTheirOwn() {
+        RateLimitKeyResolver resolver = RateLimitKeyResolver.apiKey("X-API-Key", List.of("client-a"));
+
+        // Una clave nueva en cada solicitud no debe entregar un bucket nuevo
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            keys.add(resolver.resolve(withApiKey(UUID.randomUUID().toString())));
+        }
+        keys.add(resolver.resolve(withApiKey("client-a" + "x".repeat(RateLimitKeyResolver.MAX_API_KEY_LENGTH))));
+
+        assertEquals(Set.of("ip:10.0.0.1"), keys);
+    }
+
+    private static MockServerHttpRequest withApiKey(String apiKey) {
+        return MockServerHttpRequest.get("/calculation/")
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 52000))
+                .header("X-API-Key", apiKey)
+                .build();
+    }
+}
@@ -1,12 +1,19 @@
 package com.tenpo.challenge.filter;
 
-import io.github.bucket4j.Bucket;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenpo.challenge.config.RateLimitPolicyRegistry;
+import com.tenpo.challenge.config.RateLimitProperties;
+import com.tenpo.challenge.exception.ErrorResponseWriter;
+import com.tenpo.challenge.service.RateLimiterService;
+import com.tenpo.challenge.service.impl.LocalRateLimiterService;
 import io.github.bucket4j.ConsumptionProbe;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
@@ -14,20 +21,28 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.server.RequestPath;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
 class RateLimitingFilterTest {
 
     @Mock
-    private Bucket bucket;
+    private RateLimiterService rateLimiterService;
 
     @Mock
     private ServerWebExchange exchange;
@@ -46,9 +61,17 @@ class RateLimitingFilterTest {
 
     private RateLimitingFilter filter;
 
+    private HttpHeaders headers;
+
     @BeforeEach
     void setUp() {
-        filter = new RateLimitingFilter(bucket);
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.Policy swagger = new RateLimitProperties.Policy();
+        swagger.setPath("/v3/api-docs/**");
+        swagger.setExempt(true);
+        properties.getPolicies().add(swagger);
+        filter = new RateLimitingFilter(rateLimiterService, RateLimitKeyResolver.global(),
+                new RateLimitPolicyRegistry(properties, 3), new ErrorResponseWriter(new ObjectMapper()));
         when(exchange.getRequest()).thenReturn(request);
         when(exchange.getResponse()).thenReturn(response);
         when(request.getURI()).thenReturn(URI.create("/test-uri"));
@@ -58,7 +81,7 @@ class RateLimitingFilterTest {
         when(requestPath.toString()).thenReturn("/test-uri");
 
         // Mock HttpHeaders
-        HttpHeaders headers = new HttpHeaders();
+        headers = new HttpHeaders();
         when(response.getHeaders()).thenReturn(headers);
 
         // Mock DataBufferFactory
@@ -70,8 +93,9 @@ class RateLimitingFilterTest {
     void filter_ShouldBlockRequest_WhenRateLimitExceeded() {
         ConsumptionProbe probe = mock(ConsumptionProbe.class);
         when(probe.isConsumed()).thenReturn(false);
-        when(probe.getNanosToWaitForRefill()).thenReturn(1_000_000_000L);
-        when(bucket.tryConsumeAndReturnRemaining(1)).thenReturn(probe);
+        when(probe.getNanosToWaitForRefill()).thenReturn(1_500_000_000L);
+        when(probe.getNanosToWaitForReset()).thenReturn(60_000_000_000L);
+        when(rateLimiterService.tryConsume(anyString(), any())).thenReturn(Mono.just(probe));
 
         doAnswer(invocation -> {
             HttpStatus status = invocation.getArgument(0);
@@ -84,5 +108,99 @@ class RateLimitingFilterTest {
                 .verifyComplete();
 
         verify(response).setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        assertEquals("3", headers.getFirst("RateLimit-Limit"));
+        assertEquals("0", headers.getFirst("RateLimit-Remaining"));
+        assertEquals("60", headers.getFirst("RateLimit-Reset"));
+        assertEquals("2", headers.getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("1500", headers.getFirst("X-Rate-Limit-Retry-After-Milliseconds"));
+    }
+
+    @Test
+    void filter_ShouldPassRequest_WhenTokenIsAvailable() {
+        ConsumptionProbe probe = mock(ConsumptionProbe.class);
+        when(probe.isConsumed()).thenReturn(true);
+        when(probe.getRemainingTokens()).thenReturn(2L);
+        when(rateLimiterService.tryConsume(anyString(), any())).thenReturn(Mono.just(probe));
+        when(chain.filter(exchange)).thenReturn(Mono.empty());
+
+        StepVerifier.create(filter.filter(exchange, chain))
+                .verifyComplete();
+
+        verify(chain).filter(exchange);
+        verify(response, never()).setStatusCode(any());
+        assertEquals("2", headers.getFirst("RateLimit-Remaining"));
+        assertNull(headers.getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void filter_ShouldLeaveQuotaForFurtherTokens_WhenTokenIsAvailable() {
+        Map<String, Object> attributes = new HashMap<>();
+        when(exchange.getAttributes()).thenReturn(attributes);
+        when(exchange.getAttribute(RateLimitQuota.ATTRIBUTE)).thenAnswer(invocation -> attributes.get(RateLimitQuota.ATTRIBUTE));
+        ConsumptionProbe admitted = mock(ConsumptionProbe.class);
+        when(admitted.isConsumed()).thenReturn(true);
+        when(rateLimiterService.tryConsume(anyString(), any())).thenReturn(Mono.just(admitted));
+        when(chain.filter(exchange)).thenReturn(Mono.empty());
+
+        StepVerifier.create(filter.filter(exchange, chain))
+                .verifyComplete();
+
+        // Un handler cobra los tokens restantes de la solicitud al mismo bucket
+        ConsumptionProbe rejected = mock(ConsumptionProbe.class);
+        when(rejected.isConsumed()).thenReturn(false);
+        when(rejected.getRemainingTokens()).thenReturn(2L);
+        when(rejected.getNanosToWaitForRefill()).thenReturn(20_000_000_000L);
+        when(rateLimiterService.tryConsume(anyString(), any(), eq(5L))).thenReturn(Mono.just(rejected));
+        RateLimitQuota quota = RateLimitQuota.of(exchange);
+
+        assertNotNull(quota);
+        StepVerifier.create(quota.tryConsume(5))
+                .expectNext(false)
+                .verifyComplete();
+        assertEquals("2", headers.getFirst("RateLimit-Remaining"));
+        assertEquals("20", headers.getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void filter_ShouldSkipRateLimiting_WhenPathIsExempt() {
+        when(request.getURI()).thenReturn(URI.create("/v3/api-docs/swagger-config"));
+        when(chain.filter(exchange)).thenReturn(Mono.empty());
+
+        StepVerifier.create(filter.filter(exchange, chain))
+                .verifyComplete();
+
+        verify(rateLimiterService, never()).tryConsume(anyString(), any());
+        verify(chain).filter(exchange);
+    }
+
+    @Test
+    void filter_ShouldNotConsumeCalculationTokens_WhenPollingCallLogStats() {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.Policy callLogs = new RateLimitProperties.Policy();
+        callLogs.setPath("/call-logs/**");
+        callLogs.setLimits(List.of(new RateLimitProperties.Limit(120, Duration.ofMinutes(1),
+                RateLimitProperties.RefillType.GREEDY)));
+        properties.getPolicies().add(callLogs);
+        RateLimitingFilter localFilter = new RateLimitingFilter(new LocalRateLimiterService(100, Duration.ofMinutes(1)),
+                RateLimitKeyResolver.global(), new RateLimitPolicyRegistry(properties, 3),
+                new ErrorResponseWriter(new ObjectMapper()));
+
+        // Un dashboard consulta las estadísticas más veces que el límite por defecto
+        for (int i = 0; i < 10; i++) {
+            assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, filterRequest(localFilter, "/call-logs/stats"));
+        }
+
+        // El bucket de /calculation sigue completo
+        for (int i = 0; i < 3; i++) {
+            assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, filterRequest(localFilter, "/calculation/"));
+        }
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, filterRequest(localFilter, "/calculation/"));
+    }
+
+    private static HttpStatus filterRequest(RateLimitingFilter rateLimitingFilter, String path) {
+        MockServerWebExchange localExchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        StepVerifier.create(rateLimitingFilter.filter(localExchange, e -> Mono.empty()))
+                .verifyComplete();
+        return (HttpStatus) localExchange.getResponse().getStatusCode();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.tenpo.challenge.scheduler;
+
+import com.tenpo.challenge.repository.CallLogPartitionRepository;
+import com.tenpo.challenge.repository.CallLogRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CallLogPartitionSchedulerTest {
+
+    @Mock
+    private CallLogPartitionRepository callLogPartitionRepository;
+
+    @Mock
+    private CallLogRollupRepository callLogRollupRepository;
+
+    private CallLogPartitionScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new CallLogPartitionScheduler(callLogPartitionRepository, callLogRollupRepository, 7, 30, 90);
+    }
+
+    @Test
+    void maintainPartitions_ShouldCreateUpcomingAndDropExpiredPartitions() {
+        when(callLogPartitionRepository.createPartitions(7)).thenReturn(Mono.just(1));
+        when(callLogPartitionRepository.dropPartitionsOlderThan(30)).thenReturn(Mono.just(1));
+        when(callLogRollupRepository.deleteOlderThan(90)).thenReturn(Mono.just(60L));
+
+        StepVerifier.create(scheduler.maintainPartitions())
+                .verifyComplete();
+
+        verify(callLogPartitionRepository).createPartitions(7);
+        verify(callLogPartitionRepository).dropPartitionsOlderThan(30);
+        verify(callLogRollupRepository).deleteOlderThan(90);
+    }
+
+    @Test
+    void maintainPartitions_ShouldCompleteWithoutError_WhenDatabaseFails() {
+        when(callLogPartitionRepository.createPartitions(7)).thenReturn(Mono.error(new RuntimeException("db down")));
+        when(callLogPartitionRepository.dropPartitionsOlderThan(30)).thenReturn(Mono.just(0));
+        when(callLogRollupRepository.deleteOlderThan(90)).thenReturn(Mono.just(0L));
+
+        StepVerifier.create(scheduler.maintainPartitions())
+                .verifyComplete();
+    }
+}
@@ -3,6 +3,7 @@ package com.tenpo.challenge.service;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.tenpo.challenge.dto.CalculationBatch;
 import com.tenpo.challenge.service.impl.CalculationServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,4 +34,19 @@ public class CalculationServiceImplTest {
         Mono<Double> result = calculationService.calculate(12.0, 50.0);
         assertEquals(68.2, result.block());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCalculateBatch() {
+        when(externalPercentageService.getPercentage()).thenReturn(Mono.just(10.0));
+        CalculationBatch batch = new CalculationBatch(new double[]{12.0, 1.5, -3.0}, new double[]{50.0, 2.5, 3.0}, 3);
+
+        double[] results = calculationService.calculate(batch).block();
+
+        // Cada resultado es igual al del cálculo individual, con una sola consulta del porcentaje
+        assertArrayEquals(new double[]{
+                calculationService.calculate(12.0, 50.0).block(),
+                calculationService.calculate(1.5, 2.5).block(),
+                calculationService.calculate(-3.0, 3.0).block()}, results);
+        verify(externalPercentageService, times(4)).getPercentage();
+    }
+}
@@ -3,39 +3,94 @@ package com.tenpo.challenge.service;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.tenpo.challenge.dto.CallLogCursor;
+import com.tenpo.challenge.dto.CallLogPage;
+import com.tenpo.challenge.dto.CallLogRollup;
+import com.tenpo.challenge.exception.InvalidCursorException;
+import com.tenpo.challenge.exception.InvalidPageException;
 import com.tenpo.challenge.model.CallLog;
+import com.tenpo.challenge.repository.CallLogBulkRepository;
 import com.tenpo.challenge.repository.CallLogRepository;
+import com.tenpo.challenge.repository.CallLogRollupRepository;
 import com.tenpo.challenge.service.impl.CallLogServiceImpl;
+import com.tenpo.challenge.service.impl.CallLogWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import org.springframework.data.domain.PageRequest;
 
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
 public class CallLogServiceImplTest {
 
     @Mock
     private CallLogRepository callLogRepository;
 
-    @InjectMocks
+    @Mock
+    private CallLogBulkRepository callLogBulkRepository;
+
+    @Mock
+    private CallLogRollupRepository callLogRollupRepository;
+
+    @Mock
+    private CallLogWriter callLogWriter;
+
     private CallLogServiceImpl callLogService;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        callLogService = new CallLogServiceImpl(callLogRepository, callLogBulkRepository, callLogRollupRepository,
+                callLogWriter, 100, 1000);
     }
 
     @Test
     public void testLogCall() {
-        CallLog callLog = new CallLog();
-        when(callLogRepository.save(any(CallLog.class))).thenReturn(Mono.just(callLog));
+        when(callLogWriter.enqueue(any(CallLog.class))).thenReturn(true);
 
         Mono<Void> result = callLogService.logCall("endpoint", "params", "response", "error", 200);
         assertNotNull(result);
-        verify(callLogRepository, times(1)).save(any(CallLog.class));
+        result.block();
+        verify(callLogWriter, times(1)).enqueue(any(CallLog.class));
+        verify(callLogRepository, never()).save(any(CallLog.class));
+    }
+
+    @Test
+    public void testLogCallEnqueuesOffTheCallerThreadWhenWriterMayBlock() {
+        AtomicReference<String> enqueueThread = new AtomicReference<>();
+        when(callLogWriter.mayBlock()).thenReturn(true);
+        when(callLogWriter.enqueue(any(CallLog.class))).thenAnswer(invocation -> {
+            enqueueThread.set(Thread.currentThread().getName());
+            return true;
+        });
+
+        callLogService.logCall(new CallLog()).block();
+        // Con la política BLOCK el encolado no debe detener el hilo del event loop
+        assertTrue(enqueueThread.get().startsWith("boundedElastic"));
+    }
+
+    @Test
+    public void testLogCallSetsMissingTimestamp() {
+        CallLog callLog = new CallLog();
+        callLog.setNumber1(12.0);
+        when(callLogWriter.enqueue(callLog)).thenReturn(true);
+
+        callLogService.logCall(callLog).block();
+        assertNotNull(callLog.getTimestamp());
+        verify(callLogWriter, times(1)).enqueue(callLog);
+    }
+
+    @Test
+    public void testSearchByNumber1() {
+        LocalDateTime since = LocalDateTime.of(2025, 1, 29, 13, 0);
+        when(callLogRepository.findByNumber1GreaterThanSince(10.0, since, 100)).thenReturn(Flux.just(new CallLog()));
+
+        Flux<CallLog> result = callLogService.searchByNumber1(10.0, since, 100);
+        assertEquals(1, result.collectList().block().size());
     }
 
     @Test
@@ -48,4 +103,94 @@ public class CallLogServiceImplTest {
         assertEquals(1, result.collectList().block().size());
         verify(callLogRepository, times(1)).findAllByOrderByTimestampDesc(any(PageRequest.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetCallLogsClampsSizeAndRejectsDeepPages() {
+        when(callLogRepository.findAllByOrderByTimestampDesc(any(PageRequest.class))).thenReturn(Flux.empty());
+
+        callLogService.getCallLogs(10, Integer.MAX_VALUE).blockLast();
+        verify(callLogRepository).findAllByOrderByTimestampDesc(PageRequest.of(10, 100));
+
+        // Las páginas más allá del offset máximo deben leerse con el cursor
+        assertThrows(InvalidPageException.class, () -> callLogService.getCallLogs(11, 100));
+        assertThrows(InvalidPageException.class, () -> callLogService.getCallLogs(Integer.MAX_VALUE, 10));
+        assertThrows(InvalidPageException.class, () -> callLogService.getCallLogs(-1, 10));
+    }
+
+    @Test
+    public void testGetCallLogPageClampsSize() {
+        when(callLogRepository.findFirstPage(anyInt())).thenReturn(Flux.empty());
+
+        // Sin límite, size + 1 desbordaría a un LIMIT negativo
+        callLogService.getCallLogPage(null, Integer.MAX_VALUE).block();
+        callLogService.getCallLogPage(null, 0).block();
+
+        verify(callLogRepository).findFirstPage(101);
+        verify(callLogRepository).findFirstPage(2);
+    }
+
+    @Test
+    public void testGetCallLogPageReturnsNextCursor() {
+        CallLog newest = callLog(3L, LocalDateTime.of(2025, 1, 29, 14, 30, 0));
+        CallLog middle = callLog(2L, LocalDateTime.of(2025, 1, 29, 14, 29, 0));
+        CallLog oldest = callLog(1L, LocalDateTime.of(2025, 1, 29, 14, 28, 0));
+        when(callLogRepository.findFirstPage(3)).thenReturn(Flux.just(newest, middle, oldest));
+
+        CallLogPage page = callLogService.getCallLogPage(null, 2).block();
+
+        assertEquals(2, page.getItems().size());
+        CallLogCursor cursor = CallLogCursor.decode(page.getNextCursor());
+        assertEquals(middle.getTimestamp(), cursor.getTimestamp());
+        assertEquals(2L, cursor.getId());
+    }
+
+    @Test
+    public void testGetCallLogPageUsesCursorPosition() {
+        CallLog oldest = callLog(1L, LocalDateTime.of(2025, 1, 29, 14, 28, 0));
+        String cursor = new CallLogCursor(LocalDateTime.of(2025, 1, 29, 14, 29, 0), 2L).encode();
+        when(callLogRepository.findPageBefore(LocalDateTime.of(2025, 1, 29, 14, 29, 0), 2L, 3))
+                .thenReturn(Flux.just(oldest));
+
+        CallLogPage page = callLogService.getCallLogPage(cursor, 2).block();
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testGetCallLogPageRejectsInvalidCursor() {
+        assertThrows(InvalidCursorException.class, () -> callLogService.getCallLogPage("not-a-cursor", 2));
+    }
+
+    @Test
+    public void testExportCallLogs() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 29, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 30, 0, 0);
+        when(callLogBulkRepository.streamRange(from, to)).thenReturn(Flux.just(new CallLog(), new CallLog()));
+
+        Flux<CallLog> result = callLogService.exportCallLogs(from, to);
+        assertEquals(2, result.collectList().block().size());
+        verify(callLogBulkRepository, times(1)).streamRange(from, to);
+    }
+
+    private static CallLog callLog(Long id, LocalDateTime timestamp) {
+        CallLog callLog = new CallLog();
+        callLog.setId(id);
+        callLog.setTimestamp(timestamp);
+        return callLog;
+    }
+
+    @Test
+    public void testGetCallStatsReadsRollups() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 29, 13, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 29, 14, 0);
+        CallLogRollup rollup = new CallLogRollup(from, "/calculation/", 2, 4, 1000);
+        when(callLogRollupRepository.findRange(from, to, "/calculation/")).thenReturn(Flux.just(rollup));
+
+        CallLogRollup result = callLogService.getCallStats(from, to, "/calculation/").blockFirst();
+
+        assertEquals("2xx", result.getStatusClass());
+        assertEquals(250, result.getAvgLatencyMicros());
+        verify(callLogRepository, never()).findFirstPage(anyInt());
+    }
+}
@@ -0,0 +1,124 @@
+package com.tenpo.challenge.service;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.tenpo.challenge.dto.CallLogPipelineStats;
+import com.tenpo.challenge.model.CallLog;
+import com.tenpo.challenge.repository.CallLogBulkRepository;
+import com.tenpo.challenge.service.impl.CallLogWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class CallLogWriterTest {
+
+    @Mock
+    private CallLogBulkRepository callLogBulkRepository;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void testEnqueueDropOldest() {
+        CallLogWriter writer = writer(2, CallLogWriter.OverflowPolicy.DROP_OLDEST);
+
+        assertTrue(writer.enqueue(new CallLog()));
+        assertTrue(writer.enqueue(new CallLog()));
+        assertTrue(writer.enqueue(new CallLog()));
+
+        CallLogPipelineStats stats = writer.getStats();
+        assertEquals(2, stats.getQueueDepth());
+        assertEquals(3, stats.getEnqueued());
+        assertEquals(1, stats.getDropped());
+    }
+
+    @Test
+    public void testEnqueueDropNewest() {
+        CallLogWriter writer = writer(2, CallLogWriter.OverflowPolicy.DROP_NEWEST);
+
+        assertTrue(writer.enqueue(new CallLog()));
+        assertTrue(writer.enqueue(new CallLog()));
+        assertFalse(writer.enqueue(new CallLog()));
+
+        CallLogPipelineStats stats = writer.getStats();
+        assertEquals(2, stats.getQueueDepth());
+        assertEquals(2, stats.getEnqueued());
+        assertEquals(1, stats.getDropped());
+    }
+
+    @Test
+    public void testEnqueueBlockTimesOut() {
+        CallLogWriter writer = writer(1, CallLogWriter.OverflowPolicy.BLOCK);
+
+        assertTrue(writer.enqueue(new CallLog()));
+        assertFalse(writer.enqueue(new CallLog()));
+        assertEquals(1, writer.getStats().getDropped());
+    }
+
+    @Test
+    public void testRejectsBatchSizeOverTheBindParameterLimit() {
+        // 11 columnas por fila: más de 5957 filas superan los 65535 parámetros de PostgreSQL
+        assertEquals(5957, CallLogBulkRepository.MAX_BATCH_SIZE);
+        assertDoesNotThrow(() -> new CallLogWriter(callLogBulkRepository, 10, 5957, 20,
+                CallLogWriter.OverflowPolicy.DROP_NEWEST, 5, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new CallLogWriter(callLogBulkRepository, 10, 5958, 20,
+                CallLogWriter.OverflowPolicy.DROP_NEWEST, 5, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new CallLogWriter(callLogBulkRepository, 10, 0, 20,
+                CallLogWriter.OverflowPolicy.DROP_NEWEST, 5, 1000));
+    }
+
+    @Test
+    public void testOnlyBlockPolicyMayBlock() {
+        assertTrue(writer(1, CallLogWriter.OverflowPolicy.BLOCK).mayBlock());
+        assertFalse(writer(1, CallLogWriter.OverflowPolicy.DROP_OLDEST).mayBlock());
+        assertFalse(writer(1, CallLogWriter.OverflowPolicy.DROP_NEWEST).mayBlock());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBackgroundWriterFlushesInBatches() {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        when(callLogBulkRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            int size = ((List<CallLog>) invocation.getArgument(0)).size();
+            batchSizes.add(size);
+            return Mono.just((long) size);
+        });
+        CallLogWriter writer = writer(100, CallLogWriter.OverflowPolicy.DROP_NEWEST);
+        for (int i = 0; i < 25; i++) {
+            writer.enqueue(new CallLog());
+        }
+
+        writer.start();
+        writer.stop();
+
+        assertTrue(batchSizes.size() >= 3);
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 10));
+        assertEquals(25, writer.getStats().getWritten());
+        assertEquals(0, writer.getStats().getQueueDepth());
+    }
+
+    @Test
+    public void testFailedBatchIsCounted() {
+        when(callLogBulkRepository.insertAll(anyList())).thenReturn(Mono.error(new RuntimeException("db down")));
+        CallLogWriter writer = writer(10, CallLogWriter.OverflowPolicy.DROP_NEWEST);
+        writer.enqueue(new CallLog());
+
+        writer.start();
+        writer.stop();
+
+        assertEquals(1, writer.getStats().getFailed());
+        assertEquals(0, writer.getStats().getWritten());
+    }
+
+    private CallLogWriter writer(int capacity, CallLogWriter.OverflowPolicy policy) {
+        return new CallLogWriter(callLogBulkRepository, capacity, 10, 20, policy, 5, 1000);
+    }
+}
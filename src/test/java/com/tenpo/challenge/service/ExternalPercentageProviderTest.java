@@ -0,0 +1,275 @@
+package com.tenpo.challenge.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tenpo.challenge.config.ExternalServiceConfig;
+import com.tenpo.challenge.config.ExternalServiceProperties;
+import com.tenpo.challenge.exception.ExternalServiceException;
+import com.tenpo.challenge.service.impl.CircuitBreaker;
+import com.tenpo.challenge.service.impl.ExternalPercentageProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalPercentageProviderTest {
+
+    private HttpServer server;
+    private ConnectionProvider connectionProvider;
+    private final Queue<StubResponse> responses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final MutableClock clock = new MutableClock();
+    private ExternalServiceProperties properties;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/api/v1/percentage", this::handle);
+        server.start();
+
+        properties = new ExternalServiceProperties();
+        properties.setUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/api/v1");
+        properties.setReadTimeout(Duration.ofMillis(300));
+        properties.getRetry().setInitialBackoff(Duration.ofMillis(10));
+        properties.getRetry().setMaxBackoff(Duration.ofMillis(50));
+        properties.getCircuitBreaker().setFailureThreshold(3);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        if (connectionProvider != null) {
+            connectionProvider.dispose();
+        }
+    }
+
+    @Test
+    void testFetchPercentage() {
+        responses.add(new StubResponse(200, "12.5", 0));
+
+        StepVerifier.create(provider().fetchPercentage())
+                .expectNext(12.5)
+                .verifyComplete();
+
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    void testMockPercentageSkipsExternalService() {
+        properties.setMockPercentage(10.0);
+
+        StepVerifier.create(provider().fetchPercentage())
+                .expectNext(10.0)
+                .verifyComplete();
+
+        assertEquals(0, hits.get());
+    }
+
+    @Test
+    void testServerErrorsAreRetriedWithBackoff() {
+        responses.add(new StubResponse(500, "", 0));
+        responses.add(new StubResponse(503, "", 0));
+        responses.add(new StubResponse(200, "12.5", 0));
+
+        StepVerifier.create(provider().fetchPercentage())
+                .expectNext(12.5)
+                .verifyComplete();
+
+        assertEquals(3, hits.get());
+    }
+
+    @Test
+    void testSlowResponseTimesOutAndIsRetried() {
+        // La primera respuesta supera el read timeout, la segunda llega a tiempo
+        responses.add(new StubResponse(200, "11.0", 1000));
+        responses.add(new StubResponse(200, "12.5", 0));
+
+        StepVerifier.create(provider().fetchPercentage())
+                .expectNext(12.5)
+                .verifyComplete();
+
+        assertEquals(2, hits.get());
+    }
+
+    @Test
+    void testClientErrorIsNotRetried() {
+        responses.add(new StubResponse(404, "", 0));
+
+        StepVerifier.create(provider().fetchPercentage())
+                .expectErrorSatisfies(e -> {
+                    assertInstanceOf(ExternalServiceException.class, e);
+                    assertEquals("Failed to fetch percentage", e.getMessage());
+                })
+                .verify();
+
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    void testRepeatedFailuresOpenCircuitBreaker() {
+        properties.getRetry().setMaxRetries(5);
+        for (int i = 0; i < 10; i++) {
+            responses.add(new StubResponse(500, "", 0));
+        }
+        ExternalPercentageProvider provider = provider();
+
+        // Se abre tras 3 fallas seguidas, sin agotar los 5 reintentos
+        StepVerifier.create(provider.fetchPercentage())
+                .expectErrorSatisfies(e -> assertEquals("External service circuit breaker is open", e.getMessage()))
+                .verify();
+        assertEquals(3, hits.get());
+        assertEquals(CircuitBreaker.State.OPEN, provider.getCircuitBreaker().getState());
+
+        // Mientras está abierto, las llamadas fallan de inmediato sin llegar al servicio
+        StepVerifier.create(provider.fetchPercentage())
+                .expectError(ExternalServiceException.class)
+                .verify(Duration.ofMillis(100));
+        assertEquals(3, hits.get());
+
+        // Pasado el tiempo de apertura, una llamada de prueba exitosa cierra el circuito
+        responses.clear();
+        responses.add(new StubResponse(200, "12.5", 0));
+        clock.advance(Duration.ofSeconds(10));
+        StepVerifier.create(provider.fetchPercentage())
+                .expectNext(12.5)
+                .verifyComplete();
+        assertEquals(4, hits.get());
+        assertEquals(CircuitBreaker.State.CLOSED, provider.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void testRetriesExhausted() {
+        properties.getRetry().setMaxRetries(2);
+        properties.getCircuitBreaker().setEnabled(false);
+        for (int i = 0; i < 3; i++) {
+            responses.add(new StubResponse(500, "", 0));
+        }
+
+        StepVerifier.create(provider().fetchPercentage())
+                .expectErrorSatisfies(e -> {
+                    assertInstanceOf(ExternalServiceException.class, e);
+                    assertEquals("Failed to fetch percentage after 2 retries", e.getMessage());
+                })
+                .verify();
+
+        assertEquals(3, hits.get());
+    }
+
+    @Test
+    void testSlowCallIsHedged() {
+        properties.setReadTimeout(Duration.ofSeconds(10));
+        properties.getHedging().setEnabled(true);
+        properties.getHedging().setMinDelay(Duration.ofMillis(50));
+        responses.add(new StubResponse(200, "11.0", 5000));
+        responses.add(new StubResponse(200, "12.5", 0));
+
+        long startNanos = System.nanoTime();
+        StepVerifier.create(provider().fetchPercentage())
+                .expectNext(12.5)
+                .verifyComplete();
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - startNanos).toMillis() < 4000);
+        assertEquals(2, hits.get());
+    }
+
+    @Test
+    void testHedgingDelayFollowsPercentile() {
+        properties.getHedging().setMinDelay(Duration.ofMillis(1));
+        properties.getHedging().setWindow(20);
+        ExternalPercentageProvider provider = provider();
+        assertEquals(Duration.ofMillis(1), provider.getHedgingDelay());
+
+        for (int i = 0; i < 20; i++) {
+            responses.add(new StubResponse(200, "12.5", i == 19 ? 150 : 0));
+            StepVerifier.create(provider.fetchPercentage()).expectNext(12.5).verifyComplete();
+        }
+
+        // Con 20 muestras el percentil 95 es la 19.ª más lenta, no la llamada lenta
+        Duration delay = provider.getHedgingDelay();
+        assertTrue(delay.toMillis() < 150, "delay was " + delay);
+        assertTrue(delay.compareTo(Duration.ofMillis(1)) >= 0);
+    }
+
+    private ExternalPercentageProvider provider() {
+        ExternalServiceConfig config = new ExternalServiceConfig();
+        connectionProvider = config.externalServiceConnectionProvider(properties);
+        WebClient webClient = config.externalServiceWebClient(WebClient.builder(),
+                config.externalServiceHttpClient(connectionProvider, properties), properties);
+        return new ExternalPercentageProvider(webClient, properties, clock);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        hits.incrementAndGet();
+        StubResponse response = responses.poll();
+        if (response == null) {
+            response = new StubResponse(500, "", 0);
+        }
+        try {
+            Thread.sleep(response.delayMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        try {
+            exchange.sendResponseHeaders(response.status(), body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } catch (IOException e) {
+            // El cliente cerró la conexión por timeout
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private record StubResponse(int status, String body, long delayMillis) {
+    }
+
+    private static class MutableClock extends Clock {
+
+        private final AtomicLong millis = new AtomicLong(Instant.parse("2023-10-05T00:00:00Z").toEpochMilli());
+
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+    }
+}
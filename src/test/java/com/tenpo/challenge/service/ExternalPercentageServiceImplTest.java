@@ -1,22 +1,40 @@
 package com.tenpo.challenge.service;
 
+import com.tenpo.challenge.config.PercentageProperties;
 import com.tenpo.challenge.service.impl.ExternalPercentageServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.core.ReactiveValueOperations;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
+import java.time.Clock;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
 class ExternalPercentageServiceImplTest {
 
     @Mock
@@ -26,26 +44,40 @@ class ExternalPercentageServiceImplTest {
     private ReactiveValueOperations<String, Double> valueOperations;
 
     @Mock
-    private WebClient.Builder webClientBuilder;
+    private ReactiveStringRedisTemplate stringRedisTemplate;
 
     @Mock
-    private WebClient webClient;
+    private ReactiveValueOperations<String, String> stringOperations;
+
+    @Mock
+    private PercentageProvider percentageProvider;
 
     private ExternalPercentageServiceImpl externalPercentageService;
 
+    private final MutableClock clock = new MutableClock();
+
     private static final String PERCENTAGE_KEY = "dynamic-percentage";
     private static final double MOCK_PERCENTAGE = 10.0;
     private static final Duration CACHE_DURATION = Duration.ofMinutes(30);
-    private static final String MOCK_URL = "https://dummy.api.com/api/v1";
+    private static final Duration REFRESH_INTERVAL = Duration.ofMinutes(1);
+    private static final Duration NEAR_CACHE_TTL = Duration.ofMinutes(5);
+    private static final Duration MAX_STALENESS = Duration.ofHours(24);
+    private static final String LAST_KNOWN_GOOD_KEY = "dynamic-percentage:last-known-good";
 
     @BeforeEach
     void setUp() {
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         when(valueOperations.set(anyString(), anyDouble(), any(Duration.class))).thenReturn(Mono.just(true));
-        when(webClientBuilder.baseUrl(MOCK_URL)).thenReturn(webClientBuilder);
-        when(webClientBuilder.build()).thenReturn(webClient);
+        when(stringRedisTemplate.opsForValue()).thenReturn(stringOperations);
+        when(stringOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(1L));
+        when(stringRedisTemplate.convertAndSend(anyString(), anyString())).thenReturn(Mono.just(1L));
+        when(percentageProvider.fetchPercentage()).thenReturn(Mono.just(MOCK_PERCENTAGE));
+        when(valueOperations.get(LAST_KNOWN_GOOD_KEY)).thenReturn(Mono.empty());
+        when(redisTemplate.getExpire(LAST_KNOWN_GOOD_KEY)).thenReturn(Mono.empty());
 
-        externalPercentageService = new ExternalPercentageServiceImpl(redisTemplate, webClientBuilder);
+        externalPercentageService = new ExternalPercentageServiceImpl(redisTemplate, stringRedisTemplate,
+                percentageProvider, properties(), clock);
     }
 
     @Test
@@ -69,7 +101,301 @@ class ExternalPercentageServiceImplTest {
                 .expectNext(MOCK_PERCENTAGE)
                 .verifyComplete();
 
-        verify(valueOperations, times(1)).get(PERCENTAGE_KEY);
+        // Se vuelve a leer tras tomar el lock, por si otra instancia ya lo guardó
+        verify(valueOperations, times(2)).get(PERCENTAGE_KEY);
         verify(valueOperations, times(1)).set(PERCENTAGE_KEY, MOCK_PERCENTAGE, CACHE_DURATION);
+        verify(percentageProvider, times(1)).fetchPercentage();
+        verify(stringRedisTemplate).execute(any(RedisScript.class), eq(List.of(PERCENTAGE_KEY + ":lock")), anyList());
+    }
+
+    @Test
+    void getPercentage_ShouldServePreviousValue_WhenAnotherInstanceHoldsTheLock() {
+        when(valueOperations.get(PERCENTAGE_KEY)).thenReturn(Mono.just(MOCK_PERCENTAGE));
+        externalPercentageService.refresh().block();
+        when(valueOperations.get(PERCENTAGE_KEY)).thenReturn(Mono.empty());
+        when(stringOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(false));
+        clock.advance(NEAR_CACHE_TTL);
+
+        StepVerifier.create(externalPercentageService.getPercentage())
+                .expectNext(MOCK_PERCENTAGE)
+                .verifyComplete();
+
+        verify(percentageProvider, never()).fetchPercentage();
+    }
+
+    @Test
+    void getPercentage_ShouldFetchOncePerExpiry_AcrossInstancesAndConcurrentRequests() {
+        SharedRedis redis = new SharedRedis();
+        AtomicInteger upstreamFetches = new AtomicInteger();
+        PercentageProvider slowProvider = () -> Mono.delay(Duration.ofMillis(100))
+                .map(tick -> 10.0 + upstreamFetches.incrementAndGet());
+        List<ExternalPercentageServiceImpl> nodes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(new ExternalPercentageServiceImpl(redis.doubleTemplate(), redis.stringTemplate(),
+                    slowProvider, properties(), clock));
+        }
+
+        List<Double> firstRound = requestFromAllNodes(nodes, 25);
+        assertEquals(1, upstreamFetches.get());
+        assertTrue(firstRound.stream().allMatch(percentage -> percentage == 11.0));
+
+        // El porcentaje expira en Redis y en memoria, incluido el último valor válido
+        redis.values.clear();
+        clock.advance(MAX_STALENESS);
+
+        List<Double> secondRound = requestFromAllNodes(nodes, 25);
+        assertEquals(2, upstreamFetches.get());
+        assertTrue(secondRound.stream().allMatch(percentage -> percentage == 12.0));
+        assertFalse(redis.values.containsKey(PERCENTAGE_KEY + ":lock"));
+    }
+
+    private static List<Double> requestFromAllNodes(List<ExternalPercentageServiceImpl> nodes, int requestsPerNode) {
+        return Flux.fromIterable(nodes)
+                .flatMap(node -> Flux.range(0, requestsPerNode).flatMap(i -> node.getPercentage()))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+    }
+
+    private static PercentageProperties properties() {
+        PercentageProperties properties = new PercentageProperties();
+        properties.setCacheDuration(CACHE_DURATION);
+        properties.getNearCache().setRefreshInterval(REFRESH_INTERVAL);
+        properties.getNearCache().setTtl(NEAR_CACHE_TTL);
+        properties.getLock().setWait(Duration.ofSeconds(2));
+        properties.getLock().setPollInterval(Duration.ofMillis(10));
+        return properties;
+    }
+
+    /**
+     * In-memory stand-in for the Redis server shared by several instances, with SET NX semantics.
+     */
+    @SuppressWarnings("unchecked")
+    private static class SharedRedis {
+
+        private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+        ReactiveRedisTemplate<String, Double> doubleTemplate() {
+            ReactiveValueOperations<String, Double> operations = mock(ReactiveValueOperations.class);
+            when(operations.get(anyString())).thenAnswer(invocation ->
+                    Mono.fromSupplier(() -> (Double) values.get(invocation.<String>getArgument(0))));
+            when(operations.set(anyString(), anyDouble(), any(Duration.class))).thenAnswer(invocation -> {
+                values.put(invocation.getArgument(0), invocation.getArgument(1));
+                return Mono.just(true);
+            });
+            ReactiveRedisTemplate<String, Double> template = mock(ReactiveRedisTemplate.class);
+            when(template.opsForValue()).thenReturn(operations);
+            when(template.getExpire(anyString())).thenReturn(Mono.just(MAX_STALENESS));
+            return template;
+        }
+
+        ReactiveStringRedisTemplate stringTemplate() {
+            ReactiveValueOperations<String, String> operations = mock(ReactiveValueOperations.class);
+            when(operations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenAnswer(invocation ->
+                    Mono.fromSupplier(() -> values.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null));
+            ReactiveStringRedisTemplate template = mock(ReactiveStringRedisTemplate.class);
+            when(template.opsForValue()).thenReturn(operations);
+            when(template.execute(any(RedisScript.class), anyList(), anyList())).thenAnswer(invocation -> {
+                String key = invocation.<List<String>>getArgument(1).get(0);
+                Object owner = invocation.<List<String>>getArgument(2).get(0);
+                return Flux.just(values.remove(key, owner) ? 1L : 0L);
+            });
+            when(template.convertAndSend(anyString(), anyString())).thenReturn(Mono.just(0L));
+            return template;
+        }
+    }
+
+    @Test
+    void getPercentage_ShouldServeNearCacheWithoutRedis_WhileCopyIsFresh() {
+        when(valueOperations.get(PERCENTAGE_KEY)).thenReturn(Mono.just(MOCK_PERCENTAGE));
+        externalPercentageService.refresh().block();
+
+        for (int i = 0; i < 10; i++) {
+            StepVerifier.create(externalPercentageService.getPercentage())
+                    .expectNext(MOCK_PERCENTAGE)
+                    .verifyComplete();
+        }
+
+        verify(valueOperations, times(1)).get(PERCENTAGE_KEY);
+    }
+
+    @Test
+    void getPercentage_ShouldServeCurrentCopyAndRefreshInBackground_WhenRefreshIsDue() {
+        when(valueOperations.get(PERCENTAGE_KEY)).thenReturn(Mono.just(MOCK_PERCENTAGE));
+        externalPercentageService.refresh().block();
+        Sinks.One<Double> pendingRefresh = Sinks.one();
+        when(valueOperations.get(PERCENTAGE_KEY)).thenReturn(pendingRefresh.asMono());
+        clock.advance(REFRESH_INTERVAL);
+
+        // La lectura no espera al refresco en curso
+        StepVerifier.create(externalPercentageService.getPercentage())
+                .expectNext(MOCK_PERCENTAGE)
+                .verifyComplete();
+        StepVerifier.create(externalPercentageService.getPercentage())
+                .expectNext(MOCK_PERCENTAGE)
+                .verifyComplete();
+        pendingRefresh.tryEmitValue(12.5);
+
+        StepVerifier.create(externalPercentageService.getPercentage())
+                .expectNext(12.5)
+                .verifyComplete();
+        verify(valueOperations, times(2)).get(PERCENTAGE_KEY);
+    }
+
+    @Test
+    void getPercentage_ShouldWaitForReload_WhenCopyHasExpiredAndStaleModeIsDisabled() {
+        PercentageProperties properties = properties();
+        properties.getStale().setEnabled(false);
+        externalPercentageService = new ExternalPercentageServiceImpl(redisTemplate, stringRedisTemplate,
+                percentageProvider, properties, clock);
+        when(valueOperations.get(PERCENTAGE_KEY)).thenReturn(Mono.just(MOCK_PERCENTAGE));
+        externalPercentageService.refresh().block();
+        when(valueOperations.get(PERCENTAGE_KEY)).thenReturn(Mono.just(12.5));
+        clock.advance(NEAR_CACHE_TTL);
+
+        StepVerifier.create(externalPercentageService.getPercentage())
+                .expectNext(12.5)
+                .verifyComplete();
+    }
+
+    @Test
+    void getPercentage_ShouldServeStaleCopyImmediately_WhileRefreshIsSlow() {
+        when(valueOperations.get(PERCENTAGE_KEY)).thenReturn(Mono.just(MOCK_PERCENTAGE));
+        externalPercentageService.refresh().block();
+        Sinks.One<Double> slowProvider = Sinks.one();
+        when(valueOperations.get(PERCENTAGE_KEY)).thenReturn(Mono.empty());
+        when(percentageProvider.fetchPercentage()).thenReturn(slowProvider.asMono());
+        clock.advance(NEAR_CACHE_TTL.multipliedBy(10));
+
+        StepVerifier.create(externalPercentageService.getPercentage())
+                .expectNext(MOCK_PERCENTAGE)
+                .expectComplete()
+                .verify(Duration.ofMillis(100));
+        slowProvider.tryEmitValue(12.5);
+
+        StepVerifier.create(externalPercentageService.getPercentage())
+                .expectNext(12.5)
+                .verifyComplete();
+        verify(valueOperations).set(LAST_KNOWN_GOOD_KEY, 12.5, MAX_STALENESS);
+    }
+
+    @Test
+    void getPercentage_ShouldServeLastKnownGood_WhenRedisMissesAndProviderIsSlow() {
+        Sinks.One<Double> slowProvider = Sinks.one();
+        when(valueOperations.get(PERCENTAGE_KEY)).thenReturn(Mono.empty());
+        when(valueOperations.get(LAST_KNOWN_GOOD_KEY)).thenReturn(Mono.just(9.0));
+        when(redisTemplate.getExpire(LAST_KNOWN_GOOD_KEY)).thenReturn(Mono.just(Duration.ofHours(20)));
+        when(percentageProvider.fetchPercentage()).thenReturn(slowProvider.asMono());
+
+        StepVerifier.create(externalPercentageService.getPercentage())
+                .expectNext(9.0)
+                .expectComplete()
+                .verify(Duration.ofMillis(100));
+        verify(percentageProvider).fetchPercentage();
+
+        // El último valor válido tiene cuatro horas: pasadas otras veinte ya no se puede servir
+        clock.advance(Duration.ofHours(20));
+        when(valueOperations.get(LAST_KNOWN_GOOD_KEY)).thenReturn(Mono.empty());
+        when(percentageProvider.fetchPercentage()).thenReturn(Mono.error(new IllegalStateException("provider down")));
+
+        StepVerifier.create(externalPercentageService.getPercentage())
+                .verifyError(IllegalStateException.class);
+    }
+
+    @Test
+    void getPercentage_ShouldShareOneLoad_WhenCalledConcurrentlyOnColdCache() {
+        Sinks.One<Double> pendingLoad = Sinks.one();
+        when(valueOperations.get(PERCENTAGE_KEY)).thenReturn(pendingLoad.asMono());
+
+        Mono<Double> first = externalPercentageService.getPercentage();
+        Mono<Double> second = externalPercentageService.getPercentage();
+        pendingLoad.tryEmitValue(MOCK_PERCENTAGE);
+
+        StepVerifier.create(first).expectNext(MOCK_PERCENTAGE).verifyComplete();
+        StepVerifier.create(second).expectNext(MOCK_PERCENTAGE).verifyComplete();
+        verify(valueOperations, times(1)).get(PERCENTAGE_KEY);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private final AtomicLong millis = new AtomicLong(1_700_000_000_000L);
+
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+    }
+
+    @Test
+    void getPercentage_ShouldPublishFetchedPercentage_OnInvalidationChannel() {
+        when(valueOperations.get(PERCENTAGE_KEY)).thenReturn(Mono.empty());
+
+        StepVerifier.create(externalPercentageService.getPercentage())
+                .expectNext(MOCK_PERCENTAGE)
+                .verifyComplete();
+
+        verify(stringRedisTemplate).convertAndSend("dynamic-percentage:updates", "10.0");
+    }
+
+    @Test
+    void getPercentage_ShouldNotFail_WhenPublishFails() {
+        when(valueOperations.get(PERCENTAGE_KEY)).thenReturn(Mono.empty());
+        when(stringRedisTemplate.convertAndSend(anyString(), anyString()))
+                .thenReturn(Mono.error(new RuntimeException("Redis down")));
+
+        StepVerifier.create(externalPercentageService.getPercentage())
+                .expectNext(MOCK_PERCENTAGE)
+                .verifyComplete();
+    }
+
+    @Test
+    void update_ShouldReplaceNearCacheWithoutRedis() {
+        when(valueOperations.get(PERCENTAGE_KEY)).thenReturn(Mono.just(MOCK_PERCENTAGE));
+        externalPercentageService.refresh().block();
+
+        externalPercentageService.update(12.5);
+
+        StepVerifier.create(externalPercentageService.getPercentage())
+                .expectNext(12.5)
+                .verifyComplete();
+        verify(valueOperations, times(1)).get(PERCENTAGE_KEY);
+    }
+
+    @Test
+    void invalidate_ShouldReloadInBackground_EvenWithinRetryInterval() {
+        when(valueOperations.get(PERCENTAGE_KEY)).thenReturn(Mono.just(MOCK_PERCENTAGE));
+        externalPercentageService.refresh().block();
+        when(valueOperations.get(PERCENTAGE_KEY)).thenReturn(Mono.just(12.5));
+
+        // Dos invalidaciones seguidas recargan ambas, sin esperar el intervalo entre reintentos
+        externalPercentageService.invalidate();
+        StepVerifier.create(externalPercentageService.getPercentage())
+                .expectNext(12.5)
+                .verifyComplete();
+        when(valueOperations.get(PERCENTAGE_KEY)).thenReturn(Mono.just(13.0));
+        externalPercentageService.invalidate();
+
+        StepVerifier.create(externalPercentageService.getPercentage())
+                .expectNext(13.0)
+                .verifyComplete();
+        verify(valueOperations, times(3)).get(PERCENTAGE_KEY);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,67 @@
+package com.tenpo.challenge.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.tenpo.challenge.dto.LatencyPercentiles;
+import com.tenpo.challenge.service.impl.LatencyStatsServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class LatencyStatsServiceImplTest {
+
+    @Test
+    public void testPercentilesPerEndpoint() {
+        LatencyStatsServiceImpl service = new LatencyStatsServiceImpl(10, 60_000_000);
+        for (long micros = 1; micros <= 1000; micros++) {
+            service.record("/calculation/", micros);
+        }
+        service.record("/call-logs/", 5000);
+
+        List<LatencyPercentiles> stats = service.getLatencyStats().collectList().block();
+
+        assertEquals(2, stats.size());
+        LatencyPercentiles calculation = stats.get(0);
+        assertEquals("/calculation/", calculation.getEndpoint());
+        assertEquals(1000, calculation.getCount());
+        // La precisión de dos dígitos significativos admite un error menor al 1%
+        assertEquals(500, calculation.getP50(), 5);
+        assertEquals(990, calculation.getP99(), 10);
+        assertEquals(1000, calculation.getMax(), 10);
+        assertEquals(1, stats.get(1).getCount());
+    }
+
+    @Test
+    public void testPercentilesAccumulateAcrossReads() {
+        LatencyStatsServiceImpl service = new LatencyStatsServiceImpl(10, 60_000_000);
+        service.record("/calculation/", 100);
+        service.getLatencyStats().collectList().block();
+        service.record("/calculation/", 200);
+
+        assertEquals(2, service.getLatencyStats().blockFirst().getCount());
+    }
+
+    @Test
+    public void testEndpointsOverTheCapAreGroupedAsOther() {
+        LatencyStatsServiceImpl service = new LatencyStatsServiceImpl(2, 60_000_000);
+        service.record("/a", 10);
+        service.record("/b", 10);
+        service.record("/c", 10);
+        service.record("/d", 10);
+        service.record("/a", 10);
+
+        List<LatencyPercentiles> stats = service.getLatencyStats().collectList().block();
+
+        assertEquals(List.of("/a", "/b", "other"), stats.stream().map(LatencyPercentiles::getEndpoint).toList());
+        assertEquals(2, stats.get(2).getCount());
+        assertEquals(2, stats.get(0).getCount());
+    }
+
+    @Test
+    public void testDurationsAboveTheHighestTrackableAreClamped() {
+        LatencyStatsServiceImpl service = new LatencyStatsServiceImpl(10, 1_000_000);
+        service.record("/calculation/", 5_000_000);
+
+        assertTrue(service.getLatencyStats().blockFirst().getMax() < 2_000_000);
+    }
+}
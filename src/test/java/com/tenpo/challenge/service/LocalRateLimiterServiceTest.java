@@ -0,0 +1,83 @@
+package com.tenpo.challenge.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.tenpo.challenge.config.RateLimitPolicy;
+import com.tenpo.challenge.config.RateLimitProperties;
+import com.tenpo.challenge.service.impl.LocalRateLimiterService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+public class LocalRateLimiterServiceTest {
+
+    private final RateLimitPolicy policy = policy(new RateLimitProperties.Limit(2, Duration.ofMinutes(1),
+            RateLimitProperties.RefillType.GREEDY));
+
+    @Test
+    public void testEachKeyHasItsOwnBucket() {
+        LocalRateLimiterService service = new LocalRateLimiterService(1000, Duration.ofMinutes(1));
+
+        assertTrue(service.tryConsume("ip:10.0.0.1", policy).block().isConsumed());
+        assertTrue(service.tryConsume("ip:10.0.0.1", policy).block().isConsumed());
+        assertFalse(service.tryConsume("ip:10.0.0.1", policy).block().isConsumed());
+        // Otro cliente no se ve afectado por el cliente que agotó su límite
+        assertTrue(service.tryConsume("ip:10.0.0.2", policy).block().isConsumed());
+    }
+
+    @Test
+    public void testSeveralTokensAreTakenAllOrNone() {
+        RateLimitPolicy fivePerMinute = policy(new RateLimitProperties.Limit(5, Duration.ofMinutes(1),
+                RateLimitProperties.RefillType.GREEDY));
+        LocalRateLimiterService service = new LocalRateLimiterService(1000, Duration.ofMinutes(1));
+
+        assertTrue(service.tryConsume("global", fivePerMinute, 3).block().isConsumed());
+        // Quedan 2 tokens: una solicitud de 3 se rechaza sin consumir ninguno
+        assertFalse(service.tryConsume("global", fivePerMinute, 3).block().isConsumed());
+        assertEquals(0, service.tryConsume("global", fivePerMinute, 2).block().getRemainingTokens());
+    }
+
+    @Test
+    public void testAllLimitsOfThePolicyApply() {
+        RateLimitPolicy burstAndSustained = policy(
+                new RateLimitProperties.Limit(100, Duration.ofMinutes(1), RateLimitProperties.RefillType.GREEDY),
+                new RateLimitProperties.Limit(1, Duration.ofSeconds(10), RateLimitProperties.RefillType.INTERVALLY));
+        LocalRateLimiterService service = new LocalRateLimiterService(1000, Duration.ofMinutes(1));
+
+        assertTrue(service.tryConsume("global", burstAndSustained).block().isConsumed());
+        assertFalse(service.tryConsume("global", burstAndSustained).block().isConsumed());
+    }
+
+    @Test
+    public void testDrainedBucketIsKeptForItsLongestRefillPeriod() throws InterruptedException {
+        RateLimitPolicy twoPerHour = policy(new RateLimitProperties.Limit(2, Duration.ofHours(1),
+                RateLimitProperties.RefillType.INTERVALLY));
+        LocalRateLimiterService service = new LocalRateLimiterService(1000, Duration.ofMillis(50));
+
+        assertTrue(service.tryConsume("ip:10.0.0.1", twoPerHour, 2).block().isConsumed());
+        Thread.sleep(200);
+
+        // La pausa supera la expiración configurada, pero no el período de la política: el bucket sigue vacío
+        assertFalse(service.tryConsume("ip:10.0.0.1", twoPerHour).block().isConsumed());
+        assertEquals(1, service.size());
+    }
+
+    @Test
+    public void testBucketStorageIsBounded() {
+        LocalRateLimiterService service = new LocalRateLimiterService(100, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 10_000; i++) {
+            service.tryConsume("ip:" + i, policy).block();
+        }
+
+        assertTrue(service.size() <= 100);
+    }
+
+    private static RateLimitPolicy policy(RateLimitProperties.Limit... limits) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setPath("/calculation/**");
+        policy.setLimits(List.of(limits));
+        return RateLimitPolicy.of(policy);
+    }
+}
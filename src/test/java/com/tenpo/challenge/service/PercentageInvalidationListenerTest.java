@@ -0,0 +1,153 @@
+package com.tenpo.challenge.service;
+
+import com.tenpo.challenge.config.PercentageProperties;
+import com.tenpo.challenge.service.impl.PercentageInvalidationListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PercentageInvalidationListenerTest {
+
+    private static final String CHANNEL = "dynamic-percentage:updates";
+    private static final String KEYSPACE_PATTERN = "__keyspace@*__:dynamic-percentage";
+    private static final String KEYSPACE_CHANNEL = "__keyspace@0__:dynamic-percentage";
+
+    @Mock
+    private ExternalPercentageService externalPercentageService;
+
+    private final List<Sinks.Many<ReactiveSubscription.Message<String, String>>> subscriptions = new ArrayList<>();
+    private final List<List<Topic>> subscribedTopics = new ArrayList<>();
+    private final Sinks.Many<Object> reconnections = Sinks.many().multicast().directBestEffort();
+    private PercentageProperties properties;
+    private PercentageInvalidationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PercentageProperties();
+        properties.getInvalidation().setResubscribeMinBackoff(Duration.ofMillis(10));
+        properties.getInvalidation().setResubscribeMaxBackoff(Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (listener != null) {
+            listener.stop();
+        }
+    }
+
+    @Test
+    void testPublishedPercentageUpdatesCopy() {
+        start();
+
+        publish(new ReactiveSubscription.ChannelMessage<>(CHANNEL, "12.5"));
+
+        verify(externalPercentageService).update(12.5);
+        verify(externalPercentageService, never()).invalidate();
+        assertEquals(List.of(ChannelTopic.of(CHANNEL)), subscribedTopics.get(0));
+    }
+
+    @Test
+    void testInvalidPayloadInvalidatesCopy() {
+        start();
+
+        publish(new ReactiveSubscription.ChannelMessage<>(CHANNEL, "not-a-number"));
+
+        verify(externalPercentageService, never()).update(anyDouble());
+        verify(externalPercentageService).invalidate();
+    }
+
+    @Test
+    void testKeyspaceEventsInvalidateCopy() {
+        properties.getInvalidation().setKeyspaceEvents(true);
+        start();
+
+        publish(new ReactiveSubscription.PatternMessage<>(KEYSPACE_PATTERN, KEYSPACE_CHANNEL, "set"));
+        publish(new ReactiveSubscription.PatternMessage<>(KEYSPACE_PATTERN, KEYSPACE_CHANNEL, "expired"));
+        publish(new ReactiveSubscription.PatternMessage<>(KEYSPACE_PATTERN, KEYSPACE_CHANNEL, "expire"));
+
+        verify(externalPercentageService, times(2)).invalidate();
+        assertEquals(List.of(ChannelTopic.of(CHANNEL), PatternTopic.of(KEYSPACE_PATTERN)), subscribedTopics.get(0));
+    }
+
+    @Test
+    void testSubscribesAgainAndReloads_WhenSubscriptionIsLost() {
+        start();
+        verify(externalPercentageService, never()).invalidate();
+
+        // Se pierde la conexión: se vuelve a suscribir con un nuevo contenedor y recarga la copia
+        subscriptions.get(0).tryEmitError(new RuntimeException("Connection reset"));
+        verify(externalPercentageService, timeout(1000)).invalidate();
+        assertEquals(2, subscriptions.size());
+
+        publish(new ReactiveSubscription.ChannelMessage<>(CHANNEL, "13.0"));
+        verify(externalPercentageService).update(13.0);
+    }
+
+    @Test
+    void testReloads_WhenRedisConnectionIsRestored() {
+        start();
+
+        // El cliente de Redis restaura la suscripción por su cuenta, pero los cambios intermedios se perdieron
+        reconnections.tryEmitNext(new Object());
+
+        verify(externalPercentageService).invalidate();
+        assertEquals(1, subscriptions.size());
+    }
+
+    @Test
+    void testDisabledDoesNotSubscribe() {
+        properties.getInvalidation().setEnabled(false);
+        start();
+
+        assertTrue(subscriptions.isEmpty());
+    }
+
+    private void start() {
+        listener = new PercentageInvalidationListener(containerFactory(), reconnections.asFlux(),
+                externalPercentageService, properties);
+        listener.start();
+    }
+
+    private void publish(ReactiveSubscription.Message<String, String> message) {
+        subscriptions.get(subscriptions.size() - 1).tryEmitNext(message);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Supplier<ReactiveRedisMessageListenerContainer> containerFactory() {
+        return () -> {
+            Sinks.Many<ReactiveSubscription.Message<String, String>> sink = Sinks.many().replay().all();
+            ReactiveRedisMessageListenerContainer container = mock(ReactiveRedisMessageListenerContainer.class);
+            doAnswer(invocation -> {
+                List<Topic> topics = new ArrayList<>();
+                invocation.<Iterable<Topic>>getArgument(0).forEach(topics::add);
+                subscribedTopics.add(topics);
+                return Mono.just(sink.asFlux());
+            }).when(container).receiveLater(any(Iterable.class), any(), any());
+            when(container.destroyLater()).thenReturn(Mono.empty());
+            subscriptions.add(sink);
+            return container;
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.tenpo.challenge.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.tenpo.challenge.config.RateLimitPolicy;
+import com.tenpo.challenge.config.RateLimitProperties;
+import com.tenpo.challenge.service.impl.RedisRateLimiterService;
+import io.github.bucket4j.ConsumptionProbe;
+import io.lettuce.core.RedisClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+public class RedisRateLimiterServiceTest {
+
+    private final RedisClient redisClient = RedisClient.create();
+
+    @AfterEach
+    public void tearDown() {
+        redisClient.shutdown();
+    }
+
+    @Test
+    public void testFallsBackToLocalLimitWhenRedisIsUnavailable() {
+        RateLimitProperties.Policy calculation = new RateLimitProperties.Policy();
+        calculation.setPath("/calculation/**");
+        calculation.setLimits(List.of(new RateLimitProperties.Limit(100, Duration.ofMinutes(1),
+                RateLimitProperties.RefillType.GREEDY)));
+        calculation.setFallbackLimits(List.of(new RateLimitProperties.Limit(2, Duration.ofMinutes(1),
+                RateLimitProperties.RefillType.GREEDY)));
+        RateLimitPolicy policy = RateLimitPolicy.of(calculation);
+        // Puerto sin servidor Redis: se usa el límite local de respaldo
+        RedisRateLimiterService service = new RedisRateLimiterService(redisClient,
+                "localhost", 1, 50, 0, 100, 60_000, 1000, Duration.ofMinutes(1));
+
+        ConsumptionProbe first = service.tryConsume("ip:10.0.0.1", policy).block();
+        ConsumptionProbe second = service.tryConsume("ip:10.0.0.1", policy).block();
+        ConsumptionProbe third = service.tryConsume("ip:10.0.0.1", policy).block();
+        ConsumptionProbe otherClient = service.tryConsume("ip:10.0.0.2", policy).block();
+
+        assertTrue(first.isConsumed());
+        assertTrue(second.isConsumed());
+        assertFalse(third.isConsumed());
+        assertTrue(third.getNanosToWaitForRefill() > 0);
+        assertTrue(otherClient.isConsumed());
+        service.close();
+    }
+}
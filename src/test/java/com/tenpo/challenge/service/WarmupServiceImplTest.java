@@ -0,0 +1,108 @@
+package com.tenpo.challenge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenpo.challenge.service.impl.WarmupServiceImpl;
+import io.r2dbc.pool.ConnectionPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WarmupServiceImplTest {
+
+    private static final int ITERATIONS = 100;
+
+    @Mock
+    private ReactiveRedisConnectionFactory redisConnectionFactory;
+
+    @Mock
+    private ReactiveRedisConnection redisConnection;
+
+    @Mock
+    private ConnectionPool connectionPool;
+
+    @Mock
+    private HttpClient httpClient;
+
+    @Mock
+    private ExternalPercentageService externalPercentageService;
+
+    @Mock
+    private CalculationService calculationService;
+
+    @BeforeEach
+    void setUp() {
+        when(redisConnectionFactory.getReactiveConnection()).thenReturn(redisConnection);
+        when(redisConnection.ping()).thenReturn(Mono.just("PONG"));
+        when(redisConnection.closeLater()).thenReturn(Mono.empty());
+        when(connectionPool.warmup()).thenReturn(Mono.just(10));
+        when(httpClient.warmup()).thenReturn(Mono.empty());
+        when(externalPercentageService.refresh()).thenReturn(Mono.just(10.0));
+        when(calculationService.calculate(anyDouble(), anyDouble())).thenReturn(Mono.just(11.0));
+    }
+
+    @Test
+    void warmUp_ShouldOpenConnectionsLoadPercentageAndRunCalculations() {
+        StepVerifier.create(warmupService(true, Duration.ofSeconds(5)).warmUp())
+                .verifyComplete();
+
+        verify(redisConnection).ping();
+        verify(redisConnection).closeLater();
+        verify(connectionPool).warmup();
+        verify(httpClient).warmup();
+        verify(externalPercentageService).refresh();
+        verify(calculationService, times(ITERATIONS)).calculate(anyDouble(), anyDouble());
+    }
+
+    @Test
+    void warmUp_ShouldSkipFailedSteps() {
+        when(redisConnection.ping()).thenReturn(Mono.error(new RuntimeException("Redis down")));
+        when(externalPercentageService.refresh()).thenReturn(Mono.error(new RuntimeException("Provider down")));
+
+        StepVerifier.create(warmupService(true, Duration.ofSeconds(5)).warmUp())
+                .verifyComplete();
+
+        verify(connectionPool).warmup();
+        verify(calculationService, atLeastOnce()).calculate(anyDouble(), anyDouble());
+    }
+
+    @Test
+    void warmUp_ShouldSkipStepsThatTimeOut() {
+        // El pool de la base de datos no responde: el paso se omite al vencer su timeout
+        when(connectionPool.warmup()).thenReturn(Mono.never());
+
+        StepVerifier.create(warmupService(true, Duration.ofMillis(100)).warmUp())
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        verify(externalPercentageService).refresh();
+    }
+
+    @Test
+    void warmUp_ShouldDoNothing_WhenDisabled() {
+        StepVerifier.create(warmupService(false, Duration.ofSeconds(5)).warmUp())
+                .verifyComplete();
+
+        verifyNoInteractions(redisConnectionFactory, connectionPool, httpClient, externalPercentageService,
+                calculationService);
+    }
+
+    private WarmupServiceImpl warmupService(boolean enabled, Duration stepTimeout) {
+        return new WarmupServiceImpl(redisConnectionFactory, connectionPool, httpClient, externalPercentageService,
+                calculationService, new ObjectMapper(), enabled, stepTimeout, ITERATIONS);
+    }
+}